@@ -0,0 +1,57 @@
+/**
+ * ALTSolver is A* guided by landmark lower bounds ({@link LandmarkHeuristic})
+ * instead of the Manhattan distance alone. The search itself is AStarSolver's;
+ * only the heuristic changes, to the larger of AStarSolver's teleport-aware
+ * bound and the landmark bound.
+ * In a winding maze that bound follows the corridors, so far fewer cells are
+ * expanded before the end is reached.
+ *
+ * The landmark tables are built on the first solve of a maze layout and shared
+ * by every later solve of it.
+ */
+public class ALTSolver extends AStarSolver {
+    private final int landmarkCount;
+
+    private LandmarkHeuristic landmarks; // Tables for the maze being solved, fetched by the first heuristic call
+    private int goal;                     // Cell index of the end for the current solve
+
+    public ALTSolver(Maze maze) {
+        this(maze, LandmarkHeuristic.DEFAULT_LANDMARKS);
+    }
+
+    // Constructor sets the number of landmarks and the algorithm name
+    public ALTSolver(Maze maze, int landmarkCount) {
+        super(maze);
+        this.landmarkCount = landmarkCount;
+        this.algorithmName = "ALT";
+    }
+
+    @Override
+    public long solve(boolean visualize) {
+        landmarks = null; // The layout may have changed since the last solve
+        goal = maze.getEndPos().y * maze.getCols() + maze.getEndPos().x;
+        return super.solve(visualize);
+    }
+
+    // The larger of AStarSolver's bound and the landmark bound; both are admissible, so the larger one is too
+    @Override
+    protected double heuristic(int x, int y) {
+        double direct = super.heuristic(x, y);
+        if (isStopped()) return direct; // Over budget: do not build tables for a solve that is over
+        if (landmarks == null) {
+            landmarks = LandmarkHeuristic.of(maze, landmarkCount);
+        }
+        return Math.max(direct, landmarks.lowerBound(y * maze.getCols() + x, goal));
+    }
+
+    // The landmark tables, two bytes per cell and landmark, on top of A*'s own state
+    @Override
+    protected long estimateMemoryBytes() {
+        return super.estimateMemoryBytes() + 2L * landmarkCount * maze.getRows() * maze.getCols();
+    }
+
+    // Landmarks used by the last solve, or null before the first one
+    public LandmarkHeuristic getLandmarks() {
+        return landmarks;
+    }
+}
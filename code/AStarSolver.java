@@ -1,20 +1,23 @@
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
 
 /**
  * AStarSolver is a maze solver that uses the A* search algorithm.
  * It extends the MazeSolver base class and finds the shortest path
  * from a start point to an end point using a combination of actual cost and heuristic.
+ * The heuristic is a {@link TeleportHeuristic}, so it never overestimates even
+ * when a teleport leads to a shortcut, and the path found is a shortest one.
  */
 public class AStarSolver extends MazeSolver {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
 
     /**
-     * Inner Node class representing a cell in the maze grid.
+     * Inner Node class representing a cell in the maze grid, for the step-by-step
+     * run of the visualizer.
      * Each node holds its coordinates, parent (for path tracking), and cost values:
      * g = cost from the start, h = estimated cost to the end (heuristic).
      */
@@ -44,7 +47,10 @@ public class AStarSolver extends MazeSolver {
         }
     }
 
-    protected Node currentNode; // Current node being processed
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    protected Node currentNode; // Node the visualizer is expanding
+    private TeleportHeuristic teleportHeuristic; // Bound for the maze and end being solved
 
     // Constructor sets the algorithm name and passes the maze to the parent class
     public AStarSolver(Maze maze) {
@@ -59,84 +65,99 @@ public class AStarSolver extends MazeSolver {
 
     /**
      * The main A* solving function.
-     * It searches the shortest path from start to end using open/closed lists.
+     * It searches the shortest path from start to end on the reusable heap and
+     * arrays of the solver workspace. The open list is ordered by f = g + h, and
+     * among equal f by the larger g, which reaches the end sooner.
      *
      * @param visualize Whether to enable visualization (not used here)
      * @return Time taken to solve the maze in milliseconds, or -1 if no path found
      */
     @Override
     public long solve(boolean visualize) {
-        reset(); // Reset any previous state
+        SolverWorkspace workspace = beginSearch(); // Reset any previous state
         long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: the workspace was not touched
 
-        // Priority queue (min-heap) for nodes to explore, sorted by f = g + h
-        PriorityQueue<Node> openSet = new PriorityQueue<>();
-        // Stores all visited or created nodes to avoid duplicates
-        Map<Point, Node> allNodes = new HashMap<>();
+        int cols = maze.getCols();
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int end = maze.getEndPos().y * cols + maze.getEndPos().x;
 
-        // Create the start node
-        Node startNode = new Node(maze.getStartPos().x, maze.getStartPos().y,
-                null, 0, heuristic(maze.getStartPos().x, maze.getStartPos().y));
-        openSet.add(startNode);
-        allNodes.put(new Point(maze.getStartPos().x, maze.getStartPos().y), startNode);
+        // Min-heap of cells keyed by (f, INFINITY - g); g itself is the cell's distance in the workspace
+        LongMinHeap openSet = workspace.getLongHeap();
+        workspace.reach(start, 0, -1);
+        openSet.add(key(0, heuristicOf(start)), start);
 
-        // Main loop: continue while there are nodes to explore
+        // Main loop: continue while there are cells to explore
         while (!openSet.isEmpty()) {
-            currentNode = openSet.poll(); // Get node with the lowest f-value
+            int g = INFINITY - (int) openSet.peekKey();
+            int cell = openSet.poll(); // Get the cell with the lowest f-value
+            // Skip entries superseded by a cheaper path to the same cell (entries are never changed in the heap)
+            if (g != workspace.getDistance(cell)) continue;
 
             // Check if goal has been reached
-            if (currentNode.x == maze.getEndPos().x && currentNode.y == maze.getEndPos().y) {
-                path = reconstructPath(currentNode); // Rebuild the path
-                steps = path.size() - 1 + penaltySteps;
+            if (cell == end) {
+                storePath(cell); // Rebuild the path
                 return System.currentTimeMillis() - startTime; // Return time taken
             }
+            if (!expand()) return stopSearch(cell); // Out of budget: path so far
+
+            workspace.settle(cell); // Mark as visited
 
-            visited[currentNode.y][currentNode.x] = true; // Mark as visited
-
-            // Handle teleport or special tiles (returns new position if teleportation occurred)
-            Point teleportPos = handleSpecialTile(currentNode.x, currentNode.y);
-            if (teleportPos != null) {
-                double newG = currentNode.g + 1;
-                Node teleportNode = allNodes.getOrDefault(new Point(teleportPos.x, teleportPos.y),
-                        new Node(teleportPos.x, teleportPos.y, currentNode, newG, heuristic(teleportPos.x, teleportPos.y)));
-
-                // Update the teleport node if a shorter path is found
-                if (newG < teleportNode.g) {
-                    teleportNode.g = newG;
-                    teleportNode.parent = currentNode;
-                    openSet.add(teleportNode);
-                    allNodes.put(new Point(teleportPos.x, teleportPos.y), teleportNode);
-                }
+            // Handle teleport tiles: the only move from a teleport is the hop to its partner
+            int partner = maze.getTeleportPartner(cell);
+            if (partner >= 0) {
+                relax(workspace, openSet, cell, partner, g + 1);
                 continue; // Skip neighbor check for teleportation
             }
 
-            // Explore neighbors of the current node
-            for (Point neighbor : maze.getNeighbors(currentNode.x, currentNode.y, visited)) {
-                if (visited[neighbor.y][neighbor.x]) continue; // Skip if already visited
-
-                double tentativeG = currentNode.g + 1; // Cost to move to neighbor
-                Node neighborNode = allNodes.getOrDefault(neighbor,
-                        new Node(neighbor.x, neighbor.y, null, Double.MAX_VALUE, heuristic(neighbor.x, neighbor.y)));
-
-                // Update neighbor if a shorter path is found
-                if (tentativeG < neighborNode.g) {
-                    neighborNode.g = tentativeG;
-                    neighborNode.parent = currentNode;
-                    openSet.add(neighborNode);
-                    allNodes.put(neighbor, neighborNode);
-                }
+            // Explore neighbors of the current cell; a visited one is opened again if this path is cheaper,
+            // since a bound read from TeleportHeuristic's block table is admissible but not always consistent
+            int x = cell % cols;
+            int y = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (maze.isOpen(nx, ny)) relax(workspace, openSet, cell, ny * cols + nx, g + 1);
             }
         }
 
         return -1; // No path found
     }
 
+    // Queues the cell again if the path through 'from' is cheaper than the best known one
+    private void relax(SolverWorkspace workspace, LongMinHeap openSet, int from, int to, int tentativeG) {
+        if (tentativeG >= workspace.getDistance(to)) return;
+        workspace.reach(to, tentativeG, from);
+        openSet.add(key(tentativeG, heuristicOf(to)), to); // The older entry, if any, is skipped when it is polled
+    }
+
+    // Heap key ordering by f, then by larger g
+    private static long key(int g, int h) {
+        return LongMinHeap.pack(g + h, INFINITY - g);
+    }
+
+    // The heuristic of a cell index, rounded up to a whole step (moves cost whole steps, so it stays admissible)
+    private int heuristicOf(int cell) {
+        return (int) Math.ceil(heuristic(cell % maze.getCols(), cell / maze.getCols()));
+    }
+
+    // The workspace, plus the open set: a long key and an int cell per entry, and about one entry per
+    // neighbor that lowers a cell's g
+    @Override
+    protected long estimateMemoryBytes() {
+        return super.estimateMemoryBytes() + (long) maze.getRows() * maze.getCols() * 4 * 12;
+    }
+
     /**
      * Heuristic function: estimates cost from (x, y) to the goal.
-     * Uses Manhattan distance (no diagonal movement allowed).
+     * Manhattan distance (no diagonal movement allowed), lowered where walking to
+     * a teleport and hopping could be shorter (see TeleportHeuristic).
      */
-    private double heuristic(int x, int y) {
-        return Math.abs(x - maze.getEndPos().x) + Math.abs(y - maze.getEndPos().y);
+    protected double heuristic(int x, int y) {
+        if (teleportHeuristic == null || !teleportHeuristic.matches(maze)) {
+            teleportHeuristic = TeleportHeuristic.of(maze);
+        }
+        return teleportHeuristic.estimate(x, y);
     }
 
     /**
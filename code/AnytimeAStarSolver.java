@@ -0,0 +1,299 @@
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * AnytimeAStarSolver is an anytime repairing A* (ARA*, Likhachev et al.). It
+ * first searches with the heuristic inflated by a large weight, which finds a
+ * path after few expansions, then lowers the weight step by step down to 1 and
+ * improves the path. Each round reuses the costs of the previous one: only
+ * cells whose cost went down since they were expanded (the INCONS list) and the
+ * cells still open are searched again, so a round costs far less than a fresh
+ * weighted A*.
+ *
+ * Every improved path is handed to the AnytimePathListener together with its
+ * proven bound: its cost is at most bound times the optimal cost, since
+ * AStarSolver's heuristic never overestimates, teleports included.
+ *
+ * Set a SolveBudget to stop improving when time is up: the solve then returns
+ * the best path found so far with status SOLVED, and getBound() tells how good
+ * it is. Moves cost as in CostModel.DEFAULT and a teleport is an extra edge to
+ * its partner, as for Dial's algorithm.
+ */
+public class AnytimeAStarSolver extends AStarSolver {
+    // Up, Right, Down, Left
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // Weights are kept in thousandths so the heap keys stay integers
+    private static final int WEIGHT_SCALE = 1000;
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    private final int initialWeight; // First heuristic weight, in thousandths
+    private final int weightStep;    // How much the weight drops per round, in thousandths
+    private AnytimePathListener listener;
+
+    private int[] g = new int[0];            // Best known cost from the start
+    private int[] parent = new int[0];       // Cell the best known cost comes from
+    private int[] closedRound = new int[0];  // Round in which the cell was last expanded
+    private int[] inconsRound = new int[0];  // Round in which the cell was put on the INCONS list
+    private int[] openRound = new int[0];    // Round in which the cell was last put on the open list
+    private int[] incons = new int[0];       // Closed cells whose cost went down: reopened next round
+    private int inconsSize;
+    private final LongMinHeap open = new LongMinHeap(256);
+    // g + h of every cell put on OPEN or INCONS, for the bound; entries that no longer hold are dropped when they surface
+    private final LongMinHeap lowestF = new LongMinHeap(256);
+
+    private int round;       // Rounds started by this solver, across solves
+    private int weight;      // Weight of the current round, in thousandths
+    private int bestCost;    // Cost of the best path of the last solve, -1 if none
+    private double bound;    // Proven suboptimality bound of that path
+    private int improvements; // Paths published by the last solve
+
+    // Starts at weight 3 and lowers it by 0.5 per round
+    public AnytimeAStarSolver(Maze maze) {
+        this(maze, 3.0, 0.5);
+    }
+
+    public AnytimeAStarSolver(Maze maze, double initialWeight, double weightStep) {
+        super(maze);
+        if (initialWeight < 1 || weightStep <= 0) {
+            throw new IllegalArgumentException("Need an initial weight of at least 1 and a positive step: "
+                    + initialWeight + ", " + weightStep);
+        }
+        this.initialWeight = (int) Math.round(initialWeight * WEIGHT_SCALE);
+        this.weightStep = Math.max(1, (int) Math.round(weightStep * WEIGHT_SCALE));
+        this.algorithmName = "ARA*";
+    }
+
+    // Receives every improved path of the following solves, or null for none
+    public void setListener(AnytimePathListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Runs weighted searches with a falling weight until a path is proven optimal
+     * (bound 1) or the budget runs out.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken in milliseconds, or -1 if no path was found at all
+     */
+    @Override
+    public long solve(boolean visualize) {
+        reset();
+        bestCost = -1;
+        bound = Double.POSITIVE_INFINITY;
+        improvements = 0;
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: allocate nothing
+
+        int cols = maze.getCols();
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int goal = maze.getEndPos().y * cols + maze.getEndPos().x;
+        initialize(maze.getRows() * cols);
+
+        g[start] = 0;
+        parent[start] = -1;
+        weight = initialWeight;
+        round++;
+        addOpen(start);
+        lowestF.add(f(start), start);
+
+        while (true) {
+            int stoppedAt = improvePath(goal);
+            if (stoppedAt >= 0) {
+                // Out of budget: keep the best path so far, or the partial path if there is none yet
+                return bestCost >= 0 ? System.currentTimeMillis() - startTime : stopSearch(reconstructPath(stoppedAt));
+            }
+            if (g[goal] >= INFINITY) return -1; // Nothing left to search: no path
+
+            double proven = Math.min((double) weight / WEIGHT_SCALE, g[goal] / (double) lowestOpenCost());
+            if (bestCost < 0 || g[goal] < bestCost || proven < bound) {
+                publish(goal, Math.max(1.0, proven));
+            }
+            if (bound <= 1.0) break; // Optimal (as far as the heuristic can tell)
+
+            int previousWeight = weight;
+            weight = Math.max(WEIGHT_SCALE, weight - weightStep);
+            startRound(previousWeight);
+        }
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * Expands cells in order of g + weight * h until none of them could lead to a
+     * path cheaper than the one to the goal. Returns -1 when the round is over,
+     * or the cell it was about to expand when the budget ran out.
+     */
+    private int improvePath(int goal) {
+        int cols = maze.getCols();
+        while (!open.isEmpty()) {
+            long top = open.peekKey();
+            if ((long) g[goal] * WEIGHT_SCALE <= top) break; // The goal's key is its cost: nothing open can beat it
+
+            int cell = open.poll();
+            if (top != key(cell) || closedRound[cell] == round) continue; // Stale or already expanded this round
+            if (!expand()) {
+                open.add(top, cell); // Keep the heap complete for getBound's sake
+                return cell;
+            }
+            closedRound[cell] = round;
+            visited[cell / cols][cell % cols] = true;
+
+            int x = cell % cols;
+            int y = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (maze.isOpen(nx, ny)) {
+                    relax(cell, ny * cols + nx, CostModel.DEFAULT.enterCost(maze.getCell(nx, ny)));
+                }
+            }
+            int partner = maze.getTeleportPartner(cell);
+            if (partner >= 0) {
+                relax(cell, partner, CostModel.DEFAULT.getTeleportCost());
+            }
+        }
+        return -1;
+    }
+
+    // Lowers the cost of a cell; a cell already expanded this round waits on INCONS for the next one
+    private void relax(int from, int to, int cost) {
+        int newCost = g[from] + cost;
+        if (newCost >= g[to]) return;
+        g[to] = newCost;
+        parent[to] = from;
+        if (closedRound[to] != round) {
+            addOpen(to);
+        } else if (inconsRound[to] != round) {
+            inconsRound[to] = round;
+            incons[inconsSize++] = to;
+        }
+        lowestF.add(f(to), to);
+    }
+
+    private void addOpen(int cell) {
+        open.add(key(cell), cell);
+        openRound[cell] = round;
+    }
+
+    // Moves OPEN and INCONS into a new open list keyed with the new weight, and reopens every cell
+    private void startRound(int previousWeight) {
+        int previous = round;
+        round++;
+        int[] cells = incons; // Reused: INCONS is emptied here, and the open list has at most one live entry per cell
+        int count = inconsSize;
+        inconsSize = 0;
+        while (!open.isEmpty()) {
+            long key = open.peekKey();
+            int cell = open.poll();
+            if (closedRound[cell] == previous) continue; // Expanded: it is on INCONS if it needs another look
+            if (key != keyWith(cell, previousWeight)) continue; // Stale: g only falls, so just one entry per cell matches
+            cells[count++] = cell;
+        }
+        for (int i = 0; i < count; i++) {
+            addOpen(cells[i]); // Its g did not change, so its lowestF entry still holds
+        }
+    }
+
+    /**
+     * Lowest g + h over every cell still open or on INCONS; the optimal cost is at
+     * least this. The top of lowestF is dropped while it is out of date: its cell
+     * got cheaper since (a newer entry holds), or was expanded this round and is
+     * not waiting on INCONS. A cell only rejoins OPEN or INCONS by getting cheaper,
+     * which adds a new entry, so nothing dropped is ever needed again.
+     */
+    private int lowestOpenCost() {
+        while (!lowestF.isEmpty()) {
+            int cell = lowestF.peekValue();
+            boolean waiting = inconsRound[cell] == round
+                    || (closedRound[cell] != round && openRound[cell] == round);
+            if (waiting && lowestF.peekKey() == f(cell)) {
+                return (int) Math.max(1, lowestF.peekKey());
+            }
+            lowestF.poll();
+        }
+        return INFINITY;
+    }
+
+    // Stores the path to the goal as the new best one and hands it to the listener
+    private void publish(int goal, double proven) {
+        path = reconstructPath(goal);
+        countPathSteps();
+        bestCost = g[goal];
+        bound = Math.min(bound, proven);
+        improvements++;
+        if (listener != null) {
+            listener.pathImproved(Collections.unmodifiableList(new ArrayList<>(path)), bestCost, bound);
+        }
+    }
+
+    private List<Point> reconstructPath(int end) {
+        int cols = maze.getCols();
+        List<Point> result = new ArrayList<>();
+        for (int cell = end; cell != -1; cell = parent[cell]) {
+            result.add(new Point(cell % cols, cell / cols));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // Sizes the per-cell arrays for this maze and marks every cell as unreached
+    private void initialize(int cellCount) {
+        if (g.length != cellCount) {
+            g = new int[cellCount];
+            parent = new int[cellCount];
+            closedRound = new int[cellCount];
+            inconsRound = new int[cellCount];
+            incons = new int[cellCount];
+            openRound = new int[cellCount];
+            round = 0;
+        }
+        Arrays.fill(g, INFINITY);
+        inconsSize = 0;
+        open.clear();
+        lowestF.clear();
+    }
+
+    // AStarSolver's heuristic for a cell index
+    private int h(int cell) {
+        return (int) heuristic(cell % maze.getCols(), cell / maze.getCols());
+    }
+
+    // Unweighted g + h of a cell
+    private long f(int cell) {
+        return (long) g[cell] + h(cell);
+    }
+
+    private long key(int cell) {
+        return keyWith(cell, weight);
+    }
+
+    private long keyWith(int cell, int roundWeight) {
+        return (long) g[cell] * WEIGHT_SCALE + (long) roundWeight * h(cell);
+    }
+
+    // The best path counts as solved even when the budget stopped the improvement
+    @Override
+    public SolveStatus getStatus() {
+        return bestCost >= 0 ? SolveStatus.SOLVED : super.getStatus();
+    }
+
+    // Cost of the best path of the last solve under CostModel.DEFAULT, or -1
+    @Override
+    public int getPathCost() {
+        return bestCost;
+    }
+
+    // Proven suboptimality bound of the best path (1 means optimal), or infinity if there is none
+    public double getBound() {
+        return bound;
+    }
+
+    // Number of improved paths the last solve published
+    public int getImprovements() {
+        return improvements;
+    }
+}
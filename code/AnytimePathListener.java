@@ -0,0 +1,12 @@
+import java.awt.Point;
+import java.util.List;
+
+/**
+ * AnytimePathListener receives every path an anytime solver finds, on the
+ * solving thread, as soon as it is found. Each path is cheaper than the one
+ * before, and its bound says how far from optimal it can be at most.
+ */
+public interface AnytimePathListener {
+    // Called with the new best path, its cost and its suboptimality bound (cost <= bound * optimal cost)
+    void pathImproved(List<Point> path, int cost, double bound);
+}
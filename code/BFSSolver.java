@@ -1,13 +1,15 @@
 import java.awt.Point;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 
 // BFSSolver implements the Breadth-First Search algorithm for solving the maze
 public class BFSSolver extends MazeSolver {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
 
-    // Inner class to keep track of a position (x, y) and the path taken to reach it
+    // Inner class to keep track of a position (x, y) and the path taken to reach it (used by the
+    // step-by-step BFS of the visualizer)
     public static class PathNode {
         int x, y;
         List<Point> path;
@@ -27,55 +29,56 @@ public class BFSSolver extends MazeSolver {
         this.algorithmName = "BFS";
     }
 
-    // The main function that performs the BFS algorithm
+    // The main function that performs the BFS algorithm, on the reusable arrays of the solver workspace
     @Override
     public long solve(boolean visualize) {
-        // Reset the solver’s internal state before starting
-        reset();
+        // Reset the solver’s internal state before starting; nothing is allocated in steady state
+        SolverWorkspace workspace = beginSearch();
 
         // Track how long the solving process takes
         long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: the workspace was not touched
 
-        // Initialize BFS queue with the starting point of the maze
-        Queue<PathNode> queue = new LinkedList<>();
-        queue.add(new PathNode(maze.getStartPos().x, maze.getStartPos().y, new ArrayList<>()));
+        int cols = maze.getCols();
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int end = maze.getEndPos().y * cols + maze.getEndPos().x;
 
-        // Mark the start point as visited
-        visited[maze.getStartPos().y][maze.getStartPos().x] = true;
+        // Initialize the BFS queue with the starting point of the maze, marked visited
+        int[] queue = workspace.getQueue();
+        int head = 0, tail = 0;
+        discover(workspace, start, -1);
+        queue[tail++] = start;
 
         // Start BFS loop
-        while (!queue.isEmpty()) {
-            // Get the current node from the queue
-            PathNode node = queue.poll();
-            int x = node.x;
-            int y = node.y;
-            List<Point> currentPath = node.path;
+        while (head < tail) {
+            int cell = queue[head++];
 
             // Check if we've reached the goal
-            if (x == maze.getEndPos().x && y == maze.getEndPos().y) {
-                path = new ArrayList<>(currentPath);     // Store the final path
-                path.add(new Point(x, y));              // Add the final point to the path
-                steps = path.size() - 1 + penaltySteps; // Count the total steps
+            if (cell == end) {
+                storePath(cell); // Store the final path and count its steps
                 return System.currentTimeMillis() - startTime; // Return execution time
             }
 
-            // Create a new path list for neighbors
-            List<Point> newPath = new ArrayList<>(currentPath);
-            newPath.add(new Point(x, y));
+            // Out of budget: keep the path to this cell as the partial result
+            if (!expand()) return stopSearch(cell);
 
-            // Handle special tiles like teleporters or traps
-            Point teleportPos = handleSpecialTile(x, y);
-            if (teleportPos != null && !visited[teleportPos.y][teleportPos.x]) {
-                visited[teleportPos.y][teleportPos.x] = true;
-                queue.add(new PathNode(teleportPos.x, teleportPos.y, newPath));
-                continue; // Skip normal neighbors if teleported
+            // A teleport sends the search to its partner instead of the neighbors (if the partner is still new)
+            int partner = maze.getTeleportPartner(cell);
+            if (partner >= 0 && !workspace.isReached(partner)) {
+                discover(workspace, partner, cell);
+                queue[tail++] = partner;
+                continue;
             }
 
-            // Explore all valid and unvisited neighbors of the current node
-            for (Point neighbor : maze.getNeighbors(x, y, visited)) {
-                if (!visited[neighbor.y][neighbor.x]) {
-                    visited[neighbor.y][neighbor.x] = true;
-                    queue.add(new PathNode(neighbor.x, neighbor.y, newPath));
+            // Explore all valid and unvisited neighbors, in the order of Maze.getNeighbors
+            int x = cell % cols;
+            int y = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (maze.isOpen(nx, ny) && !workspace.isReached(ny * cols + nx)) {
+                    discover(workspace, ny * cols + nx, cell);
+                    queue[tail++] = ny * cols + nx;
                 }
             }
         }
@@ -83,4 +86,10 @@ public class BFSSolver extends MazeSolver {
         // If no path is found, return -1 to indicate failure
         return -1;
     }
+
+    // Marks a cell as reached (and shown as visited) the moment it is queued
+    private static void discover(SolverWorkspace workspace, int cell, int parent) {
+        workspace.reach(cell, 0, parent);
+        workspace.settle(cell);
+    }
 }
@@ -0,0 +1,338 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BenchmarkReport runs solvers repeatedly on a set of mazes, keeps every run's
+ * latency in a {@link LatencyHistogram} and summarizes each (maze, algorithm)
+ * pair as p50 / p90 / p99 / max latency, cells expanded per second and bytes
+ * allocated per solve.
+ *
+ * A report is written as JSON or CSV (picked by the file extension) and can be
+ * read back as the baseline of a later run; {@link #compare} lists every metric
+ * that got worse than the baseline by more than a given fraction.
+ */
+public class BenchmarkReport {
+    // CSV column order; the JSON keys have the same names
+    private static final String[] COLUMNS = {"maze", "algorithm", "runs", "solved", "p50Nanos", "p90Nanos",
+            "p99Nanos", "maxNanos", "meanNanos", "nodes", "nodesPerSecond", "allocatedBytesPerSolve"};
+
+    // Allocation changes smaller than this are noise (a boxed value here and there), never a regression
+    private static final long ALLOCATION_SLACK_BYTES = 1024;
+
+    // One line of the report
+    public static class Result {
+        final String maze;
+        final String algorithm;
+        final int runs;                     // Timed solves
+        final int solved;                   // Timed solves that found a path
+        final long p50Nanos, p90Nanos, p99Nanos, maxNanos;
+        final double meanNanos;
+        final long nodes;                   // Cells marked visited by one solve
+        final double nodesPerSecond;        // nodes / mean solve time
+        final long allocatedBytesPerSolve;  // -1 if the JVM cannot measure allocations
+
+        Result(String maze, String algorithm, int runs, int solved, long p50Nanos, long p90Nanos, long p99Nanos,
+               long maxNanos, double meanNanos, long nodes, double nodesPerSecond, long allocatedBytesPerSolve) {
+            this.maze = maze;
+            this.algorithm = algorithm;
+            this.runs = runs;
+            this.solved = solved;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+            this.meanNanos = meanNanos;
+            this.nodes = nodes;
+            this.nodesPerSecond = nodesPerSecond;
+            this.allocatedBytesPerSolve = allocatedBytesPerSolve;
+        }
+
+        private String key() {
+            return maze + "\u0000" + algorithm;
+        }
+
+        private Object[] values() {
+            return new Object[]{maze, algorithm, runs, solved, p50Nanos, p90Nanos, p99Nanos, maxNanos,
+                    meanNanos, nodes, nodesPerSecond, allocatedBytesPerSolve};
+        }
+    }
+
+    private final List<Result> results = new ArrayList<>();
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public void add(Result result) {
+        results.add(result);
+    }
+
+    /**
+     * Solves the maze 'warmups' times untimed and 'runs' times timed with a new
+     * solver each time, and adds the summary to this report.
+     */
+    public Result measure(String mazeName, Maze maze, String algorithm, int warmups, int runs) {
+        for (int i = 0; i < warmups; i++) {
+            SolverFactory.create(algorithm, maze).solve(false);
+        }
+
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        long thread = Thread.currentThread().threadId();
+        LatencyHistogram histogram = new LatencyHistogram();
+        long allocated = 0;
+        int solved = 0;
+        long nodes = 0;
+        for (int i = 0; i < runs; i++) {
+            MazeSolver solver = SolverFactory.create(algorithm, maze);
+            long bytesBefore = threads != null ? threads.getThreadAllocatedBytes(thread) : 0;
+            long start = System.nanoTime();
+            long result = solver.solve(false);
+            long elapsed = System.nanoTime() - start;
+            if (threads != null) allocated += threads.getThreadAllocatedBytes(thread) - bytesBefore;
+
+            histogram.record(elapsed);
+            if (result != -1) solved++;
+            if (i == 0) nodes = countVisited(solver); // The same for every run; counted outside the timing
+        }
+
+        double meanNanos = histogram.getMean();
+        Result summary = new Result(mazeName, algorithm, runs, solved,
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99), histogram.getMax(), meanNanos, nodes,
+                meanNanos > 0 ? nodes / (meanNanos / 1e9) : 0, threads != null ? allocated / runs : -1);
+        results.add(summary);
+        return summary;
+    }
+
+    // The HotSpot thread bean with allocation counting switched on, or null on JVMs without it
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) return null;
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    private static long countVisited(MazeSolver solver) {
+        long count = 0;
+        for (boolean[] row : solver.getVisited()) {
+            for (boolean cell : row) {
+                if (cell) count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Lists the metrics of this report that are worse than in the baseline by more
+     * than 'threshold' (0.10 = 10%): higher latency percentiles or allocations,
+     * lower throughput, or fewer solved runs. Pairs missing from either report are skipped.
+     */
+    public List<String> compare(BenchmarkReport baseline, double threshold) {
+        Map<String, Result> before = new HashMap<>();
+        for (Result result : baseline.results) before.put(result.key(), result);
+
+        List<String> regressions = new ArrayList<>();
+        for (Result now : results) {
+            Result old = before.get(now.key());
+            if (old == null) continue;
+            String name = now.algorithm + " on " + now.maze;
+            if (now.solved * (long) old.runs < old.solved * (long) now.runs) {
+                regressions.add(String.format(Locale.ROOT, "%s: solved %d/%d runs, baseline %d/%d",
+                        name, now.solved, now.runs, old.solved, old.runs));
+            }
+            checkHigher(regressions, name, "p50", now.p50Nanos, old.p50Nanos, threshold, 0);
+            checkHigher(regressions, name, "p99", now.p99Nanos, old.p99Nanos, threshold, 0);
+            if (now.allocatedBytesPerSolve >= 0 && old.allocatedBytesPerSolve >= 0) {
+                checkHigher(regressions, name, "allocated bytes/solve", now.allocatedBytesPerSolve,
+                        old.allocatedBytesPerSolve, threshold, ALLOCATION_SLACK_BYTES);
+            }
+            if (now.nodesPerSecond < old.nodesPerSecond * (1 - threshold)) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.0f nodes/s, baseline %.0f (%+.1f%%)", name,
+                        now.nodesPerSecond, old.nodesPerSecond, change(now.nodesPerSecond, old.nodesPerSecond)));
+            }
+        }
+        return regressions;
+    }
+
+    private static void checkHigher(List<String> regressions, String name, String metric, long now, long old,
+                                    double threshold, long slack) {
+        if (now > old * (1 + threshold) && now - old > slack) {
+            regressions.add(String.format(Locale.ROOT, "%s: %s %d, baseline %d (%+.1f%%)",
+                    name, metric, now, old, change(now, old)));
+        }
+    }
+
+    private static double change(double now, double old) {
+        return old == 0 ? Double.POSITIVE_INFINITY : (now - old) / old * 100;
+    }
+
+    // Prints the report as an aligned table, latencies in microseconds
+    public void print(PrintStream out) {
+        out.printf("%-14s %-16s %7s %10s %10s %10s %10s %12s %14s%n", "maze", "algorithm", "solved",
+                "p50(us)", "p90(us)", "p99(us)", "max(us)", "nodes/s", "bytes/solve");
+        for (Result r : results) {
+            out.printf(Locale.ROOT, "%-14s %-16s %3d/%-3d %10.1f %10.1f %10.1f %10.1f %12.0f %14d%n",
+                    r.maze, r.algorithm, r.solved, r.runs, r.p50Nanos / 1e3, r.p90Nanos / 1e3,
+                    r.p99Nanos / 1e3, r.maxNanos / 1e3, r.nodesPerSecond, r.allocatedBytesPerSolve);
+        }
+    }
+
+    // Writes the report as JSON if the file name ends in .json, as CSV otherwise
+    public void write(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (file.toString().endsWith(".json")) {
+                writeJson(out);
+            } else {
+                writeCsv(out);
+            }
+        }
+    }
+
+    // One object per result, each on its own line, inside {"benchmarks":[...]}
+    public void writeJson(Writer out) throws IOException {
+        out.write("{\"benchmarks\":[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Object[] values = results.get(i).values();
+            StringBuilder line = new StringBuilder("  {");
+            for (int c = 0; c < COLUMNS.length; c++) {
+                if (c > 0) line.append(',');
+                line.append('"').append(COLUMNS[c]).append("\":");
+                if (values[c] instanceof String) {
+                    line.append('"').append(escapeJson((String) values[c])).append('"');
+                } else {
+                    line.append(format(values[c]));
+                }
+            }
+            out.write(line.append(i + 1 < results.size() ? "},\n" : "}\n").toString());
+        }
+        out.write("]}\n");
+    }
+
+    public void writeCsv(Writer out) throws IOException {
+        out.write(String.join(",", COLUMNS) + "\n");
+        for (Result result : results) {
+            Object[] values = result.values();
+            StringBuilder line = new StringBuilder();
+            for (int c = 0; c < values.length; c++) {
+                if (c > 0) line.append(',');
+                line.append(values[c] instanceof String ? quoteCsv((String) values[c]) : format(values[c]));
+            }
+            out.write(line.append('\n').toString());
+        }
+    }
+
+    // Reads a report written by write(), in either format
+    public static BenchmarkReport read(Path file) throws IOException {
+        BenchmarkReport report = new BenchmarkReport();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (file.toString().endsWith(".json")) {
+                Pattern field = Pattern.compile("\"(\\w+)\":(\"(?:[^\"\\\\]|\\\\.)*\"|[-+0-9.eE]+)");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.trim().startsWith("{\"maze\"")) continue;
+                    Map<String, String> values = new HashMap<>();
+                    Matcher matcher = field.matcher(line);
+                    while (matcher.find()) {
+                        String value = matcher.group(2);
+                        values.put(matcher.group(1), value.startsWith("\"")
+                                ? unescapeJson(value.substring(1, value.length() - 1)) : value);
+                    }
+                    report.add(parse(values, file));
+                }
+            } else {
+                String header = in.readLine();
+                if (header == null) return report;
+                List<String> names = splitCsv(header);
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.isEmpty()) continue;
+                    List<String> cells = splitCsv(line);
+                    Map<String, String> values = new HashMap<>();
+                    for (int c = 0; c < names.size() && c < cells.size(); c++) values.put(names.get(c), cells.get(c));
+                    report.add(parse(values, file));
+                }
+            }
+        }
+        return report;
+    }
+
+    private static Result parse(Map<String, String> values, Path file) throws IOException {
+        try {
+            return new Result(values.get("maze"), values.get("algorithm"),
+                    Integer.parseInt(values.get("runs")), Integer.parseInt(values.get("solved")),
+                    Long.parseLong(values.get("p50Nanos")), Long.parseLong(values.get("p90Nanos")),
+                    Long.parseLong(values.get("p99Nanos")), Long.parseLong(values.get("maxNanos")),
+                    Double.parseDouble(values.get("meanNanos")), Long.parseLong(values.get("nodes")),
+                    Double.parseDouble(values.get("nodesPerSecond")),
+                    Long.parseLong(values.get("allocatedBytesPerSolve")));
+        } catch (RuntimeException e) {
+            throw new IOException("Bad benchmark line in " + file + ": " + values, e);
+        }
+    }
+
+    private static String format(Object value) {
+        return value instanceof Double ? String.format(Locale.ROOT, "%.1f", (Double) value) : String.valueOf(value);
+    }
+
+    private static String escapeJson(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String unescapeJson(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) c = text.charAt(++i);
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static String quoteCsv(String text) {
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0) return text;
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    // Splits one CSV line, honoring double-quoted fields
+    private static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * CancellationToken lets another thread stop a running solve. The solver polls
+ * it along with its SolveBudget, so a cancelled solve stops within a few
+ * hundred expansions and reports SolveStatus.CANCELLED.
+ *
+ * A token stays cancelled; use a new one for the next solve.
+ */
+public class CancellationToken {
+    private volatile boolean cancelled;
+
+    // Asks every solve that checks this token to stop
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
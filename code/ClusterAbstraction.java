@@ -0,0 +1,342 @@
+import java.awt.Point;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * ClusterAbstraction is the precomputed part of hierarchical pathfinding (HPA*).
+ * The grid is split into square clusters of a fixed size. Every cluster stores
+ * its entrance cells (cells on its border that lead into a neighbor cluster, plus
+ * its teleports) and the shortest in-cluster distance between every pair of them.
+ *
+ * Clusters are built in parallel. When the maze is reloaded with the same size,
+ * only clusters whose cells changed (and their neighbors, which share entrances
+ * with them) are rebuilt. Edits made through {@link Maze#setCell} are reported
+ * to the abstraction as they happen, so it marks just those clusters and skips
+ * the content scan entirely.
+ */
+public final class ClusterAbstraction implements MazeChangeListener {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // Border openings longer than this get an entrance at each end instead of one in the middle
+    private static final int MAX_SINGLE_ENTRANCE = 6;
+
+    // Abstractions already built, refreshed lazily when their maze changes.
+    // The maze keeps its abstraction alive through the listener list, so the value must be
+    // a weak reference: a strong one would keep the maze key reachable forever.
+    private static final Map<Maze, WeakReference<ClusterAbstraction>> CACHE = new WeakHashMap<>();
+
+    private final Maze maze;
+    private final int clusterSize;
+    private int rows, cols;             // Maze size the clusters were laid out for
+    private int clustersX, clustersY;   // Number of clusters across and down
+    private int version = -1;           // Maze version the clusters are up to date with
+    private int trackedVersion = -1;    // Latest maze version whose every change was reported to us
+
+    private int[][] entrances;  // Cluster -> cell indices of its entrance cells
+    private int[][] distances;  // Cluster -> k*k matrix of in-cluster distances (-1 if unreachable)
+    private long[] contentHash; // Cluster -> hash of its cells, used to spot changed clusters
+    private boolean[] dirty;    // Cluster -> needs rebuilding before the next query
+
+    // Returns the abstraction for the maze, creating or refreshing it as needed
+    public static ClusterAbstraction of(Maze maze, int clusterSize) {
+        if (maze instanceof MazeSnapshot) {
+            return ((MazeSnapshot) maze).getIndex(ClusterAbstraction.class, clusterSize, snapshot -> {
+                ClusterAbstraction abstraction = new ClusterAbstraction(snapshot, clusterSize);
+                abstraction.refresh(); // Built once: a snapshot never changes, so it never needs another refresh
+                return abstraction;
+            });
+        }
+        synchronized (CACHE) {
+            WeakReference<ClusterAbstraction> reference = CACHE.get(maze);
+            ClusterAbstraction abstraction = reference != null ? reference.get() : null;
+            if (abstraction == null || abstraction.clusterSize != clusterSize) {
+                if (abstraction != null) abstraction.detach();
+                abstraction = new ClusterAbstraction(maze, clusterSize);
+                CACHE.put(maze, new WeakReference<>(abstraction));
+            }
+            abstraction.refresh();
+            return abstraction;
+        }
+    }
+
+    public ClusterAbstraction(Maze maze, int clusterSize) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Cluster size must be at least 2, got " + clusterSize);
+        }
+        this.maze = maze;
+        this.clusterSize = clusterSize;
+        maze.addChangeListener(this);
+    }
+
+    // Stops listening to the maze; the abstraction then only notices changes through the content scan
+    public void detach() {
+        maze.removeChangeListener(this);
+    }
+
+    @Override
+    public synchronized void cellChanged(int x, int y, char oldTile, char newTile) {
+        if (dirty == null || maze.getRows() != rows || maze.getCols() != cols) return;
+        markClusterAndNeighborsDirty(clusterOf(y * cols + x));
+        if (oldTile == Maze.TELEPORT || newTile == Maze.TELEPORT) {
+            // Pairing is by reading order, so adding or removing one teleport can re-pair all the others
+            for (Point teleport : maze.getTeleportPositions()) {
+                markClusterAndNeighborsDirty(clusterOf(teleport.y * cols + teleport.x));
+            }
+        }
+        // Only a gap-free run of reported edits lets refresh() trust the dirty flags alone
+        if (trackedVersion == maze.getVersion() - 1) {
+            trackedVersion = maze.getVersion();
+        }
+    }
+
+    @Override
+    public void mazeReloaded() {
+        // Nothing to do right away: refresh() notices the new version and compares cluster contents
+    }
+
+    // Brings the clusters up to date with the maze, rebuilding only what changed
+    public synchronized void refresh() {
+        if (maze.getRows() != rows || maze.getCols() != cols || entrances == null) {
+            layOut();
+        } else if (maze.getVersion() != version && maze.getVersion() != trackedVersion) {
+            // Same size: compare every cluster's content and rebuild the changed ones with their neighbors
+            long[] hashes = new long[contentHash.length];
+            IntStream.range(0, hashes.length).parallel().forEach(c -> hashes[c] = hashCluster(c));
+            for (int c = 0; c < hashes.length; c++) {
+                if (hashes[c] != contentHash[c]) {
+                    markClusterAndNeighborsDirty(c);
+                }
+            }
+        }
+
+        IntStream.range(0, dirty.length).parallel().filter(c -> dirty[c]).forEach(this::buildCluster);
+        version = maze.getVersion();
+        trackedVersion = version;
+    }
+
+    // Marks the cluster holding (x, y) for rebuilding at the next refresh
+    public synchronized void markDirty(int x, int y) {
+        if (dirty != null) {
+            markClusterAndNeighborsDirty(clusterOf(y * cols + x));
+        }
+    }
+
+    // Allocates the per-cluster arrays for a new maze size and marks everything dirty
+    private void layOut() {
+        rows = maze.getRows();
+        cols = maze.getCols();
+        clustersX = (cols + clusterSize - 1) / clusterSize;
+        clustersY = (rows + clusterSize - 1) / clusterSize;
+        int count = clustersX * clustersY;
+        entrances = new int[count][];
+        distances = new int[count][];
+        contentHash = new long[count];
+        dirty = new boolean[count];
+        Arrays.fill(dirty, true);
+    }
+
+    private void markClusterAndNeighborsDirty(int cluster) {
+        int cx = cluster % clustersX;
+        int cy = cluster / clustersX;
+        dirty[cluster] = true;
+        for (int d = 0; d < 4; d++) {
+            int nx = cx + DX[d];
+            int ny = cy + DY[d];
+            if (nx >= 0 && nx < clustersX && ny >= 0 && ny < clustersY) {
+                dirty[ny * clustersX + nx] = true;
+            }
+        }
+    }
+
+    // Finds the entrances of one cluster and the distances between them
+    private void buildCluster(int cluster) {
+        int cx = cluster % clustersX;
+        int cy = cluster / clustersX;
+        int x0 = cx * clusterSize, y0 = cy * clusterSize;
+        int x1 = Math.min(x0 + clusterSize, cols), y1 = Math.min(y0 + clusterSize, rows);
+
+        int[] found = new int[4 * clusterSize + 8 + maze.getTeleportPositions().size()];
+        int count = 0;
+
+        // Each border is scanned the same way from both sides, so neighbors agree on their entrances
+        if (y0 > 0) count = addBorderEntrances(found, count, x0, x1, y0, true, -1);
+        if (y1 < rows) count = addBorderEntrances(found, count, x0, x1, y1 - 1, true, 1);
+        if (x0 > 0) count = addBorderEntrances(found, count, y0, y1, x0, false, -1);
+        if (x1 < cols) count = addBorderEntrances(found, count, y0, y1, x1 - 1, false, 1);
+
+        // Teleports are entrances too, since they lead straight into another cluster
+        for (Point teleport : maze.getTeleportPositions()) {
+            if (teleport.x >= x0 && teleport.x < x1 && teleport.y >= y0 && teleport.y < y1
+                    && maze.getTeleportDestination(teleport.x, teleport.y) != null) {
+                count = addUnique(found, count, teleport.y * cols + teleport.x);
+            }
+        }
+
+        int[] clusterEntrances = Arrays.copyOf(found, count);
+        int[] matrix = new int[count * count];
+        int[] dist = new int[(x1 - x0) * (y1 - y0)];
+        for (int i = 0; i < count; i++) {
+            clusterBfs(cluster, clusterEntrances[i], dist, null);
+            for (int j = 0; j < count; j++) {
+                matrix[i * count + j] = dist[localIndex(cluster, clusterEntrances[j])];
+            }
+        }
+
+        entrances[cluster] = clusterEntrances;
+        distances[cluster] = matrix;
+        contentHash[cluster] = hashCluster(cluster);
+        dirty[cluster] = false;
+    }
+
+    /**
+     * Scans one border line of a cluster for runs of cells that are open on both
+     * sides of the border and adds this side's entrance cells for each run.
+     * For a horizontal border 'line' is the row and [from, to) the columns; for a
+     * vertical border it is the column and [from, to) the rows. 'outward' is the
+     * direction (-1 or 1) of the neighboring cluster.
+     */
+    private int addBorderEntrances(int[] found, int count, int from, int to, int line,
+                                   boolean horizontal, int outward) {
+        int runStart = -1;
+        for (int i = from; i <= to; i++) {
+            boolean open = i < to && (horizontal
+                    ? maze.isOpen(i, line) && maze.isOpen(i, line + outward)
+                    : maze.isOpen(line, i) && maze.isOpen(line + outward, i));
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 > MAX_SINGLE_ENTRANCE) {
+                    count = addUnique(found, count, borderCell(runStart, line, horizontal));
+                    count = addUnique(found, count, borderCell(runEnd, line, horizontal));
+                } else {
+                    count = addUnique(found, count, borderCell((runStart + runEnd) / 2, line, horizontal));
+                }
+                runStart = -1;
+            }
+        }
+        return count;
+    }
+
+    private int borderCell(int i, int line, boolean horizontal) {
+        return horizontal ? line * cols + i : i * cols + line;
+    }
+
+    private static int addUnique(int[] found, int count, int cell) {
+        for (int i = 0; i < count; i++) {
+            if (found[i] == cell) return count;
+        }
+        found[count] = cell;
+        return count + 1;
+    }
+
+    private long hashCluster(int cluster) {
+        int cx = cluster % clustersX;
+        int cy = cluster / clustersX;
+        long hash = 17;
+        for (int y = cy * clusterSize; y < Math.min((cy + 1) * clusterSize, rows); y++) {
+            for (int x = cx * clusterSize; x < Math.min((cx + 1) * clusterSize, cols); x++) {
+                hash = hash * 31 + maze.getCell(x, y);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Breadth-first search that never leaves the given cluster.
+     * Fills dist with the number of steps to every cell of the cluster (by local
+     * index, -1 if unreachable) and, if parent is not null, the local index of the
+     * cell each one was reached from.
+     */
+    public void clusterBfs(int cluster, int fromCell, int[] dist, int[] parent) {
+        int cx = cluster % clustersX;
+        int cy = cluster / clustersX;
+        int x0 = cx * clusterSize, y0 = cy * clusterSize;
+        int x1 = Math.min(x0 + clusterSize, cols), y1 = Math.min(y0 + clusterSize, rows);
+        int width = x1 - x0;
+
+        Arrays.fill(dist, -1);
+        int[] queue = new int[width * (y1 - y0)];
+        int head = 0, tail = 0;
+        int start = localIndex(cluster, fromCell);
+        dist[start] = 0;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int x = x0 + current % width;
+            int y = y0 + current / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (nx < x0 || nx >= x1 || ny < y0 || ny >= y1 || !maze.isOpen(nx, ny)) continue;
+                int next = (ny - y0) * width + (nx - x0);
+                if (dist[next] < 0) {
+                    dist[next] = dist[current] + 1;
+                    if (parent != null) parent[next] = current;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    // Returns the cluster that contains a cell
+    public int clusterOf(int cell) {
+        return (cell / cols / clusterSize) * clustersX + (cell % cols) / clusterSize;
+    }
+
+    // Converts a cell index into its index inside the cluster
+    public int localIndex(int cluster, int cell) {
+        int x0 = (cluster % clustersX) * clusterSize;
+        int y0 = (cluster / clustersX) * clusterSize;
+        return (cell / cols - y0) * getClusterWidth(cluster) + (cell % cols - x0);
+    }
+
+    // Converts an index inside the cluster back into a cell index
+    public int cellOf(int cluster, int local) {
+        int x0 = (cluster % clustersX) * clusterSize;
+        int y0 = (cluster / clustersX) * clusterSize;
+        int width = getClusterWidth(cluster);
+        return (y0 + local / width) * cols + x0 + local % width;
+    }
+
+    public int getClusterWidth(int cluster) {
+        return Math.min(clusterSize, cols - (cluster % clustersX) * clusterSize);
+    }
+
+    // Number of cells in a cluster (smaller along the right and bottom edges)
+    public int getClusterArea(int cluster) {
+        return getClusterWidth(cluster) * Math.min(clusterSize, rows - (cluster / clustersX) * clusterSize);
+    }
+
+    public int[] getEntrances(int cluster) {
+        return entrances[cluster];
+    }
+
+    // Returns the position of a cell in its cluster's entrance list, or -1 if it is not an entrance
+    public int entranceIndex(int cluster, int cell) {
+        int[] list = entrances[cluster];
+        for (int i = 0; i < list.length; i++) {
+            if (list[i] == cell) return i;
+        }
+        return -1;
+    }
+
+    // In-cluster distance between the i-th and j-th entrance, or -1 if they are not connected inside it
+    public int getDistance(int cluster, int i, int j) {
+        return distances[cluster][i * entrances[cluster].length + j];
+    }
+
+    public int getClusterCount() {
+        return entrances.length;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+}
@@ -0,0 +1,448 @@
+import java.awt.Point;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CompactPath stores a path as its start cell plus one 2-bit move code per step
+ * (Up, Right, Down, Left), 32 moves to a long. A step that is not a move to a
+ * grid neighbor (a teleport hop) is listed separately with its move index and
+ * destination, so a path can be decoded without the maze it was found in.
+ * A step costs 2 bits instead of the ~40 bytes of a boxed Point in a List.
+ *
+ * Paths are immutable. {@link Builder} encodes one step at a time and can be
+ * reused, {@link Cursor} decodes one cell at a time without creating Points, and
+ * {@link #writeTo(DataOutput, boolean)} / {@link #readFrom(DataInput)} stream the
+ * path in either packed form or as runs of equal moves.
+ */
+public final class CompactPath {
+    // Move codes, in the same order as the solvers' DX and DY tables
+    public static final int UP = 0;
+    public static final int RIGHT = 1;
+    public static final int DOWN = 2;
+    public static final int LEFT = 3;
+    // Returned by getMove for a teleport hop
+    public static final int TELEPORT = 4;
+
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // Stream header flags
+    private static final int FLAG_EMPTY = 1;
+    private static final int FLAG_RUN_LENGTH = 2;
+
+    // Longest path readFrom accepts by default: 64 MB of move codes, far beyond any maze that fits in memory
+    public static final int MAX_READ_MOVES = 1 << 28;
+
+    // The path with no cells, returned for "no path found"
+    public static final CompactPath EMPTY = new CompactPath(0, 0, new long[0], -1, new int[0]);
+
+    private final int startX, startY;
+    private final long[] moves;   // Move i in bits 2*(i%32)..2*(i%32)+1 of moves[i/32]; 0 for teleport hops
+    private final int moveCount;  // Number of steps; -1 for the empty path
+    private final int[] hops;     // Teleport hops as (move index, x, y) triples, by increasing move index
+
+    private CompactPath(int startX, int startY, long[] moves, int moveCount, int[] hops) {
+        this.startX = startX;
+        this.startY = startY;
+        this.moves = moves;
+        this.moveCount = moveCount;
+        this.hops = hops;
+    }
+
+    // Encodes a list of points; any step that is not to a grid neighbor is stored as a teleport hop
+    public static CompactPath of(List<Point> points) {
+        Builder builder = new Builder();
+        for (Point point : points) {
+            builder.add(point.x, point.y);
+        }
+        return builder.build();
+    }
+
+    // Decodes the path into a new list of points
+    public List<Point> toList() {
+        List<Point> points = new ArrayList<>(size());
+        for (Cursor cursor = cursor(); cursor.next(); ) {
+            points.add(new Point(cursor.getX(), cursor.getY()));
+        }
+        return points;
+    }
+
+    // Number of cells on the path, including both ends (0 for the empty path)
+    public int size() {
+        return moveCount + 1;
+    }
+
+    public boolean isEmpty() {
+        return moveCount < 0;
+    }
+
+    // Number of steps (cells minus one); 0 for a single cell and for the empty path
+    public int getMoveCount() {
+        return Math.max(moveCount, 0);
+    }
+
+    public int getStartX() {
+        return startX;
+    }
+
+    public int getStartY() {
+        return startY;
+    }
+
+    // Code of the given step: UP, RIGHT, DOWN, LEFT or TELEPORT
+    public int getMove(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("Move " + index + " of " + getMoveCount());
+        }
+        if (hopSlot(hops, hops.length / 3, index) >= 0) return TELEPORT;
+        return code(moves, index);
+    }
+
+    public int getTeleportCount() {
+        return hops.length / 3;
+    }
+
+    // Approximate heap footprint in bytes of the encoded moves and hops
+    public long getEncodedBytes() {
+        return 8L * moves.length + 4L * hops.length;
+    }
+
+    // Returns a cursor positioned before the first cell
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Writes the path as a header followed by either the packed move codes (four
+     * per byte) or, in run-length mode, one varint per run of equal moves. Run
+     * length wins when the path has long straight corridors.
+     */
+    public void writeTo(DataOutput out, boolean runLength) throws IOException {
+        out.writeByte((isEmpty() ? FLAG_EMPTY : 0) | (runLength ? FLAG_RUN_LENGTH : 0));
+        if (isEmpty()) return;
+        writeVarInt(out, startX);
+        writeVarInt(out, startY);
+        writeVarInt(out, moveCount);
+
+        if (runLength) {
+            // Token = run length << 3 | code; a teleport token is followed by its destination
+            int hop = 0;
+            for (int i = 0; i < moveCount; ) {
+                if (hop < hops.length && hops[hop] == i) {
+                    writeVarInt(out, 1 << 3 | TELEPORT);
+                    writeVarInt(out, hops[hop + 1]);
+                    writeVarInt(out, hops[hop + 2]);
+                    hop += 3;
+                    i++;
+                    continue;
+                }
+                int code = code(moves, i);
+                int run = 1;
+                int nextHop = hop < hops.length ? hops[hop] : moveCount;
+                while (i + run < nextHop && code(moves, i + run) == code) run++;
+                writeVarInt(out, run << 3 | code);
+                i += run;
+            }
+        } else {
+            writeVarInt(out, hops.length / 3);
+            int previous = 0;
+            for (int h = 0; h < hops.length; h += 3) {
+                writeVarInt(out, hops[h] - previous); // Indices are increasing, so deltas stay small
+                writeVarInt(out, hops[h + 1]);
+                writeVarInt(out, hops[h + 2]);
+                previous = hops[h];
+            }
+            for (int i = 0; i < moveCount; i += 4) {
+                out.writeByte((int) (moves[i >>> 5] >>> ((i & 31) * 2)) & 0xFF);
+            }
+        }
+    }
+
+    // Reads a path written by writeTo, in either mode, of at most MAX_READ_MOVES moves
+    public static CompactPath readFrom(DataInput in) throws IOException {
+        return readFrom(in, MAX_READ_MOVES);
+    }
+
+    /**
+     * Reads a path written by writeTo, refusing one with more than maxMoves
+     * moves before anything is allocated for it. Teleport hops are collected as
+     * they are read instead of into an array sized by the stream's count, so a
+     * corrupt or hostile stream costs memory in proportion to its real length.
+     */
+    public static CompactPath readFrom(DataInput in, int maxMoves) throws IOException {
+        int flags = in.readUnsignedByte();
+        if ((flags & FLAG_EMPTY) != 0) return EMPTY;
+        int startX = readVarInt(in);
+        int startY = readVarInt(in);
+        int moveCount = readVarInt(in);
+        if (moveCount < 0 || moveCount > maxMoves) {
+            throw new IOException("Bad move count " + moveCount + " in path (at most " + maxMoves + ")");
+        }
+
+        Builder builder = new Builder();
+        builder.add(startX, startY);
+        if ((flags & FLAG_RUN_LENGTH) != 0) {
+            while (builder.getMoveCount() < moveCount) {
+                int token = readVarInt(in);
+                int code = token & 7;
+                if (code == TELEPORT) {
+                    builder.addTeleport(readVarInt(in), readVarInt(in));
+                } else if (code < TELEPORT && token >>> 3 > 0) {
+                    int run = token >>> 3;
+                    if (run > moveCount - builder.getMoveCount()) {
+                        throw new IOException("Run of " + run + " moves overruns the path's " + moveCount + " moves");
+                    }
+                    for (; run > 0; run--) builder.addMove(code);
+                } else {
+                    throw new IOException("Bad run-length token " + token + " in path");
+                }
+            }
+        } else {
+            int hopCount = readVarInt(in);
+            if (hopCount < 0 || hopCount > moveCount || hopCount > Integer.MAX_VALUE / 3) {
+                throw new IOException("Bad teleport count " + hopCount + " for " + moveCount + " moves");
+            }
+            int[] hops = new int[3 * Math.min(hopCount, 64)]; // Grown as hops actually arrive
+            int previous = 0;
+            for (int h = 0; h < 3 * hopCount; h += 3) {
+                if (h == hops.length) hops = Arrays.copyOf(hops, Math.min(3 * hopCount, hops.length * 2));
+                hops[h] = previous + readVarInt(in);
+                hops[h + 1] = readVarInt(in);
+                hops[h + 2] = readVarInt(in);
+                previous = hops[h];
+            }
+            int hop = 0;
+            int packed = 0;
+            for (int i = 0; i < moveCount; i++) {
+                if ((i & 3) == 0) packed = in.readUnsignedByte();
+                int code = (packed >>> ((i & 3) * 2)) & 3;
+                if (hop < hops.length && hops[hop] == i) {
+                    builder.addTeleport(hops[hop + 1], hops[hop + 2]);
+                    hop += 3;
+                } else {
+                    builder.addMove(code);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint in path");
+    }
+
+    private static int code(long[] moves, int index) {
+        return (int) (moves[index >>> 5] >>> ((index & 31) * 2)) & 3;
+    }
+
+    // Position of the hop with the given move index in the triples, or -1
+    private static int hopSlot(int[] hops, int hopCount, int index) {
+        int low = 0, high = hopCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midIndex = hops[3 * mid];
+            if (midIndex < index) low = mid + 1;
+            else if (midIndex > index) high = mid - 1;
+            else return 3 * mid;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof CompactPath)) return false;
+        CompactPath that = (CompactPath) other;
+        if (moveCount != that.moveCount) return false;
+        if (isEmpty()) return true;
+        return startX == that.startX && startY == that.startY
+                && Arrays.equals(moves, 0, (moveCount + 31) >>> 5, that.moves, 0, (moveCount + 31) >>> 5)
+                && Arrays.equals(hops, that.hops);
+    }
+
+    @Override
+    public int hashCode() {
+        if (isEmpty()) return 0;
+        int hash = 31 * startX + startY;
+        for (int w = 0; w < (moveCount + 31) >>> 5; w++) hash = 31 * hash + Long.hashCode(moves[w]);
+        return 31 * hash + Arrays.hashCode(hops);
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) return "CompactPath[empty]";
+        return "CompactPath[start=(" + startX + "," + startY + "), moves=" + moveCount
+                + ", teleports=" + getTeleportCount() + "]";
+    }
+
+    /**
+     * Walks the cells of the path in order. Call {@link #next()} before reading
+     * the first cell; it returns false once the path is exhausted.
+     */
+    public final class Cursor {
+        private int index = -1; // Cell the cursor is on; -1 before the start
+        private int hop;        // Next unread triple in 'hops'
+        private int x, y;
+        private int lastMove = -1;
+
+        private Cursor() {
+        }
+
+        // Moves to the next cell; returns false if there is none
+        public boolean next() {
+            if (index >= moveCount) return false;
+            if (index < 0) {
+                x = startX;
+                y = startY;
+            } else if (hop < hops.length && hops[hop] == index) {
+                x = hops[hop + 1];
+                y = hops[hop + 2];
+                hop += 3;
+                lastMove = TELEPORT;
+            } else {
+                lastMove = code(moves, index);
+                x += DX[lastMove];
+                y += DY[lastMove];
+            }
+            index++;
+            return true;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        // Position of the current cell on the path, starting at 0
+        public int getIndex() {
+            return index;
+        }
+
+        // Code of the step that led to the current cell, or -1 on the first cell
+        public int getLastMove() {
+            return index > 0 ? lastMove : -1;
+        }
+    }
+
+    /**
+     * Encodes a path one cell or move at a time. A builder can be cleared and
+     * reused; once its arrays have grown to fit, encoding allocates nothing.
+     */
+    public static final class Builder {
+        private long[] moves = new long[4];
+        private int[] hops = new int[0];
+        private int moveCount = -1;
+        private int hopLength;
+        private int startX, startY;
+        private int x, y; // Last cell added
+
+        // Empties the builder, keeping its arrays
+        public Builder clear() {
+            moveCount = -1;
+            hopLength = 0;
+            return this;
+        }
+
+        // Appends a cell: the first one is the start, later ones a move or, if not adjacent, a teleport hop
+        public Builder add(int nextX, int nextY) {
+            if (moveCount < 0) {
+                startX = x = nextX;
+                startY = y = nextY;
+                moveCount = 0;
+                return this;
+            }
+            int dx = nextX - x;
+            int dy = nextY - y;
+            if (Math.abs(dx) + Math.abs(dy) == 1) {
+                return addMove(dx == 1 ? RIGHT : dx == -1 ? LEFT : dy == 1 ? DOWN : UP);
+            }
+            return addTeleport(nextX, nextY);
+        }
+
+        // Appends a step in one of the four grid directions
+        public Builder addMove(int code) {
+            requireStart();
+            if ((moveCount >>> 5) == moves.length) {
+                moves = Arrays.copyOf(moves, moves.length * 2);
+            }
+            int shift = (moveCount & 31) * 2;
+            moves[moveCount >>> 5] = moves[moveCount >>> 5] & ~(3L << shift) | (long) code << shift;
+            moveCount++;
+            x += DX[code];
+            y += DY[code];
+            return this;
+        }
+
+        // Appends a teleport hop to the given cell
+        public Builder addTeleport(int toX, int toY) {
+            requireStart();
+            if (hopLength + 3 > hops.length) {
+                hops = Arrays.copyOf(hops, Math.max(12, hops.length * 2));
+            }
+            hops[hopLength++] = moveCount;
+            hops[hopLength++] = toX;
+            hops[hopLength++] = toY;
+            if ((moveCount >>> 5) == moves.length) {
+                moves = Arrays.copyOf(moves, moves.length * 2);
+            }
+            moves[moveCount >>> 5] &= ~(3L << ((moveCount & 31) * 2)); // The code slot of a hop stays 0
+            moveCount++;
+            x = toX;
+            y = toY;
+            return this;
+        }
+
+        private void requireStart() {
+            if (moveCount < 0) throw new IllegalStateException("Add the start cell before any move");
+        }
+
+        // Grows the move array to hold the given number of moves without reallocating
+        public Builder ensureCapacity(int moveCapacity) {
+            int words = (moveCapacity + 31) >>> 5;
+            if (moves.length < words) {
+                moves = Arrays.copyOf(moves, words);
+            }
+            return this;
+        }
+
+        // Number of cells added so far
+        public int size() {
+            return moveCount + 1;
+        }
+
+        public int getMoveCount() {
+            return Math.max(moveCount, 0);
+        }
+
+        // Returns an immutable copy of the path built so far
+        public CompactPath build() {
+            if (moveCount < 0) return EMPTY;
+            long[] words = Arrays.copyOf(moves, (moveCount + 31) >>> 5);
+            if ((moveCount & 31) != 0) {
+                words[words.length - 1] &= (1L << ((moveCount & 31) * 2)) - 1; // Drop codes left over from before a clear()
+            }
+            return new CompactPath(startX, startY, words, moveCount, Arrays.copyOf(hops, hopLength));
+        }
+    }
+}
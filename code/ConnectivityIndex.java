@@ -0,0 +1,180 @@
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * ConnectivityIndex labels every open cell with the connected component it
+ * belongs to. Components are flood-filled over the four grid directions, and
+ * then every teleport pair merges the two components it connects.
+ *
+ * Two cells with different labels can never be joined by any solver, so an
+ * unsolvable query is rejected in O(1) instead of by a full search. The reverse
+ * does not hold for every solver: the classic solvers that always take a
+ * teleport can still miss a path inside one component.
+ *
+ * An index is built once per maze layout and shared through {@link #of(Maze)}.
+ */
+public class ConnectivityIndex {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // Label of a wall cell
+    public static final int NO_COMPONENT = -1;
+
+    // Indexes already built, reused until their maze changes
+    private static final Map<Maze, ConnectivityIndex> CACHE = new WeakHashMap<>();
+
+    private final int rows, cols;
+    private final int version;    // Maze version this index was built from
+    private final int[] label;    // Cell index -> component, or NO_COMPONENT for walls
+    private final int[] size;     // Component -> number of cells
+    private final int[] bounds;   // Component -> minX, minY, maxX, maxY
+
+    // Returns the index for the maze, building it only if the layout changed since the last call
+    public static ConnectivityIndex of(Maze maze) {
+        if (maze instanceof MazeSnapshot) {
+            return ((MazeSnapshot) maze).getIndex(ConnectivityIndex.class, ConnectivityIndex::new);
+        }
+        synchronized (CACHE) {
+            ConnectivityIndex index = CACHE.get(maze);
+            if (index == null || index.version != maze.getVersion()) {
+                index = new ConnectivityIndex(maze);
+                CACHE.put(maze, index);
+            }
+            return index;
+        }
+    }
+
+    // Labels the components with one flood fill, then merges the ones joined by teleports
+    public ConnectivityIndex(Maze maze) {
+        this.rows = maze.getRows();
+        this.cols = maze.getCols();
+        this.version = maze.getVersion();
+
+        int cellCount = rows * cols;
+        label = new int[cellCount];
+        Arrays.fill(label, NO_COMPONENT);
+        int[] queue = new int[cellCount];
+        int components = 0;
+
+        for (int seed = 0; seed < cellCount; seed++) {
+            if (label[seed] != NO_COMPONENT || !maze.isOpen(seed % cols, seed / cols)) continue;
+
+            // Flood fill the grid component of this seed
+            int head = 0, tail = 0;
+            label[seed] = components;
+            queue[tail++] = seed;
+            while (head < tail) {
+                int cell = queue[head++];
+                int x = cell % cols;
+                int y = cell / cols;
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DX[d];
+                    int ny = y + DY[d];
+                    if (maze.isOpen(nx, ny) && label[ny * cols + nx] == NO_COMPONENT) {
+                        label[ny * cols + nx] = components;
+                        queue[tail++] = ny * cols + nx;
+                    }
+                }
+            }
+            components++;
+        }
+
+        // Union-find over the grid components for every teleport pair
+        int[] parent = new int[components];
+        for (int c = 0; c < components; c++) parent[c] = c;
+        for (Point teleport : maze.getTeleportPositions()) {
+            int cell = teleport.y * cols + teleport.x;
+            int partner = maze.getTeleportPartner(cell);
+            if (partner >= 0) {
+                int a = find(parent, label[cell]);
+                int b = find(parent, label[partner]);
+                if (a != b) parent[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+
+        // Renumber the merged components 0..n-1 and collect their sizes and bounding boxes
+        int[] merged = new int[components];
+        int count = 0;
+        for (int c = 0; c < components; c++) {
+            merged[c] = find(parent, c) == c ? count++ : -1;
+        }
+        size = new int[count];
+        bounds = new int[4 * count];
+        for (int c = 0; c < count; c++) {
+            bounds[4 * c] = bounds[4 * c + 1] = Integer.MAX_VALUE;
+            bounds[4 * c + 2] = bounds[4 * c + 3] = -1;
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (label[cell] == NO_COMPONENT) continue;
+            int c = merged[find(parent, label[cell])];
+            label[cell] = c;
+            size[c]++;
+            int x = cell % cols;
+            int y = cell / cols;
+            bounds[4 * c] = Math.min(bounds[4 * c], x);
+            bounds[4 * c + 1] = Math.min(bounds[4 * c + 1], y);
+            bounds[4 * c + 2] = Math.max(bounds[4 * c + 2], x);
+            bounds[4 * c + 3] = Math.max(bounds[4 * c + 3], y);
+        }
+    }
+
+    private static int find(int[] parent, int c) {
+        while (parent[c] != c) {
+            parent[c] = parent[parent[c]]; // Path halving
+            c = parent[c];
+        }
+        return c;
+    }
+
+    // Component of (x, y), or NO_COMPONENT for walls and cells outside the maze
+    public int getComponent(int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) return NO_COMPONENT;
+        return label[y * cols + x];
+    }
+
+    // True if some path (walking and teleporting) joins the two cells
+    public boolean connected(Point a, Point b) {
+        int component = getComponent(a.x, a.y);
+        return component != NO_COMPONENT && component == getComponent(b.x, b.y);
+    }
+
+    // True if any of the sources shares a component with any of the targets
+    public boolean anyConnected(List<Point> sources, List<Point> targets) {
+        boolean[] reached = new boolean[size.length];
+        for (Point source : sources) {
+            int component = getComponent(source.x, source.y);
+            if (component != NO_COMPONENT) reached[component] = true;
+        }
+        for (Point target : targets) {
+            int component = getComponent(target.x, target.y);
+            if (component != NO_COMPONENT && reached[component]) return true;
+        }
+        return false;
+    }
+
+    // True if the maze's first start and first end are in the same component
+    public static boolean isSolvable(Maze maze) {
+        return of(maze).connected(maze.getStartPos(), maze.getEndPos());
+    }
+
+    public int getComponentCount() {
+        return size.length;
+    }
+
+    // Number of open cells in a component
+    public int getComponentSize(int component) {
+        return size[component];
+    }
+
+    // Smallest rectangle holding every cell of a component; a search never needs to look outside it
+    public Rectangle getComponentBounds(int component) {
+        int minX = bounds[4 * component];
+        int minY = bounds[4 * component + 1];
+        return new Rectangle(minX, minY, bounds[4 * component + 2] - minX + 1, bounds[4 * component + 3] - minY + 1);
+    }
+}
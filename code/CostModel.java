@@ -0,0 +1,116 @@
+import java.awt.Point;
+import java.util.List;
+
+/**
+ * CostModel gives every move in the maze a small non-negative integer cost.
+ * By default a normal move costs 1, entering a penalty tile costs 3 (one step
+ * plus the two penalty steps) and a teleport hop costs 1.
+ * Unlike MazeSolver.handleSpecialTile, a penalty is only paid when the path
+ * actually enters the penalty tile, not when the tile is merely expanded.
+ */
+public class CostModel {
+    // One step per move, two extra steps for a penalty tile, one step per teleport hop
+    public static final CostModel DEFAULT = new CostModel(1, 3, 1);
+
+    private final int stepCost;     // Cost of entering a normal tile
+    private final int penaltyCost;  // Cost of entering a penalty tile
+    private final int teleportCost; // Cost of jumping from a teleport to its partner
+
+    public CostModel(int stepCost, int penaltyCost, int teleportCost) {
+        if (stepCost < 0 || penaltyCost < 0 || teleportCost < 0) {
+            throw new IllegalArgumentException("Costs must not be negative: step=" + stepCost
+                    + ", penalty=" + penaltyCost + ", teleport=" + teleportCost);
+        }
+        this.stepCost = stepCost;
+        this.penaltyCost = penaltyCost;
+        this.teleportCost = teleportCost;
+    }
+
+    // Cost of moving onto a tile of the given type
+    public int enterCost(char tile) {
+        return tile == Maze.PENALTY ? penaltyCost : stepCost;
+    }
+
+    public int getStepCost() {
+        return stepCost;
+    }
+
+    public int getPenaltyCost() {
+        return penaltyCost;
+    }
+
+    public int getTeleportCost() {
+        return teleportCost;
+    }
+
+    // The largest cost of any single move, which bounds the number of buckets a bucket queue needs
+    public int getMaxWeight() {
+        return Math.max(stepCost, Math.max(penaltyCost, teleportCost));
+    }
+
+    /**
+     * Returns the exact cost of a path, or -1 if two consecutive cells are neither
+     * neighbors nor a teleport pair. Moving between adjacent teleport partners
+     * uses the cheaper of the two options.
+     */
+    public int pathCost(Maze maze, List<Point> path) {
+        int total = 0;
+        for (int i = 1; i < path.size(); i++) {
+            Point from = path.get(i - 1);
+            Point to = path.get(i);
+            int cost = Integer.MAX_VALUE;
+            if (Math.abs(from.x - to.x) + Math.abs(from.y - to.y) == 1) {
+                cost = enterCost(maze.getCell(to.x, to.y));
+            }
+            if (to.equals(maze.getTeleportDestination(from.x, from.y))) {
+                cost = Math.min(cost, teleportCost);
+            }
+            if (cost == Integer.MAX_VALUE) return -1;
+            total += cost;
+        }
+        return total;
+    }
+
+    // Same as pathCost(Maze, List) for an encoded path, decoded cell by cell
+    public int pathCost(Maze maze, CompactPath path) {
+        int cols = maze.getCols();
+        int total = 0;
+        CompactPath.Cursor cursor = path.cursor();
+        if (!cursor.next()) return 0;
+        int from = cursor.getY() * cols + cursor.getX();
+        while (cursor.next()) {
+            int to = cursor.getY() * cols + cursor.getX();
+            int cost = Integer.MAX_VALUE;
+            if (cursor.getLastMove() != CompactPath.TELEPORT) {
+                cost = enterCost(maze.getCell(cursor.getX(), cursor.getY()));
+            }
+            if (maze.getTeleportPartner(from) == to) {
+                cost = Math.min(cost, teleportCost);
+            }
+            if (cost == Integer.MAX_VALUE) return -1;
+            total += cost;
+            from = to;
+        }
+        return total;
+    }
+
+    // Same as pathCost(Maze, List) for a path given as the first 'length' cell indices of an array
+    public int pathCost(Maze maze, int[] cells, int length) {
+        int cols = maze.getCols();
+        int total = 0;
+        for (int i = 1; i < length; i++) {
+            int from = cells[i - 1];
+            int to = cells[i];
+            int cost = Integer.MAX_VALUE;
+            if (Math.abs(from % cols - to % cols) + Math.abs(from / cols - to / cols) == 1) {
+                cost = enterCost(maze.getCell(to % cols, to / cols));
+            }
+            if (maze.getTeleportPartner(from) == to) {
+                cost = Math.min(cost, teleportCost);
+            }
+            if (cost == Integer.MAX_VALUE) return -1;
+            total += cost;
+        }
+        return total;
+    }
+}
@@ -1,12 +1,14 @@
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 // DFSSolver class extends MazeSolver and implements the Depth-First Search (DFS) algorithm
 public class DFSSolver extends MazeSolver {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
 
-    // Inner class to represent a node in the search path
+    // Inner class to represent a node in the search path (used by the step-by-step DFS of the visualizer)
     public static class PathNode {
         int x, y; // Coordinates of the node
         List<Point> path; // The path taken to reach this node
@@ -26,52 +28,60 @@ public class DFSSolver extends MazeSolver {
         this.algorithmName = "DFS";
     }
 
-    // Main function to solve the maze using DFS
+    // Main function to solve the maze using DFS, on the reusable stack and arrays of the solver workspace
     @Override
     public long solve(boolean visualize) {
-        reset(); // Reset visited matrix, steps, and path
+        SolverWorkspace workspace = beginSearch(); // Reset visited marks, steps, and path
         long startTime = System.currentTimeMillis(); // Record start time
+        if (isStopped()) return -1; // Over the memory budget: the workspace was not touched
 
-        Stack<PathNode> stack = new Stack<>(); // Create a stack for DFS
-        // Push the starting position onto the stack with an empty path
-        stack.push(new PathNode(maze.getStartPos().x, maze.getStartPos().y, new ArrayList<>()));
+        // Start and end in different components: no need to search the whole maze to find that out
+        if (!ConnectivityIndex.isSolvable(maze)) return -1;
 
-        // Loop until there are no more nodes to explore
+        int cols = maze.getCols();
+        int end = maze.getEndPos().y * cols + maze.getEndPos().x;
+
+        // Stack of (cell, cell it was pushed from) pairs; a cell's path is the one it is first popped with
+        IntDeque stack = workspace.getDeque();
+        push(stack, maze.getStartPos().y * cols + maze.getStartPos().x, -1);
+
+        // Loop until there are no more cells to explore
         while (!stack.isEmpty()) {
-            // Pop the last node (LIFO) from the stack
-            PathNode node = stack.pop();
-            int x = node.x;
-            int y = node.y;
-            List<Point> currentPath = node.path;
+            // Pop the last pair (LIFO) from the stack
+            int cell = stack.pollFirst();
+            int from = stack.pollFirst();
 
             // Check if the end position is reached
-            if (x == maze.getEndPos().x && y == maze.getEndPos().y) {
-                path = new ArrayList<>(currentPath); // Copy the successful path
-                path.add(new Point(x, y)); // Add the final point to the path
-                steps = path.size() - 1 + penaltySteps; // Update steps (subtract 1 because we include the start)
+            if (cell == end) {
+                workspace.reach(cell, 0, from);
+                storePath(cell); // Store the successful path and count its steps
                 return System.currentTimeMillis() - startTime; // Return total time taken
             }
 
-            // If the current node has not been visited yet
-            if (!visited[y][x]) {
-                visited[y][x] = true; // Mark it as visited
+            // If the current cell has not been visited yet
+            if (!workspace.isSettled(cell)) {
+                workspace.reach(cell, 0, from);
 
-                // Create a new path that includes the current node
-                List<Point> newPath = new ArrayList<>(currentPath);
-                newPath.add(new Point(x, y));
+                // Out of budget: keep the path to this cell as the partial result
+                if (!expand()) return stopSearch(cell);
+                workspace.settle(cell); // Mark it as visited
 
-                // Check for special tiles (e.g., teleport)
-                Point teleportPos = handleSpecialTile(x, y);
-                if (teleportPos != null) {
-                    // If teleporting, push the teleport destination to the stack and skip neighbors
-                    stack.push(new PathNode(teleportPos.x, teleportPos.y, newPath));
+                // If teleporting, push the teleport destination to the stack and skip neighbors
+                int partner = maze.getTeleportPartner(cell);
+                if (partner >= 0) {
+                    push(stack, partner, cell);
                     continue;
                 }
 
-                // Get all valid neighbors that haven't been visited
-                for (Point neighbor : maze.getNeighbors(x, y, visited)) {
-                    // Push each neighbor to the stack with the updated path
-                    stack.push(new PathNode(neighbor.x, neighbor.y, newPath));
+                // Push all valid neighbors that haven't been visited, in the order of Maze.getNeighbors
+                int x = cell % cols;
+                int y = cell / cols;
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DX[d];
+                    int ny = y + DY[d];
+                    if (maze.isOpen(nx, ny) && !workspace.isSettled(ny * cols + nx)) {
+                        push(stack, ny * cols + nx, cell);
+                    }
                 }
             }
         }
@@ -79,4 +89,17 @@ public class DFSSolver extends MazeSolver {
         // If no path was found, return -1 to indicate failure
         return -1;
     }
+
+    // Pushes a cell and the cell it is reached from; pollFirst returns the cell first
+    private static void push(IntDeque stack, int cell, int from) {
+        stack.addFirst(from);
+        stack.addFirst(cell);
+    }
+
+    // The workspace, plus the stack: a (cell, from) pair of ints for each push, and a settled cell pushes
+    // at most its four neighbors
+    @Override
+    protected long estimateMemoryBytes() {
+        return super.estimateMemoryBytes() + (long) maze.getRows() * maze.getCols() * 4 * 8;
+    }
 }
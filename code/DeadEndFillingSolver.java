@@ -1,6 +1,13 @@
 // This class implements the Dead-End Filling algorithm to solve a maze.
-// It removes dead-ends before solving the maze using BFS.
+// It removes dead-ends before solving the maze using BFS. Dead ends are found from the
+// NeighborDegrees table and filled from a queue, so no cell is looked at more than a few times.
 public class DeadEndFillingSolver extends MazeSolver {
+    // Up, Right, Down, Left
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // Degree stored for a cell once it has been filled
+    private static final byte FILLED = -1;
 
     // We reuse BFSSolver to find the final path after removing dead-ends
     private BFSSolver bfsSolver;
@@ -21,50 +28,60 @@ public class DeadEndFillingSolver extends MazeSolver {
         // Start timing the algorithm
         long startTime = System.currentTimeMillis();
 
-        // Make a copy of the maze to work on it without modifying the original
-        char[][] mazeCopy = new char[maze.getRows()][maze.getCols()];
-        for (int i = 0; i < maze.getRows(); i++) {
-            System.arraycopy(maze.getMaze()[i], 0, mazeCopy[i], 0, maze.getCols());
+        if (isStopped()) return -1; // Over the memory budget: do not index or copy the maze
+
+        // Start and end in different components: filling would only confirm that there is no path
+        if (!ConnectivityIndex.isSolvable(maze)) return -1;
+
+        // Open-neighbor count of every cell, lowered as cells are filled; FILLED marks a filled cell
+        int cols = maze.getCols();
+        byte[] degree = NeighborDegrees.of(maze).copyDegrees();
+
+        // Seed the queue with every dead end; filling one can only turn its single neighbor into one
+        int[] queue = new int[degree.length];
+        int head = 0, tail = 0;
+        for (int cell = 0; cell < degree.length; cell++) {
+            if (degree[cell] == 1) queue[tail++] = cell;
         }
 
-        boolean changed;
-
-        // Keep looping until no more dead ends can be filled
-        do {
-            changed = false;
-
-            for (int y = 0; y < maze.getRows(); y++) {
-                for (int x = 0; x < maze.getCols(); x++) {
-                    // Check if this is a normal path or penalty tile
-                    if (mazeCopy[y][x] == Maze.PATH || mazeCopy[y][x] == Maze.PENALTY) {
-                        // Count how many open neighbors this cell has
-                        int openNeighbors = countOpenNeighbors(mazeCopy, x, y);
-
-                        // If it's a dead-end, fill it by turning it into a wall
-                        if (isDeadEnd(openNeighbors, x, y)) {
-                            mazeCopy[y][x] = Maze.WALL;
-                            changed = true;
-
-                            // Optional visualization of filling
-                            if (visualize) {
-                                updateVisitedForVisualization(mazeCopy);
-                            }
-                        }
-                    }
-                }
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int end = maze.getEndPos().y * cols + maze.getEndPos().x;
+        int filledCells = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % cols;
+            int y = cell / cols;
+            char tile = maze.getCell(x, y);
+            // Only normal path and penalty tiles are filled
+            if (tile != Maze.PATH && tile != Maze.PENALTY) continue;
+            if (!expand()) return -1; // Out of budget while filling: no partial path yet
+            if (!isDeadEnd(degree[cell], cell, start, end)) continue;
+
+            // Fill the dead end by turning it into a wall, and take it off its neighbors' counts
+            degree[cell] = FILLED;
+            filledCells++;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!maze.isOpen(nx, ny) || degree[ny * cols + nx] == FILLED) continue;
+                if (--degree[ny * cols + nx] == 1) queue[tail++] = ny * cols + nx;
             }
-        } while (changed); // Repeat until no changes
+
+            // Optional visualization of filling
+            if (visualize) {
+                visited[y][x] = true;
+            }
+        }
 
         // After dead-end filling, use BFS to find the shortest path
-        long timeTaken = bfsSolver.solve(visualize);
-        if (timeTaken != -1) {
-            // Copy path and visited data from BFS
+        long timeTaken = solveNested(bfsSolver, visualize);
+        if (timeTaken != -1 || isStopped()) {
+            // Copy path and visited data from BFS (a partial path if it ran out of budget)
             this.path = bfsSolver.getPath();
             this.visited = bfsSolver.getVisited();
             this.penaltySteps = bfsSolver.penaltySteps;
 
             // Add the number of filled dead-end cells to the total step count
-            int filledCells = countFilledCells(mazeCopy);
             steps = bfsSolver.getSteps() + filledCells;
         }
 
@@ -72,56 +89,9 @@ public class DeadEndFillingSolver extends MazeSolver {
         return timeTaken;
     }
 
-    // Helper method: counts how many open (walkable) neighbors a cell has
-    private int countOpenNeighbors(char[][] mazeCopy, int x, int y) {
-        int openNeighbors = 0;
-        // Up, Right, Down, Left directions
-        int[][] directions = {{0, -1}, {1, 0}, {0, 1}, {-1, 0}};
-
-        for (int[] dir : directions) {
-            int nx = x + dir[0];
-            int ny = y + dir[1];
-
-            // Check if neighbor is within bounds and is walkable
-            if (nx >= 0 && nx < maze.getCols() && ny >= 0 && ny < maze.getRows() &&
-                    (mazeCopy[ny][nx] == Maze.PATH || mazeCopy[ny][nx] == Maze.PENALTY ||
-                            mazeCopy[ny][nx] == Maze.START || mazeCopy[ny][nx] == Maze.END ||
-                            mazeCopy[ny][nx] == Maze.TELEPORT)) {
-                openNeighbors++;
-            }
-        }
-        return openNeighbors;
-    }
-
     // Helper method: returns true if a cell is a dead-end
-    private boolean isDeadEnd(int openNeighbors, int x, int y) {
+    private static boolean isDeadEnd(int openNeighbors, int cell, int start, int end) {
         // A dead-end has only one open neighbor and is not the start or end point
-        return openNeighbors == 1 &&
-                !(x == maze.getStartPos().x && y == maze.getStartPos().y) &&
-                !(x == maze.getEndPos().x && y == maze.getEndPos().y);
-    }
-
-    // For visualization: mark newly added walls as visited
-    private void updateVisitedForVisualization(char[][] mazeCopy) {
-        for (int i = 0; i < maze.getRows(); i++) {
-            for (int j = 0; j < maze.getCols(); j++) {
-                if (mazeCopy[i][j] == Maze.WALL && maze.getMaze()[i][j] != Maze.WALL) {
-                    visited[i][j] = true;
-                }
-            }
-        }
-    }
-
-    // Count how many cells were filled (turned into walls) during dead-end filling
-    private int countFilledCells(char[][] mazeCopy) {
-        int filledCells = 0;
-        for (int y = 0; y < maze.getRows(); y++) {
-            for (int x = 0; x < maze.getCols(); x++) {
-                if (mazeCopy[y][x] == Maze.WALL && maze.getMaze()[y][x] != Maze.WALL) {
-                    filledCells++;
-                }
-            }
-        }
-        return filledCells;
+        return openNeighbors == 1 && cell != start && cell != end;
     }
 }
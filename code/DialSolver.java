@@ -0,0 +1,125 @@
+import java.util.Arrays;
+
+/**
+ * DialSolver runs Dijkstra's algorithm with a bucket queue (Dial's algorithm)
+ * instead of a binary heap. Every move cost in a {@link CostModel} is a small
+ * integer, so the open cells can be kept in maxWeight + 1 buckets indexed by
+ * distance modulo that count. Buckets are drained in distance order, so the
+ * search needs no heap and never compares keys.
+ *
+ * Penalty tiles are real edge weights here: the cost of entering one is paid
+ * only by paths that go through it, and the reported cost is exact.
+ */
+public class DialSolver extends MazeSolver {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private final CostModel costModel;
+
+    // Cost of the last path found, or -1
+    private int pathCost = -1;
+
+    public DialSolver(Maze maze) {
+        this(maze, CostModel.DEFAULT);
+    }
+
+    // Constructor sets the cost model and the algorithm name
+    public DialSolver(Maze maze, CostModel costModel) {
+        super(maze);
+        this.costModel = costModel;
+        this.algorithmName = "Dial";
+    }
+
+    /**
+     * Solves the maze with a bucket-queue Dijkstra.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no path found
+     */
+    @Override
+    public long solve(boolean visualize) {
+        SolverWorkspace workspace = beginSearch(); // Reused arrays, nothing allocated in steady state
+        pathCost = -1;
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: the workspace was not touched
+
+        int cols = maze.getCols();
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int end = maze.getEndPos().y * cols + maze.getEndPos().x;
+
+        // A move never costs more than maxWeight, so maxWeight + 1 buckets never wrap onto a live one.
+        // The workspace may hand out more buckets than that from an earlier solve; only the first bucketCount are used.
+        int bucketCount = costModel.getMaxWeight() + 1;
+        int[][] buckets = workspace.getBuckets(bucketCount);
+        int[] bucketSize = workspace.getBucketSizes();
+        int pending = 0; // Entries left in all buckets
+
+        workspace.reach(start, 0, -1);
+        buckets[0][bucketSize[0]++] = start;
+        pending++;
+
+        for (int current = 0; pending > 0; current++) {
+            int b = current % bucketCount;
+
+            // Zero-cost moves add to the bucket being drained, so keep popping until it is empty
+            while (bucketSize[b] > 0) {
+                int cell = buckets[b][--bucketSize[b]];
+                pending--;
+                if (workspace.getDistance(cell) != current || workspace.isSettled(cell)) continue; // Stale or already settled
+                workspace.settle(cell);
+
+                if (cell == end) {
+                    storePath(end);
+                    pathCost = current;
+                    penaltySteps = pathCost - steps;
+                    return System.currentTimeMillis() - startTime;
+                }
+                if (!expand()) return stopSearch(cell); // Out of budget: path so far
+
+                int x = cell % cols;
+                int y = cell / cols;
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DX[d];
+                    int ny = y + DY[d];
+                    if (maze.isOpen(nx, ny)) {
+                        pending += relax(cell, ny * cols + nx, current + costModel.enterCost(maze.getCell(nx, ny)),
+                                workspace, buckets, bucketSize, bucketCount);
+                    }
+                }
+
+                int partner = maze.getTeleportPartner(cell);
+                if (partner >= 0) {
+                    pending += relax(cell, partner, current + costModel.getTeleportCost(),
+                            workspace, buckets, bucketSize, bucketCount);
+                }
+            }
+        }
+
+        return -1; // No path found
+    }
+
+    // Lowers the distance of a cell and drops it into its bucket; returns the number of entries added
+    private static int relax(int from, int to, int newDistance, SolverWorkspace workspace,
+                             int[][] buckets, int[] bucketSize, int bucketCount) {
+        if (newDistance >= workspace.getDistance(to)) return 0;
+        workspace.reach(to, newDistance, from);
+
+        int b = newDistance % bucketCount;
+        if (bucketSize[b] == buckets[b].length) {
+            buckets[b] = Arrays.copyOf(buckets[b], bucketSize[b] * 2); // Written into the workspace's array, so it is kept
+        }
+        buckets[b][bucketSize[b]++] = to;
+        return 1;
+    }
+
+    // Exact weighted cost of the last path found under this solver's cost model, or -1
+    @Override
+    public int getPathCost() {
+        return pathCost;
+    }
+
+    public CostModel getCostModel() {
+        return costModel;
+    }
+}
@@ -1,18 +1,18 @@
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
 
 /**
  * DijkstraSolver uses Dijkstra's algorithm to find the shortest path
  * through a maze from the start to the end point.
  */
 public class DijkstraSolver extends MazeSolver {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
 
-    // Inner class to represent each node (cell) in the maze.
+    // Inner class to represent each node (cell) in the maze (used by the step-by-step run of the visualizer).
     public static class Node implements Comparable<Node> {
         public int x, y;             // Coordinates of the node
         public Node parent;          // Parent node used to reconstruct the path
@@ -32,7 +32,7 @@ public class DijkstraSolver extends MazeSolver {
         }
     }
 
-    protected Node currentNode;
+    protected Node currentNode; // Node the visualizer is expanding
 
     // Constructor to initialize the solver with a maze
     public DijkstraSolver(Maze maze) {
@@ -46,77 +46,57 @@ public class DijkstraSolver extends MazeSolver {
     }
 
     /**
-     * Solves the maze using Dijkstra’s algorithm.
+     * Solves the maze using Dijkstra’s algorithm, on the reusable heap and arrays
+     * of the solver workspace. Every move and teleport hop costs one; a teleport
+     * always sends the search to its partner instead of its neighbors.
      * @param visualize whether to visualize the steps (not used here)
      * @return time taken to solve in milliseconds, or -1 if no path found
      */
     @Override
     public long solve(boolean visualize) {
-        reset();  // Reset the solver’s internal state
+        SolverWorkspace workspace = beginSearch();  // Reset the solver’s internal state
         long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: the workspace was not touched
 
-        PriorityQueue<Node> priorityQueue = new PriorityQueue<>();
-        Map<Point, Node> allNodes = new HashMap<>();
-
-        // Initialize the start node
-        Node startNode = new Node(maze.getStartPos().x, maze.getStartPos().y, 0, null);
-        priorityQueue.add(startNode);
-        allNodes.put(new Point(startNode.x, startNode.y), startNode);
-
-        // Initialize all other non-wall nodes with infinite distance
-        for (int y = 0; y < maze.getRows(); y++) {
-            for (int x = 0; x < maze.getCols(); x++) {
-                if (maze.getMaze()[y][x] != Maze.WALL &&
-                        !(x == maze.getStartPos().x && y == maze.getStartPos().y)) {
-                    Node node = new Node(x, y, Double.MAX_VALUE, null);
-                    allNodes.put(new Point(x, y), node);
-                }
-            }
-        }
+        int cols = maze.getCols();
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int end = maze.getEndPos().y * cols + maze.getEndPos().x;
 
-        // Main loop: keep exploring the closest unvisited node
-        while (!priorityQueue.isEmpty()) {
-            currentNode = priorityQueue.poll();  // Get node with smallest distance
+        // Only reached cells have a distance; all others read as infinite
+        IntMinHeap heap = workspace.getHeap();
+        workspace.reach(start, 0, -1);
+        heap.add(0, start);
+
+        // Main loop: keep exploring the closest unvisited cell
+        while (!heap.isEmpty()) {
+            int distance = heap.peekKey();
+            int cell = heap.poll();  // Get cell with smallest distance
+            // Skip entries superseded by a shorter distance (entries are never changed in the heap)
+            if (workspace.isSettled(cell) || distance != workspace.getDistance(cell)) continue;
 
             // If we've reached the goal, reconstruct and return the path
-            if (currentNode.x == maze.getEndPos().x && currentNode.y == maze.getEndPos().y) {
-                path = reconstructPath(currentNode);
-                steps = path.size() - 1 + penaltySteps;
+            if (cell == end) {
+                storePath(cell);
                 return System.currentTimeMillis() - startTime;
             }
+            if (!expand()) return stopSearch(cell); // Out of budget: path so far
 
-            visited[currentNode.y][currentNode.x] = true;  // Mark as visited
+            workspace.settle(cell);  // Mark as visited
 
             // Check if the current tile has a teleport to another location
-            Point teleportPos = handleSpecialTile(currentNode.x, currentNode.y);
-            if (teleportPos != null) {
-                Node teleportNode = allNodes.get(new Point(teleportPos.x, teleportPos.y));
-                double newDistance = currentNode.distance + 1;
-
-                // Update distance if teleporting gives a shorter path
-                if (newDistance < teleportNode.distance) {
-                    priorityQueue.remove(teleportNode);
-                    teleportNode.distance = newDistance;
-                    teleportNode.parent = currentNode;
-                    priorityQueue.add(teleportNode);
-                }
+            int partner = maze.getTeleportPartner(cell);
+            if (partner >= 0) {
+                relax(workspace, heap, cell, partner, distance + 1);
                 continue;  // Skip processing normal neighbors if teleport exists
             }
 
             // Visit all valid neighboring cells
-            for (Point neighbor : maze.getNeighbors(currentNode.x, currentNode.y, visited)) {
-                if (visited[neighbor.y][neighbor.x]) continue;
-
-                Node neighborNode = allNodes.get(neighbor);
-                double newDistance = currentNode.distance + 1;
-
-                // Update neighbor distance and path if a better route is found
-                if (newDistance < neighborNode.distance) {
-                    priorityQueue.remove(neighborNode);  // Update priority in queue
-                    neighborNode.distance = newDistance;
-                    neighborNode.parent = currentNode;
-                    priorityQueue.add(neighborNode);
-                }
+            int x = cell % cols;
+            int y = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (maze.isOpen(nx, ny)) relax(workspace, heap, cell, ny * cols + nx, distance + 1);
             }
         }
 
@@ -124,6 +104,20 @@ public class DijkstraSolver extends MazeSolver {
         return -1;
     }
 
+    // Update a cell's distance and path if a better route is found
+    private static void relax(SolverWorkspace workspace, IntMinHeap heap, int from, int to, int newDistance) {
+        if (workspace.isSettled(to) || newDistance >= workspace.getDistance(to)) return;
+        workspace.reach(to, newDistance, from);
+        heap.add(newDistance, to); // The older entry, if any, is skipped when it is polled
+    }
+
+    // The workspace, plus the heap: an int key and an int cell per entry, and each of a cell's four
+    // neighbors can lower its distance once
+    @Override
+    protected long estimateMemoryBytes() {
+        return super.estimateMemoryBytes() + (long) maze.getRows() * maze.getCols() * 4 * 8;
+    }
+
     /**
      * Reconstructs the path from the end node back to the start node.
      * @param node the goal node
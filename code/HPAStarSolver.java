@@ -0,0 +1,194 @@
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HPAStarSolver implements hierarchical pathfinding (HPA*).
+ * It first runs A* on the small abstract graph of cluster entrances from
+ * {@link ClusterAbstraction}, then refines only the clusters along the chosen
+ * abstract route into a cell-by-cell path with in-cluster BFS.
+ *
+ * The result is near-optimal rather than optimal: a path can only cross a
+ * cluster border at one of its entrance cells.
+ */
+public class HPAStarSolver extends MazeSolver {
+    // Default cluster width and height in cells
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // How an abstract node was reached, needed to refine the path afterwards
+    private static final int VIA_CLUSTER = 0;
+    private static final int VIA_STEP = 1;
+    private static final int VIA_TELEPORT = 2;
+
+    private final int clusterSize;
+    private int goalX, goalY; // End cell of the current solve, read once instead of per heuristic call
+
+    public HPAStarSolver(Maze maze) {
+        this(maze, DEFAULT_CLUSTER_SIZE);
+    }
+
+    // Constructor sets the cluster size and the algorithm name
+    public HPAStarSolver(Maze maze, int clusterSize) {
+        super(maze);
+        this.clusterSize = clusterSize;
+        this.algorithmName = "HPA*";
+    }
+
+    /**
+     * Searches the abstract entrance graph, then refines the abstract path.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no path found
+     */
+    @Override
+    public long solve(boolean visualize) {
+        reset();
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: do not build the abstraction
+
+        ClusterAbstraction clusters = ClusterAbstraction.of(maze, clusterSize);
+        int cols = maze.getCols();
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int end = maze.getEndPos().y * cols + maze.getEndPos().x;
+        goalX = end % cols;
+        goalY = end / cols;
+        int startCluster = clusters.clusterOf(start);
+        int endCluster = clusters.clusterOf(end);
+
+        // Temporary edges: start -> entrances of its cluster, entrances of the end cluster -> end
+        int[] fromStart = new int[clusters.getClusterArea(startCluster)];
+        int[] toEnd = new int[clusters.getClusterArea(endCluster)];
+        clusters.clusterBfs(startCluster, start, fromStart, null);
+        clusters.clusterBfs(endCluster, end, toEnd, null);
+
+        Map<Integer, Integer> cost = new HashMap<>();   // Best known cost of each abstract node
+        Map<Integer, Integer> parent = new HashMap<>(); // Abstract node we came from
+        Map<Integer, Integer> via = new HashMap<>();    // How we came (VIA_*)
+        IntMinHeap open = new IntMinHeap(64);
+        cost.put(start, 0);
+        open.add(heuristic(start), start);
+
+        while (!open.isEmpty()) {
+            int key = open.peekKey();
+            int current = open.poll();
+            int g = cost.get(current);
+            if (key != g + heuristic(current)) continue; // Stale heap entry
+
+            visited[current / cols][current % cols] = true;
+
+            if (current == end) {
+                path = refinePath(clusters, start, end, parent, via);
+                countPathSteps();
+                return System.currentTimeMillis() - startTime;
+            }
+            if (!expand()) { // Out of budget: refine the abstract route found so far
+                return stopSearch(refinePath(clusters, start, current, parent, via));
+            }
+
+            int cluster = clusters.clusterOf(current);
+
+            // Edges inside the cluster: precomputed for entrances, searched once for the start
+            int[] entrances = clusters.getEntrances(cluster);
+            int index = clusters.entranceIndex(cluster, current);
+            for (int j = 0; j < entrances.length; j++) {
+                int d = current == start
+                        ? fromStart[clusters.localIndex(cluster, entrances[j])]
+                        : index >= 0 ? clusters.getDistance(cluster, index, j) : -1;
+                if (d > 0) relax(open, cost, parent, via, current, entrances[j], g + d, VIA_CLUSTER);
+            }
+            if (cluster == endCluster && toEnd[clusters.localIndex(cluster, current)] >= 0) {
+                relax(open, cost, parent, via, current, end,
+                        g + toEnd[clusters.localIndex(cluster, current)], VIA_CLUSTER);
+            }
+
+            // Edges across a cluster border lead to the matching entrance on the other side
+            int x = current % cols;
+            int y = current / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!maze.isOpen(nx, ny)) continue;
+                int next = ny * cols + nx;
+                int nextCluster = clusters.clusterOf(next);
+                if (nextCluster != cluster && clusters.entranceIndex(nextCluster, next) >= 0) {
+                    relax(open, cost, parent, via, current, next, g + 1, VIA_STEP);
+                }
+            }
+
+            // Teleport hop
+            Point destination = maze.getTeleportDestination(x, y);
+            if (destination != null) {
+                relax(open, cost, parent, via, current, destination.y * cols + destination.x, g + 1, VIA_TELEPORT);
+            }
+        }
+
+        return -1; // No path found
+    }
+
+    // Records a cheaper way to reach an abstract node and queues it
+    private void relax(IntMinHeap open, Map<Integer, Integer> cost, Map<Integer, Integer> parent,
+                       Map<Integer, Integer> via, int from, int to, int newCost, int how) {
+        Integer known = cost.get(to);
+        if (known == null || newCost < known) {
+            cost.put(to, newCost);
+            parent.put(to, from);
+            via.put(to, how);
+            open.add(newCost + heuristic(to), to);
+        }
+    }
+
+    // Manhattan distance from a cell index to the end
+    private int heuristic(int cell) {
+        return Math.abs(cell % maze.getCols() - goalX) + Math.abs(cell / maze.getCols() - goalY);
+    }
+
+    // Turns the abstract route into cells, running BFS only inside the clusters it passes through
+    private List<Point> refinePath(ClusterAbstraction clusters, int start, int end,
+                                   Map<Integer, Integer> parent, Map<Integer, Integer> via) {
+        List<Integer> route = new ArrayList<>();
+        for (int node = end; node != start; node = parent.get(node)) {
+            route.add(node);
+        }
+
+        int cols = maze.getCols();
+        List<Point> result = new ArrayList<>();
+        result.add(new Point(start % cols, start / cols));
+        int previous = start;
+        for (int i = route.size() - 1; i >= 0; i--) {
+            int node = route.get(i);
+            if (via.get(node) != VIA_CLUSTER) {
+                result.add(new Point(node % cols, node / cols));
+            } else {
+                appendClusterPath(clusters, previous, node, result);
+            }
+            previous = node;
+        }
+        return result;
+    }
+
+    // Appends the in-cluster shortest path from one cell to another (excluding the first cell)
+    private void appendClusterPath(ClusterAbstraction clusters, int from, int to, List<Point> result) {
+        int cluster = clusters.clusterOf(from);
+        int area = clusters.getClusterArea(cluster);
+        int[] dist = new int[area];
+        int[] parent = new int[area];
+        clusters.clusterBfs(cluster, from, dist, parent);
+
+        List<Point> segment = new ArrayList<>();
+        int cols = maze.getCols();
+        int startLocal = clusters.localIndex(cluster, from);
+        for (int local = clusters.localIndex(cluster, to); local != startLocal; local = parent[local]) {
+            int cell = clusters.cellOf(cluster, local);
+            segment.add(new Point(cell % cols, cell / cols));
+        }
+        for (int i = segment.size() - 1; i >= 0; i--) {
+            result.add(segment.get(i));
+        }
+    }
+}
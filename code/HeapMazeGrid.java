@@ -0,0 +1,53 @@
+/**
+ * HeapMazeGrid keeps the tiles in a char[][] on the Java heap. It is the grid
+ * used by Maze.loadMaze, and the only one that can hand out the array itself
+ * for code that indexes rows directly.
+ */
+public class HeapMazeGrid implements MazeGrid {
+    private final char[][] tiles;
+
+    public HeapMazeGrid(char[][] tiles) {
+        this.tiles = tiles;
+    }
+
+    @Override
+    public int getRows() {
+        return tiles.length;
+    }
+
+    @Override
+    public int getCols() {
+        return tiles.length == 0 ? 0 : tiles[0].length;
+    }
+
+    @Override
+    public char get(int x, int y) {
+        return tiles[y][x];
+    }
+
+    @Override
+    public char get(long cell) {
+        int cols = tiles[0].length;
+        return tiles[(int) (cell / cols)][(int) (cell % cols)];
+    }
+
+    @Override
+    public void set(int x, int y, char tile) {
+        tiles[y][x] = tile;
+    }
+
+    @Override
+    public void copyRow(int y, char[] into) {
+        System.arraycopy(tiles[y], 0, into, 0, tiles[y].length);
+    }
+
+    // Returns the backing array (not a copy)
+    public char[][] getArray() {
+        return tiles;
+    }
+
+    // Nothing to release: the garbage collector owns the array
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,282 @@
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IDAStarSolver runs iterative-deepening A*: depth-first searches bounded by
+ * f = g + h, where every round raises the bound to the lowest f that went over
+ * the last one. Apart from the maze it only keeps the current path on an
+ * explicit stack and a transposition table of fixed size, so its memory does
+ * not grow with the maze and it can run where a HashMap of every cell would not
+ * fit.
+ *
+ * The table remembers the cheapest g each cell was entered with in the current
+ * round; entering it again at the same or a higher cost is cut off. It is direct
+ * mapped, so a collision just overwrites an entry and costs repeated work, never
+ * a wrong answer. Its size comes from the SolveBudget's memory limit when there
+ * is one, so a tight budget makes the search slower instead of refusing it.
+ * Cycles do not depend on the table: a cell already on the current path is never
+ * entered again, which a small hash set of the stack's cells checks in O(1). That
+ * set grows with the depth of the path, like the stack, not with the maze, and
+ * keeps a small table from letting the search walk back and forth between cells.
+ * There are no visited marks either: getVisited() reads them from the table,
+ * so it shows the cells the last round entered that still have an entry.
+ *
+ * Moves cost as in CostModel.DEFAULT and a teleport is an extra edge to its
+ * partner, as for Dial's algorithm; h is a {@link TeleportHeuristic}, which
+ * stays admissible when a teleport is a shortcut.
+ */
+public class IDAStarSolver extends MazeSolver {
+    // Up, Right, Down, Left; index 4 is the teleport hop
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    public static final int DEFAULT_TABLE_ENTRIES = 1 << 16;
+    private static final int MIN_TABLE_ENTRIES = 1 << 6;
+    private static final int BYTES_PER_ENTRY = 12; // Cell, cost and round of one table entry
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final int maxTableEntries;  // Table size without a memory budget (a power of two)
+    private int[] tableCell = new int[0];
+    private int[] tableCost = new int[0];
+    private int[] tableRound = new int[0];
+    private int round;                  // Stamp of the current round; table entries of older rounds are empty
+    private boolean tableFilled;        // Whether the table holds the last solve's final round
+
+    private int[] stackCell = new int[64]; // Current path, one frame per cell
+    private int[] stackCost = new int[64];
+    private int[] stackNext = new int[64]; // Next move to try from the frame: 0-3 directions, 4 teleport
+    private int[] onStack = new int[128];  // Open-addressing set of cell + 1 for every cell on the stack, 0 = free
+    private int depth;
+    private int nextBound;                 // Lowest f that went over the bound in the current round
+
+    private int rounds; // Rounds of the last solve
+    private TeleportHeuristic teleportHeuristic; // Bound for the maze and end being solved
+
+    public IDAStarSolver(Maze maze) {
+        this(maze, DEFAULT_TABLE_ENTRIES);
+    }
+
+    public IDAStarSolver(Maze maze, int maxTableEntries) {
+        super(maze);
+        if (maxTableEntries < MIN_TABLE_ENTRIES) {
+            throw new IllegalArgumentException("Need at least " + MIN_TABLE_ENTRIES + " table entries: " + maxTableEntries);
+        }
+        this.maxTableEntries = Integer.highestOneBit(maxTableEntries);
+        this.algorithmName = "IDA*";
+    }
+
+    /**
+     * Deepens the f bound until the end is found or nothing is left over the bound.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no path found
+     */
+    @Override
+    public long solve(boolean visualize) {
+        resetWithoutVisited(); // Visited marks would grow with the maze; getVisited() reads the table instead
+        rounds = 0;
+        tableFilled = false;
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Not even the smallest table fits the budget
+        teleportHeuristic = TeleportHeuristic.of(maze);
+
+        int cols = maze.getCols();
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int goal = maze.getEndPos().y * cols + maze.getEndPos().x;
+        sizeTable(tableEntries());
+        tableFilled = true;
+
+        int bound = heuristic(start);
+        while (true) {
+            rounds++;
+            if (++round == Integer.MAX_VALUE) {
+                Arrays.fill(tableRound, 0); // Stamps wrapped: clear the table for real
+                round = 1;
+            }
+            int found = search(start, goal, bound);
+            if (found == goal) {
+                path = stackPath();
+                countPathSteps();
+                return System.currentTimeMillis() - startTime;
+            }
+            if (found >= 0) return stopSearch(stackPath()); // Out of budget: the current path is the partial result
+            if (nextBound == INFINITY) return -1; // Nothing went over the bound: everything reachable was searched
+            bound = nextBound;
+        }
+    }
+
+    /**
+     * One depth-first round with the given f bound. Returns the goal if it was
+     * reached, the cell being expanded if the budget ran out, or -1 otherwise;
+     * the path to the returned cell is on the stack.
+     */
+    private int search(int start, int goal, int bound) {
+        int cols = maze.getCols();
+        nextBound = INFINITY;
+        depth = 0;
+        Arrays.fill(onStack, 0);
+        enter(start, 0, bound);
+
+        while (depth > 0) {
+            int top = depth - 1;
+            int cell = stackCell[top];
+            int move = stackNext[top]++;
+            if (move == 0) {
+                if (cell == goal) return goal;
+                if (!expand()) return cell;
+            }
+            if (move > 4) {
+                removeFromStackSet(cell);
+                depth--; // Every move tried: back up
+                continue;
+            }
+
+            int next;
+            int cost;
+            if (move == 4) {
+                next = maze.getTeleportPartner(cell);
+                cost = CostModel.DEFAULT.getTeleportCost();
+            } else {
+                int nx = cell % cols + DX[move];
+                int ny = cell / cols + DY[move];
+                next = maze.isOpen(nx, ny) ? ny * cols + nx : -1;
+                cost = next >= 0 ? CostModel.DEFAULT.enterCost(maze.getCell(nx, ny)) : 0;
+            }
+            if (next >= 0) enter(next, stackCost[top] + cost, bound);
+        }
+        return -1;
+    }
+
+    // Pushes a cell unless it is over the bound, already on the path, or the table has seen it at no more cost
+    private void enter(int cell, int cost, int bound) {
+        if ((depth > 1 && cell == stackCell[depth - 2]) || isOnStack(cell)) return; // A cycle never gets cheaper
+        int f = cost + heuristic(cell);
+        if (f > bound) {
+            nextBound = Math.min(nextBound, f);
+            return;
+        }
+
+        int slot = slotOf(cell);
+        if (tableRound[slot] == round && tableCell[slot] == cell && tableCost[slot] <= cost) return;
+        tableRound[slot] = round;
+        tableCell[slot] = cell;
+        tableCost[slot] = cost;
+
+        if (depth == stackCell.length) {
+            stackCell = Arrays.copyOf(stackCell, depth * 2);
+            stackCost = Arrays.copyOf(stackCost, depth * 2);
+            stackNext = Arrays.copyOf(stackNext, depth * 2);
+            rehashStackSet(onStack.length * 2);
+        }
+        stackCell[depth] = cell;
+        stackCost[depth] = cost;
+        stackNext[depth] = 0;
+        depth++;
+        addToStackSet(cell);
+    }
+
+    // The stack set is kept at most half full, so probes stay short
+    private boolean isOnStack(int cell) {
+        int mask = onStack.length - 1;
+        for (int i = stackSlotOf(cell); onStack[i] != 0; i = (i + 1) & mask) {
+            if (onStack[i] == cell + 1) return true;
+        }
+        return false;
+    }
+
+    private void addToStackSet(int cell) {
+        int mask = onStack.length - 1;
+        int i = stackSlotOf(cell);
+        while (onStack[i] != 0) i = (i + 1) & mask;
+        onStack[i] = cell + 1;
+    }
+
+    // Removes a cell and shifts back the entries after it that probed past its slot
+    private void removeFromStackSet(int cell) {
+        int mask = onStack.length - 1;
+        int i = stackSlotOf(cell);
+        while (onStack[i] != cell + 1) i = (i + 1) & mask;
+        for (int j = (i + 1) & mask; onStack[j] != 0; j = (j + 1) & mask) {
+            int home = stackSlotOf(onStack[j] - 1);
+            if (((j - home) & mask) >= ((j - i) & mask)) { // Its home is at or before the hole
+                onStack[i] = onStack[j];
+                i = j;
+            }
+        }
+        onStack[i] = 0;
+    }
+
+    private void rehashStackSet(int slots) {
+        onStack = new int[slots];
+        for (int i = 0; i < depth; i++) addToStackSet(stackCell[i]);
+    }
+
+    private int stackSlotOf(int cell) {
+        return (cell * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(onStack.length));
+    }
+
+    // Table slot of a cell (multiplicative hashing, so neighboring cells spread out)
+    private int slotOf(int cell) {
+        return (cell * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(tableCell.length));
+    }
+
+    // Largest table that fits the memory budget, at most maxTableEntries
+    private int tableEntries() {
+        long affordable = getBudget().getMaxMemoryBytes() / BYTES_PER_ENTRY;
+        return affordable >= maxTableEntries ? maxTableEntries : Integer.highestOneBit((int) affordable);
+    }
+
+    private void sizeTable(int entries) {
+        if (tableCell.length != entries) {
+            tableCell = new int[entries];
+            tableCost = new int[entries];
+            tableRound = new int[entries];
+            round = 0;
+        }
+    }
+
+    // Cells entered by the last round that the table still remembers; collisions overwrite some of them
+    @Override
+    public boolean[][] getVisited() {
+        boolean[][] marks = super.getVisited(); // All false: the search itself keeps no marks
+        if (tableFilled) {
+            int cols = maze.getCols();
+            for (int slot = 0; slot < tableCell.length; slot++) {
+                if (tableRound[slot] == round) marks[tableCell[slot] / cols][tableCell[slot] % cols] = true;
+            }
+        }
+        return marks;
+    }
+
+    // The table is the only memory that depends on the settings; a budget below the smallest table refuses the solve
+    @Override
+    protected long estimateMemoryBytes() {
+        return (long) MIN_TABLE_ENTRIES * BYTES_PER_ENTRY;
+    }
+
+    private List<Point> stackPath() {
+        int cols = maze.getCols();
+        List<Point> result = new ArrayList<>(depth);
+        for (int i = 0; i < depth; i++) {
+            result.add(new Point(stackCell[i] % cols, stackCell[i] / cols));
+        }
+        return result;
+    }
+
+    // Lower bound on the cost to the end, teleports included
+    private int heuristic(int cell) {
+        return teleportHeuristic.estimate(cell % maze.getCols(), cell / maze.getCols());
+    }
+
+    // Number of deepening rounds the last solve needed
+    public int getRounds() {
+        return rounds;
+    }
+
+    // Entries of the transposition table used by the last solve
+    public int getTableEntries() {
+        return tableCell.length;
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.Arrays;
+
+/**
+ * IntDeque is a double-ended queue of ints backed by a circular primitive array.
+ * It is the frontier of 0-1 BFS: zero-cost moves go to the front and unit-cost
+ * moves to the back, without boxing a single Integer.
+ */
+public class IntDeque {
+    private int[] elements; // Circular buffer, its length is always a power of two
+    private int head;       // Index of the first element
+    private int size;       // Number of elements stored
+
+    // Creates an empty deque with room for at least the given number of elements
+    public IntDeque(int capacity) {
+        int length = 16;
+        while (length < capacity) length <<= 1;
+        elements = new int[length];
+    }
+
+    public void addFirst(int value) {
+        if (size == elements.length) grow();
+        head = (head - 1) & (elements.length - 1);
+        elements[head] = value;
+        size++;
+    }
+
+    public void addLast(int value) {
+        if (size == elements.length) grow();
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    // Removes and returns the first element; the deque must not be empty
+    public int pollFirst() {
+        int value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Empties the deque but keeps its buffer for reuse
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    // Doubles the buffer, unrolling the circular contents to start at index 0
+    private void grow() {
+        int[] larger = new int[elements.length * 2];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, larger, 0, firstPart);
+        System.arraycopy(elements, 0, larger, firstPart, head);
+        elements = larger;
+        head = 0;
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.Arrays;
+
+/**
+ * IntMinHeap is a binary min-heap of (key, value) int pairs kept in two
+ * parallel primitive arrays, so adding and polling never allocates a node object.
+ * A value may be added several times: solvers re-add a node whenever its cost
+ * improves and skip the stale entries when they are polled.
+ */
+public class IntMinHeap {
+    private int[] keys;   // Priority of each entry (smaller comes out first)
+    private int[] values; // Payload of each entry (usually a node or cell index)
+    private int size;     // Number of entries currently in the heap
+
+    // Creates an empty heap with room for the given number of entries
+    public IntMinHeap(int capacity) {
+        capacity = Math.max(capacity, 16);
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+    }
+
+    // Adds a value with the given priority
+    public void add(int key, int value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+
+        // Sift the new entry up until its parent is not larger
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            keys[i] = keys[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    // Returns the smallest key without removing its entry
+    public int peekKey() {
+        return keys[0];
+    }
+
+    // Removes the entry with the smallest key and returns its value
+    public int poll() {
+        int result = values[0];
+        size--;
+        if (size > 0) {
+            int key = keys[size];
+            int value = values[size];
+
+            // Sift the last entry down from the root
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (key <= keys[child]) break;
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Empties the heap but keeps its arrays for reuse
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,382 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+
+/**
+ * JumpIndex is the JPS+ preprocessing of a maze: for every cell and each of
+ * the four directions it stores how far a straight walk goes before it has
+ * something to decide. A positive value is the distance to the next jump point
+ * in that direction; zero or a negative value -k means the walk runs into a
+ * wall after k moves without passing one.
+ *
+ * On a four-connected grid a walk only ever needs to stop where it could turn
+ * or where the tile itself matters, so a cell is a jump point for horizontal
+ * walks if the cell above or below it is open, for vertical walks if the cell
+ * to its left or right is open, and for both if it is S, E, T or P. Every cell
+ * a jump passes over is therefore plain path with walls on both sides.
+ *
+ * Horizontal distances are filled row by row and vertical ones column by column,
+ * each in parallel slices on a {@link ForkJoinPool}. Values are shorts when both
+ * sides of the maze fit in a short, ints otherwise. An index is built once per
+ * maze layout and shared through {@link #of(Maze)}; the build runs outside the
+ * cache's lock, so only callers that want the same maze wait for it.
+ * {@link #save(Path)} writes it next to the maze file, and
+ * {@link #load(Path, Maze)} reads it back and shares it as if it had just been
+ * built. A saved index carries a CRC32C of the layout (each row's tiles, then
+ * the row checksums), so it is not loaded for a different maze of the same size.
+ */
+public class JumpIndex {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // File header: "JPS+" and the format version (2: CRC32C layout checksum)
+    private static final int MAGIC = 0x4A50532B;
+    private static final int FORMAT_VERSION = 2;
+
+    // Distances converted per bulk read or write
+    private static final int CHUNK_VALUES = 32 * 1024;
+
+    // Rows or columns per parallel slice
+    private static final int LINES_PER_SLICE = 64;
+
+    // Indexes built, being built or loaded, reused until their maze changes
+    private static final Map<Maze, Build> CACHE = new WeakHashMap<>();
+
+    private final int rows, cols;
+    private final int version;        // Maze version this index belongs to
+    private final long layoutHash;    // CRC32C of every tile, to match a saved index to its maze
+    private final short[] distances;  // Cell * 4 + direction -> jump distance, or null if ints are needed
+    private final int[] wideDistances; // The same for mazes with a side longer than Short.MAX_VALUE
+
+    // Returns the index for the maze, building it only if the layout changed since the last call
+    public static JumpIndex of(Maze maze) {
+        if (maze instanceof MazeSnapshot) {
+            return ((MazeSnapshot) maze).getIndex(JumpIndex.class, snapshot -> new JumpIndex(snapshot, ForkJoinPool.commonPool()));
+        }
+        int version = maze.getVersion();
+        Build build;
+        boolean builder = false;
+        synchronized (CACHE) { // Held only to find or register the build, never during it
+            build = CACHE.get(maze);
+            if (build == null || build.version != version) {
+                build = new Build(version);
+                CACHE.put(maze, build);
+                builder = true;
+            }
+        }
+        if (builder) {
+            try {
+                build.index.complete(new JumpIndex(maze, ForkJoinPool.commonPool()));
+            } catch (RuntimeException | Error e) {
+                synchronized (CACHE) {
+                    if (CACHE.get(maze) == build) CACHE.remove(maze); // Let the next call try again
+                }
+                build.index.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return build.index.join(); // Another thread's build of the same maze version: wait for it
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    // An index of one maze version, done or still being built by the thread that registered it. It holds no
+    // reference to the maze, so the weak cache can still drop the maze.
+    private static final class Build {
+        final int version;
+        final CompletableFuture<JumpIndex> index = new CompletableFuture<>();
+
+        Build(int version) {
+            this.version = version;
+        }
+    }
+
+    // Builds the index: rows for Left and Right, then columns for Up and Down, each in parallel
+    public JumpIndex(Maze maze, ForkJoinPool pool) {
+        this.rows = maze.getRows();
+        this.cols = maze.getCols();
+        this.version = maze.getVersion();
+        if ((long) rows * cols * 4 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A " + rows + "x" + cols + " maze is too large for a jump index");
+        }
+        boolean wide = Math.max(rows, cols) > Short.MAX_VALUE;
+        this.distances = wide ? null : new short[rows * cols * 4];
+        this.wideDistances = wide ? new int[rows * cols * 4] : null;
+
+        long[] rowHashes = new long[rows];
+        runSlices(pool, rows, (from, to) -> {
+            CRC32C crc = new CRC32C();
+            byte[] tiles = new byte[2 * cols];
+            for (int y = from; y < to; y++) {
+                rowHashes[y] = scanRow(maze, y, crc, tiles);
+            }
+        });
+        runSlices(pool, cols, (from, to) -> {
+            for (int x = from; x < to; x++) {
+                scanColumn(maze, x);
+            }
+        });
+        this.layoutHash = combine(rowHashes);
+    }
+
+    // Wraps distances read from a file
+    private JumpIndex(int rows, int cols, int version, long layoutHash, short[] distances, int[] wideDistances) {
+        this.rows = rows;
+        this.cols = cols;
+        this.version = version;
+        this.layoutHash = layoutHash;
+        this.distances = distances;
+        this.wideDistances = wideDistances;
+    }
+
+    // Fills Right and Left for one row and returns the row's checksum; 'tiles' is scratch space for the checksum
+    private long scanRow(Maze maze, int y, CRC32C crc, byte[] tiles) {
+        int run = 0; // Value of the previous cell in the scan direction, for walking the other way
+        for (int x = cols - 1; x >= 0; x--) {
+            char tile = maze.getCell(x, y);
+            putTile(tiles, x, tile);
+            if (tile == Maze.WALL) continue;
+            run = step(maze, x + 1, y, false, run);
+            set(y * cols + x, 1, run);
+        }
+        for (int x = 0; x < cols; x++) {
+            if (!maze.isOpen(x, y)) continue;
+            run = step(maze, x - 1, y, false, run);
+            set(y * cols + x, 3, run);
+        }
+        crc.reset();
+        crc.update(tiles, 0, tiles.length);
+        return crc.getValue();
+    }
+
+    // Fills Up and Down for one column
+    private void scanColumn(Maze maze, int x) {
+        int run = 0;
+        for (int y = 0; y < rows; y++) {
+            if (!maze.isOpen(x, y)) continue;
+            run = step(maze, x, y - 1, true, run);
+            set(y * cols + x, 0, run);
+        }
+        for (int y = rows - 1; y >= 0; y--) {
+            if (!maze.isOpen(x, y)) continue;
+            run = step(maze, x, y + 1, true, run);
+            set(y * cols + x, 2, run);
+        }
+    }
+
+    /**
+     * Value of a cell whose neighbor in the scan direction is (nx, ny); 'beyond'
+     * is that neighbor's own value. A wall gives 0, a jump point 1, and a plain
+     * corridor cell extends the neighbor's jump or wall distance by one.
+     */
+    private static int step(Maze maze, int nx, int ny, boolean vertical, int beyond) {
+        if (!maze.isOpen(nx, ny)) return 0;
+        if (isJumpPoint(maze, nx, ny, vertical)) return 1;
+        return beyond > 0 ? beyond + 1 : beyond - 1;
+    }
+
+    // True if a straight walk along the given axis has to stop at (x, y)
+    private static boolean isJumpPoint(Maze maze, int x, int y, boolean vertical) {
+        if (maze.getCell(x, y) != Maze.PATH) return true;
+        return vertical
+                ? maze.isOpen(x - 1, y) || maze.isOpen(x + 1, y)
+                : maze.isOpen(x, y - 1) || maze.isOpen(x, y + 1);
+    }
+
+    private void set(int cell, int direction, int value) {
+        if (distances != null) {
+            distances[cell * 4 + direction] = (short) value;
+        } else {
+            wideDistances[cell * 4 + direction] = value;
+        }
+    }
+
+    /**
+     * Jump distance from a cell in a direction (Up, Right, Down, Left): the
+     * number of moves to the next jump point if positive, otherwise minus the
+     * number of moves before a wall. Wall cells read as 0.
+     */
+    public int getJump(int cell, int direction) {
+        return distances != null ? distances[cell * 4 + direction] : wideDistances[cell * 4 + direction];
+    }
+
+    // Cell reached by jumping from a cell in a direction, or -1 if the walk only runs into a wall
+    public int jumpTarget(int cell, int direction) {
+        int distance = getJump(cell, direction);
+        if (distance <= 0) return -1;
+        return cell + distance * (DY[direction] * cols + DX[direction]);
+    }
+
+    // Work on the rows or columns [from, to)
+    private interface SliceWork {
+        void run(int from, int to);
+    }
+
+    // Runs the work over slices of [0, count) on the pool, or inline for a small maze
+    private static void runSlices(ForkJoinPool pool, int count, SliceWork work) {
+        if (count <= LINES_PER_SLICE) {
+            work.run(0, count);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < count; from += LINES_PER_SLICE) {
+            int sliceFrom = from;
+            int sliceTo = Math.min(count, from + LINES_PER_SLICE);
+            tasks.add(() -> {
+                work.run(sliceFrom, sliceTo);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : pool.invokeAll(tasks)) result.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("Building the jump index failed", e);
+        }
+    }
+
+    // Both bytes of a tile, so tiles that differ only in their high byte still change the checksum
+    private static void putTile(byte[] tiles, int x, char tile) {
+        tiles[2 * x] = (byte) (tile >> 8);
+        tiles[2 * x + 1] = (byte) tile;
+    }
+
+    // CRC32C of the row count and the row checksums in order (rows are checksummed in parallel)
+    private static long combine(long[] rowHashes) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer row = ByteBuffer.allocate(4);
+        crc.update(row.putInt(0, rowHashes.length));
+        for (long rowHash : rowHashes) {
+            crc.update(row.clear().putInt(0, (int) rowHash));
+        }
+        return crc.getValue();
+    }
+
+    // Checksum of the maze's current layout, the same one an index built from it carries
+    private static long layoutHash(Maze maze) {
+        CRC32C crc = new CRC32C();
+        byte[] tiles = new byte[2 * maze.getCols()];
+        long[] rowHashes = new long[maze.getRows()];
+        for (int y = 0; y < rowHashes.length; y++) {
+            for (int x = 0; x < maze.getCols(); x++) {
+                putTile(tiles, x, maze.getCell(x, y));
+            }
+            crc.reset();
+            crc.update(tiles, 0, tiles.length);
+            rowHashes[y] = crc.getValue();
+        }
+        return combine(rowHashes);
+    }
+
+    // Writes the index in a binary form that load() and readFrom() read back
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            writeTo(out);
+        }
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(rows);
+        out.writeInt(cols);
+        out.writeLong(layoutHash);
+        out.writeBoolean(distances == null);
+        int length = rows * cols * 4;
+        int width = distances != null ? 2 : 4;
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_VALUES * width); // Big-endian, like DataOutput
+        for (int from = 0; from < length; from += CHUNK_VALUES) {
+            int count = Math.min(CHUNK_VALUES, length - from);
+            chunk.clear();
+            if (distances != null) {
+                chunk.asShortBuffer().put(distances, from, count);
+            } else {
+                chunk.asIntBuffer().put(wideDistances, from, count);
+            }
+            out.write(chunk.array(), 0, count * width);
+        }
+    }
+
+    /**
+     * Reads an index saved for the maze and shares it through of(maze), so the
+     * next solve skips the build. The file must have been saved from the same
+     * layout; anything else throws an IOException and leaves the cache alone.
+     */
+    public static JumpIndex load(Path file, Maze maze) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            JumpIndex index = readFrom(in, maze);
+            if (maze instanceof MazeSnapshot) {
+                return ((MazeSnapshot) maze).getIndex(JumpIndex.class, snapshot -> index); // Kept only if none was built yet
+            }
+            Build build = new Build(index.version);
+            build.index.complete(index);
+            synchronized (CACHE) {
+                CACHE.put(maze, build);
+            }
+            return index;
+        }
+    }
+
+    // Reads an index written by writeTo and checks that it belongs to the maze's current layout
+    public static JumpIndex readFrom(DataInput in, Maze maze) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a jump index file");
+        int format = in.readInt();
+        if (format != FORMAT_VERSION) throw new IOException("Unsupported jump index format " + format);
+        int rows = in.readInt();
+        int cols = in.readInt();
+        long hash = in.readLong();
+        if (rows != maze.getRows() || cols != maze.getCols() || hash != layoutHash(maze)) {
+            throw new IOException("Jump index was saved for a different maze layout");
+        }
+
+        boolean wide = in.readBoolean();
+        int length = rows * cols * 4;
+        short[] distances = wide ? null : new short[length];
+        int[] wideDistances = wide ? new int[length] : null;
+        int width = wide ? 4 : 2;
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_VALUES * width);
+        for (int from = 0; from < length; from += CHUNK_VALUES) {
+            int count = Math.min(CHUNK_VALUES, length - from);
+            in.readFully(chunk.array(), 0, count * width);
+            chunk.clear();
+            if (wide) {
+                chunk.asIntBuffer().get(wideDistances, from, count);
+            } else {
+                chunk.asShortBuffer().get(distances, from, count);
+            }
+        }
+        return new JumpIndex(rows, cols, maze.getVersion(), hash, distances, wideDistances);
+    }
+
+    // Bytes taken by the distance table
+    public long getMemoryBytes() {
+        return (long) rows * cols * 4 * (distances != null ? 2 : 4);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+}
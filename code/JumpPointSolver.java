@@ -0,0 +1,125 @@
+/**
+ * JumpPointSolver runs A* over the jump points of a {@link JumpIndex} (JPS+).
+ * From a jump point the search looks up, in O(1) per direction, the next jump
+ * point in a straight line and moves there in one edge, so the long corridors
+ * of a maze cost one heap entry instead of one per cell. Only the cells between
+ * the jump points of the final path are filled in, when the path is stored.
+ *
+ * Moves cost as in CostModel.DEFAULT and a teleport is an extra edge to its
+ * partner, as for Dial's algorithm. Every tile that changes the cost (T and P)
+ * is a jump point, so a jump only ever passes over plain path. h is a
+ * {@link TeleportHeuristic}, as for AStarSolver; since its block table is not
+ * always consistent, a jump point is expanded again if a cheaper path to it
+ * turns up.
+ */
+public class JumpPointSolver extends MazeSolver {
+    private TeleportHeuristic teleportHeuristic; // Bound for the maze and end being solved
+
+    // Constructor sets the algorithm name and passes the maze to the parent class
+    public JumpPointSolver(Maze maze) {
+        super(maze);
+        this.algorithmName = "JPS+";
+    }
+
+    /**
+     * Searches from jump point to jump point until the end is settled.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no path found
+     */
+    @Override
+    public long solve(boolean visualize) {
+        SolverWorkspace workspace = beginSearch(); // Reused arrays, nothing allocated in steady state
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: the workspace was not touched
+
+        JumpIndex index = JumpIndex.of(maze); // Built once per maze layout (or loaded with the maze)
+        teleportHeuristic = TeleportHeuristic.of(maze);
+        int cols = maze.getCols();
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int end = maze.getEndPos().y * cols + maze.getEndPos().x;
+
+        IntMinHeap open = workspace.getHeap();
+        workspace.reach(start, 0, -1);
+        open.add(heuristic(start), start);
+
+        while (!open.isEmpty()) {
+            int key = open.peekKey();
+            int cell = open.poll();
+            if (key != workspace.getDistance(cell) + heuristic(cell)) continue; // Superseded by a cheaper entry
+            workspace.settle(cell);
+
+            if (cell == end) {
+                fillJumps(workspace, end);
+                storePath(end);
+                return System.currentTimeMillis() - startTime;
+            }
+            if (!expand()) { // Out of budget: the path to the jump point being expanded
+                fillJumps(workspace, cell);
+                return stopSearch(cell);
+            }
+
+            int distance = workspace.getDistance(cell);
+            for (int d = 0; d < 4; d++) {
+                int next = index.jumpTarget(cell, d);
+                if (next < 0) continue;
+                // Every cell before the jump point is plain path; the jump point itself may be a penalty
+                int moves = Math.abs(next % cols - cell % cols) + Math.abs(next / cols - cell / cols);
+                int cost = moves - 1 + CostModel.DEFAULT.enterCost(maze.getCell(next % cols, next / cols));
+                relax(workspace, open, cell, next, distance + cost);
+            }
+            int partner = maze.getTeleportPartner(cell);
+            if (partner >= 0) {
+                relax(workspace, open, cell, partner, distance + CostModel.DEFAULT.getTeleportCost());
+            }
+        }
+
+        return -1; // No path found
+    }
+
+    private void relax(SolverWorkspace workspace, IntMinHeap open, int from, int to, int distance) {
+        if (distance >= workspace.getDistance(to)) return;
+        workspace.reach(to, distance, from);
+        open.add(distance + heuristic(to), to);
+    }
+
+    /**
+     * Turns the jump edges on the parent chain ending at 'cell' into single moves,
+     * by giving every cell a jump passed over its own parent, so storePath sees a
+     * cell-by-cell path. Those cells are never reached by the search itself: they
+     * are plain path with walls on both sides, entered only along the jump.
+     */
+    private void fillJumps(SolverWorkspace workspace, int cell) {
+        int cols = maze.getCols();
+        int teleportCost = CostModel.DEFAULT.getTeleportCost();
+        while (workspace.getParent(cell) != -1) {
+            int from = workspace.getParent(cell);
+            int distance = workspace.getDistance(from);
+            boolean teleported = maze.getTeleportPartner(from) == cell
+                    && workspace.getDistance(cell) - distance == teleportCost;
+            int dx = Integer.signum(cell % cols - from % cols);
+            int dy = Integer.signum(cell / cols - from / cols);
+            if (!teleported && dx * dy == 0 && dx + dy != 0) {
+                int stride = dy * cols + dx;
+                int previous = from;
+                for (int between = from + stride; between != cell; between += stride) {
+                    workspace.reach(between, ++distance, previous);
+                    previous = between;
+                }
+                workspace.reach(cell, workspace.getDistance(cell), previous);
+            }
+            cell = from;
+        }
+    }
+
+    // Lower bound on the cost to the end, teleports included
+    private int heuristic(int cell) {
+        return teleportHeuristic.estimate(cell % maze.getCols(), cell / maze.getCols());
+    }
+
+    // The jump index on top of the workspace; it is shared by every solve of the same layout
+    @Override
+    protected long estimateMemoryBytes() {
+        return super.estimateMemoryBytes() + (long) maze.getRows() * maze.getCols() * 8;
+    }
+}
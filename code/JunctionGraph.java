@@ -0,0 +1,217 @@
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * JunctionGraph is a reduced view of a maze in which every corridor (a run of
+ * plain path cells with exactly two open neighbors) is contracted into one
+ * weighted edge. The remaining nodes are junctions, dead ends and the special
+ * tiles (S, E, T, P); corridor cells are told apart by their
+ * {@link NeighborDegrees}. Edges are stored in CSR form: the edges of node n are the
+ * indices [edgeStart[n], edgeStart[n + 1]) of the edge arrays.
+ *
+ * Cells are addressed by their index y * cols + x. A graph is built once per maze
+ * layout and shared through {@link #of(Maze)}.
+ */
+public class JunctionGraph {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // Markers stored in cellNode for cells that are not nodes
+    private static final int CORRIDOR = -1;
+    private static final int WALL = -2;
+
+    // Graphs already built, reused until their maze is reloaded
+    private static final Map<Maze, JunctionGraph> CACHE = new WeakHashMap<>();
+
+    private final int rows, cols;
+    private final int version;     // Maze version this graph was built from
+    private final int[] nodeCell;  // Node id -> cell index
+    private final int[] cellNode;  // Cell index -> node id, or CORRIDOR / WALL
+    private final int[] edgeStart; // CSR offsets, one per node plus a final sentinel
+    private final int[] edgeTarget; // Node reached by each edge
+    private final int[] edgeWeight; // Number of moves along each edge
+    private final int[] edgeFirst;  // First cell entered along each edge, or -1 for a teleport hop
+
+    // Returns the graph for the maze, building it only if the layout changed since the last call
+    public static JunctionGraph of(Maze maze) {
+        if (maze instanceof MazeSnapshot) {
+            return ((MazeSnapshot) maze).getIndex(JunctionGraph.class, JunctionGraph::new);
+        }
+        synchronized (CACHE) {
+            JunctionGraph graph = CACHE.get(maze);
+            if (graph == null || graph.version != maze.getVersion()) {
+                graph = new JunctionGraph(maze);
+                CACHE.put(maze, graph);
+            }
+            return graph;
+        }
+    }
+
+    // Builds the graph by walking every corridor leaving every node once
+    public JunctionGraph(Maze maze) {
+        this.rows = maze.getRows();
+        this.cols = maze.getCols();
+        this.version = maze.getVersion();
+
+        // First pass: decide which open cells are nodes
+        NeighborDegrees degrees = NeighborDegrees.of(maze);
+        cellNode = new int[rows * cols];
+        int nodeCount = 0;
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                int cell = y * cols + x;
+                if (maze.getCell(x, y) == Maze.WALL) {
+                    cellNode[cell] = WALL;
+                } else if (maze.getCell(x, y) == Maze.PATH && degrees.getDegree(cell) == 2) {
+                    cellNode[cell] = CORRIDOR;
+                } else {
+                    cellNode[cell] = nodeCount++;
+                }
+            }
+        }
+
+        nodeCell = new int[nodeCount];
+        for (int cell = 0; cell < cellNode.length; cell++) {
+            if (cellNode[cell] >= 0) nodeCell[cellNode[cell]] = cell;
+        }
+
+        // Second pass: every open direction of a node is exactly one edge, plus one for a teleport hop
+        int[] teleportTarget = teleportTargets(maze, nodeCount);
+        edgeStart = new int[nodeCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            int degree = degrees.getDegree(nodeCell[node]) + (teleportTarget[node] >= 0 ? 1 : 0);
+            edgeStart[node + 1] = edgeStart[node] + degree;
+        }
+
+        int edgeCount = edgeStart[nodeCount];
+        edgeTarget = new int[edgeCount];
+        edgeWeight = new int[edgeCount];
+        edgeFirst = new int[edgeCount];
+
+        // Third pass: follow each corridor to the node at its other end
+        for (int node = 0; node < nodeCount; node++) {
+            int e = edgeStart[node];
+            int cell = nodeCell[node];
+            for (int d = 0; d < 4; d++) {
+                int nx = cell % cols + DX[d];
+                int ny = cell / cols + DY[d];
+                if (!maze.isOpen(nx, ny)) continue;
+
+                int prev = cell;
+                int current = ny * cols + nx;
+                int weight = 1;
+                while (cellNode[current] == CORRIDOR) {
+                    int next = nextCorridorCell(current, prev);
+                    prev = current;
+                    current = next;
+                    weight++;
+                }
+
+                edgeTarget[e] = cellNode[current];
+                edgeWeight[e] = weight;
+                edgeFirst[e] = ny * cols + nx;
+                e++;
+            }
+
+            if (teleportTarget[node] >= 0) {
+                edgeTarget[e] = teleportTarget[node];
+                edgeWeight[e] = 1; // A teleport hop counts as one step, as in handleSpecialTile
+                edgeFirst[e] = -1;
+            }
+        }
+    }
+
+    // Returns the open neighbor of a corridor cell that is not the cell we came from
+    private int nextCorridorCell(int cell, int prev) {
+        int x = cell % cols;
+        int y = cell / cols;
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (nx >= 0 && nx < cols && ny >= 0 && ny < rows
+                    && cellNode[ny * cols + nx] != WALL && ny * cols + nx != prev) {
+                return ny * cols + nx;
+            }
+        }
+        throw new IllegalStateException("Corridor cell " + cell + " has no way forward");
+    }
+
+    // Maps each teleport node to the node of its paired teleport
+    private int[] teleportTargets(Maze maze, int nodeCount) {
+        int[] targets = new int[nodeCount];
+        Arrays.fill(targets, -1);
+        for (Point teleport : maze.getTeleportPositions()) {
+            int partner = maze.getTeleportPartner(teleport.y * cols + teleport.x);
+            if (partner >= 0) {
+                targets[cellNode[teleport.y * cols + teleport.x]] = cellNode[partner];
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Appends the cells passed along an edge (excluding its source node, including
+     * its target node) to the given path.
+     */
+    public void expandEdge(int source, int edge, List<Point> path) {
+        int target = nodeCell[edgeTarget[edge]];
+        if (edgeFirst[edge] < 0) {
+            path.add(new Point(target % cols, target / cols));
+            return;
+        }
+
+        int prev = nodeCell[source];
+        int current = edgeFirst[edge];
+        path.add(new Point(current % cols, current / cols));
+        while (current != target) {
+            int next = nextCorridorCell(current, prev);
+            prev = current;
+            current = next;
+            path.add(new Point(current % cols, current / cols));
+        }
+    }
+
+    // Returns the node id of the cell at (x, y), or a negative value if it is not a node
+    public int getNode(int x, int y) {
+        return cellNode[y * cols + x];
+    }
+
+    // Returns the cell index of a node
+    public int getNodeCell(int node) {
+        return nodeCell[node];
+    }
+
+    public int getNodeCount() {
+        return nodeCell.length;
+    }
+
+    public int getEdgeCount() {
+        return edgeTarget.length;
+    }
+
+    // First edge of a node in the CSR arrays
+    public int getEdgeStart(int node) {
+        return edgeStart[node];
+    }
+
+    // One past the last edge of a node in the CSR arrays
+    public int getEdgeEnd(int node) {
+        return edgeStart[node + 1];
+    }
+
+    public int getEdgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+
+    public int getEdgeWeight(int edge) {
+        return edgeWeight[edge];
+    }
+
+    public int getCols() {
+        return cols;
+    }
+}
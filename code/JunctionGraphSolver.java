@@ -0,0 +1,114 @@
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JunctionGraphSolver runs Dijkstra or A* on the corridor-contracted
+ * {@link JunctionGraph} instead of on individual cells, then expands the chosen
+ * edges back into a cell-by-cell path. In a perfect maze most cells are corridor
+ * cells, so only a small fraction of the maze is ever pushed onto the heap.
+ *
+ * Teleports are modelled as an extra one-step edge from a T node to its partner;
+ * the normal exits of a teleport tile stay usable as well.
+ */
+public class JunctionGraphSolver extends MazeSolver {
+    // True to guide the search with a heuristic (A*), false for plain Dijkstra
+    private final boolean useAStar;
+    private TeleportHeuristic bound; // Lower bound on the cost to the end for the current solve
+
+    // Constructor sets the algorithm name and passes the maze to the parent class
+    public JunctionGraphSolver(Maze maze, boolean useAStar) {
+        super(maze);
+        this.useAStar = useAStar;
+        this.algorithmName = useAStar ? "Junction A*" : "Junction Dijkstra";
+    }
+
+    /**
+     * Searches the junction graph from the start node to the end node.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no path found
+     */
+    @Override
+    public long solve(boolean visualize) {
+        reset();
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: do not build the graph
+
+        JunctionGraph graph = JunctionGraph.of(maze); // Built once per maze layout
+        int source = graph.getNode(maze.getStartPos().x, maze.getStartPos().y);
+        int target = graph.getNode(maze.getEndPos().x, maze.getEndPos().y);
+        bound = useAStar ? TeleportHeuristic.of(maze) : null;
+
+        int nodeCount = graph.getNodeCount();
+        int[] distance = new int[nodeCount];
+        int[] parentNode = new int[nodeCount]; // Node we came from
+        int[] parentEdge = new int[nodeCount]; // Edge we came along
+        Arrays.fill(distance, Integer.MAX_VALUE);
+
+        IntMinHeap open = new IntMinHeap(nodeCount);
+        distance[source] = 0;
+        parentNode[source] = -1;
+        open.add(heuristic(graph, source), source);
+
+        while (!open.isEmpty()) {
+            int key = open.peekKey();
+            int node = open.poll();
+
+            // Skip entries that were superseded by a cheaper path to the same node
+            if (key != distance[node] + heuristic(graph, node)) continue;
+
+            int cell = graph.getNodeCell(node);
+            visited[cell / maze.getCols()][cell % maze.getCols()] = true;
+
+            if (node == target) {
+                path = reconstructPath(graph, source, target, parentNode, parentEdge);
+                countPathSteps();
+                return System.currentTimeMillis() - startTime;
+            }
+            if (!expand()) { // Out of budget: expand the edges found so far
+                return stopSearch(reconstructPath(graph, source, node, parentNode, parentEdge));
+            }
+
+            // Relax every contracted edge leaving this node
+            for (int e = graph.getEdgeStart(node); e < graph.getEdgeEnd(node); e++) {
+                int next = graph.getEdgeTarget(e);
+                int newDistance = distance[node] + graph.getEdgeWeight(e);
+                if (newDistance < distance[next]) {
+                    distance[next] = newDistance;
+                    parentNode[next] = node;
+                    parentEdge[next] = e;
+                    open.add(newDistance + heuristic(graph, next), next);
+                }
+            }
+        }
+
+        return -1; // No path found
+    }
+
+    // Lower bound on the cost from a node to the end, teleports included, or 0 when running as Dijkstra
+    private int heuristic(JunctionGraph graph, int node) {
+        if (!useAStar) return 0;
+        int cell = graph.getNodeCell(node);
+        return bound.estimate(cell % maze.getCols(), cell / maze.getCols());
+    }
+
+    // Follows the parent links back to the start, then expands each edge into its cells
+    private List<Point> reconstructPath(JunctionGraph graph, int source, int target,
+                                        int[] parentNode, int[] parentEdge) {
+        List<Integer> nodes = new ArrayList<>();
+        for (int node = target; node != source; node = parentNode[node]) {
+            nodes.add(node);
+        }
+
+        List<Point> result = new ArrayList<>();
+        int startCell = graph.getNodeCell(source);
+        result.add(new Point(startCell % maze.getCols(), startCell / maze.getCols()));
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            int node = nodes.get(i);
+            graph.expandEdge(parentNode[node], parentEdge[node], result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,324 @@
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * LPAStarSolver is an incremental shortest-path solver (Lifelong Planning A*).
+ * It keeps its g and rhs values between calls to solve() and listens to the maze
+ * for cell edits. After an edit it re-examines only the cells whose incoming
+ * edges changed, and the search repairs just the part of the old solution that
+ * the edit invalidated instead of searching the whole maze again.
+ *
+ * Moves cost what the {@link CostModel} says, including teleport hops, which are
+ * an extra edge rather than a forced jump. Changing S or E, reloading the maze or
+ * adding the first (or removing the last) teleport pair starts over from scratch.
+ *
+ * One solver serves one maze for its whole lifetime; call {@link #detach()} when
+ * it is no longer needed so the maze stops reporting edits to it.
+ */
+public final class LPAStarSolver extends MazeSolver implements MazeChangeListener {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // "Unreachable"; small enough that adding an edge cost never overflows
+    private static final int INFINITY = Integer.MAX_VALUE / 4;
+
+    // Marks a cell that is not in the open list
+    private static final long NOT_OPEN = -1;
+
+    private final CostModel costModel;
+
+    private int[] g;             // Settled cost from the start of each cell
+    private int[] rhs;           // One-step lookahead cost of each cell
+    private long[] openKey;      // Key of each cell's live open-list entry, or NOT_OPEN
+    private LongMinHeap open;    // Open list; entries whose key no longer matches openKey are stale
+    private int[] teleportCells; // Teleports the search knew about, so re-pairing can be repaired
+
+    private boolean initialized; // False until the first solve and after anything that forces a restart
+    private int rows, cols;      // Maze size the state was built for
+    private int start, goal;     // Start and goal cells the state was built for
+    private int heuristicWeight; // Cost per Manhattan step used by the heuristic, 0 when teleports exist
+
+    private final IntDeque changedCells = new IntDeque(16); // Cells edited since the last solve
+    private boolean teleportsChanged;                       // A T tile was added or removed since the last solve
+
+    public LPAStarSolver(Maze maze) {
+        this(maze, CostModel.DEFAULT);
+    }
+
+    // Constructor sets the cost model and the algorithm name and starts listening to the maze
+    public LPAStarSolver(Maze maze, CostModel costModel) {
+        super(maze);
+        if (costModel.getStepCost() == 0 || costModel.getPenaltyCost() == 0 || costModel.getTeleportCost() == 0) {
+            throw new IllegalArgumentException("LPA* needs positive move costs to walk the path back from g values");
+        }
+        this.costModel = costModel;
+        this.algorithmName = "LPA*";
+        maze.addChangeListener(this);
+    }
+
+    // Stops listening to the maze; the next solve starts over from scratch
+    public synchronized void detach() {
+        maze.removeChangeListener(this);
+        initialized = false;
+    }
+
+    @Override
+    public synchronized void cellChanged(int x, int y, char oldTile, char newTile) {
+        changedCells.addLast(y * maze.getCols() + x);
+        if (oldTile == Maze.TELEPORT || newTile == Maze.TELEPORT) {
+            teleportsChanged = true;
+        }
+    }
+
+    @Override
+    public synchronized void mazeReloaded() {
+        initialized = false;
+    }
+
+    /**
+     * Brings the shortest path up to date with the maze, reusing the previous search.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no path found
+     */
+    @Override
+    public synchronized long solve(boolean visualize) {
+        reset();
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: keep the previous search state as it is
+
+        int newStart = maze.getStartPos().y * maze.getCols() + maze.getStartPos().x;
+        int newGoal = maze.getEndPos().y * maze.getCols() + maze.getEndPos().x;
+        int newWeight = maze.getTeleportPositions().size() >= 2 ? 0 : minMoveCost();
+        if (!initialized || maze.getRows() != rows || maze.getCols() != cols
+                || newStart != start || newGoal != goal || newWeight != heuristicWeight) {
+            initialize(newStart, newGoal, newWeight);
+        } else {
+            repairChangedCells();
+        }
+
+        computeShortestPath();
+        if (isStopped()) return -1; // Out of budget; the next solve carries on from the open list
+        if (g[goal] >= INFINITY) return -1; // No path found
+
+        path = extractPath();
+        steps = path.size() - 1;
+        penaltySteps = g[goal] - steps;
+        return System.currentTimeMillis() - startTime;
+    }
+
+    // Throws away all search state and seeds the open list with the start cell
+    private void initialize(int newStart, int newGoal, int newWeight) {
+        rows = maze.getRows();
+        cols = maze.getCols();
+        start = newStart;
+        goal = newGoal;
+        heuristicWeight = newWeight;
+
+        int cellCount = rows * cols;
+        g = new int[cellCount];
+        rhs = new int[cellCount];
+        openKey = new long[cellCount];
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        Arrays.fill(openKey, NOT_OPEN);
+        open = new LongMinHeap(256);
+        teleportCells = currentTeleportCells();
+
+        rhs[start] = 0;
+        push(start);
+
+        changedCells.clear();
+        teleportsChanged = false;
+        initialized = true;
+    }
+
+    // Re-evaluates every cell whose incoming edges were touched by an edit since the last solve
+    private void repairChangedCells() {
+        while (!changedCells.isEmpty()) {
+            int cell = changedCells.pollFirst();
+            int x = cell % cols;
+            int y = cell / cols;
+
+            // The cell's own entry cost changed, and so did the edges it offers its neighbors
+            updateCell(cell);
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (nx >= 0 && nx < cols && ny >= 0 && ny < rows) {
+                    updateCell(ny * cols + nx);
+                }
+            }
+        }
+
+        if (teleportsChanged) {
+            // Pairing is by reading order, so every old and new teleport may have a new partner
+            for (int cell : teleportCells) updateCell(cell);
+            teleportCells = currentTeleportCells();
+            for (int cell : teleportCells) updateCell(cell);
+            teleportsChanged = false;
+        }
+    }
+
+    // Expands cells in key order until the goal is locally consistent and nothing cheaper is open
+    private void computeShortestPath() {
+        while (true) {
+            long top = topKey();
+            if (top == NOT_OPEN || (top >= key(goal) && rhs[goal] == g[goal])) break;
+            if (!expand()) break; // Out of budget before the cell leaves the open list, so no work is lost
+
+            int cell = open.poll();
+            openKey[cell] = NOT_OPEN;
+            visited[cell / cols][cell % cols] = true;
+
+            if (g[cell] > rhs[cell]) {
+                g[cell] = rhs[cell]; // Overconsistent: the new, lower cost is final
+                updateSuccessors(cell);
+            } else {
+                g[cell] = INFINITY;  // Underconsistent: the old cost is gone, so recompute it and everything built on it
+                updateCell(cell);
+                updateSuccessors(cell);
+            }
+        }
+    }
+
+    private void updateSuccessors(int cell) {
+        int x = cell % cols;
+        int y = cell / cols;
+        if (maze.getCell(x, y) == Maze.WALL) return;
+        for (int d = 0; d < 4; d++) {
+            if (maze.isOpen(x + DX[d], y + DY[d])) {
+                updateCell((y + DY[d]) * cols + x + DX[d]);
+            }
+        }
+        int partner = maze.getTeleportPartner(cell);
+        if (partner >= 0) updateCell(partner);
+    }
+
+    // Recomputes rhs of a cell from its predecessors and fixes its place in the open list
+    private void updateCell(int cell) {
+        if (cell != start) {
+            rhs[cell] = bestPredecessorCost(cell);
+        }
+        if (g[cell] != rhs[cell]) {
+            push(cell);
+        } else {
+            openKey[cell] = NOT_OPEN; // Consistent: any heap entry for it is now stale
+        }
+    }
+
+    // Cheapest g(u) + c(u, cell) over all u that can move into the cell
+    private int bestPredecessorCost(int cell) {
+        int x = cell % cols;
+        int y = cell / cols;
+        char tile = maze.getCell(x, y);
+        if (tile == Maze.WALL) return INFINITY;
+
+        int best = INFINITY;
+        int enter = costModel.enterCost(tile);
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (maze.isOpen(nx, ny)) {
+                best = Math.min(best, g[ny * cols + nx] + enter);
+            }
+        }
+        int partner = maze.getTeleportPartner(cell);
+        if (partner >= 0) {
+            best = Math.min(best, g[partner] + costModel.getTeleportCost());
+        }
+        return Math.min(best, INFINITY);
+    }
+
+    // Puts a cell into the open list with its current key
+    private void push(int cell) {
+        long key = key(cell);
+        if (openKey[cell] == key) return; // Already queued with this key
+        openKey[cell] = key;
+        open.add(key, cell);
+
+        // Lazy deletion leaves stale entries behind; rebuild from the live ones before they pile up
+        if (open.size() > 4 * g.length) {
+            open.clear();
+            for (int c = 0; c < openKey.length; c++) {
+                if (openKey[c] != NOT_OPEN) open.add(openKey[c], c);
+            }
+        }
+    }
+
+    // Smallest live key in the open list, or NOT_OPEN if it is empty; drops stale entries on the way
+    private long topKey() {
+        while (!open.isEmpty()) {
+            if (openKey[open.peekValue()] == open.peekKey()) return open.peekKey();
+            open.poll();
+        }
+        return NOT_OPEN;
+    }
+
+    // LPA* key [min(g, rhs) + h, min(g, rhs)] packed into one long
+    private long key(int cell) {
+        int best = Math.min(g[cell], rhs[cell]);
+        return LongMinHeap.pack(best + heuristic(cell), best);
+    }
+
+    // Manhattan distance to the goal times the cheapest move; 0 with teleports, which can beat it
+    private int heuristic(int cell) {
+        if (heuristicWeight == 0) return 0;
+        return heuristicWeight * (Math.abs(cell % cols - goal % cols) + Math.abs(cell / cols - goal / cols));
+    }
+
+    private int minMoveCost() {
+        return Math.min(costModel.getStepCost(), costModel.getPenaltyCost());
+    }
+
+    private int[] currentTeleportCells() {
+        List<Point> teleports = maze.getTeleportPositions();
+        int[] cells = new int[teleports.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = teleports.get(i).y * cols + teleports.get(i).x;
+        }
+        return cells;
+    }
+
+    // Walks back from the goal, always to a predecessor whose g plus the move cost gives this cell's g
+    private List<Point> extractPath() {
+        List<Point> result = new ArrayList<>();
+        int cell = goal;
+        result.add(new Point(goal % cols, goal / cols));
+        while (cell != start) {
+            int x = cell % cols;
+            int y = cell / cols;
+            int enter = costModel.enterCost(maze.getCell(x, y));
+            int previous = -1;
+            for (int d = 0; d < 4 && previous < 0; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (maze.isOpen(nx, ny) && g[ny * cols + nx] + enter == g[cell]) {
+                    previous = ny * cols + nx;
+                }
+            }
+            int partner = maze.getTeleportPartner(cell);
+            if (previous < 0 && partner >= 0 && g[partner] + costModel.getTeleportCost() == g[cell]) {
+                previous = partner;
+            }
+            cell = previous;
+            result.add(new Point(cell % cols, cell / cols));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // Exact cost of the last path found under this solver's cost model, or -1
+    @Override
+    public int getPathCost() {
+        return path.isEmpty() ? -1 : g[goal];
+    }
+
+    public CostModel getCostModel() {
+        return costModel;
+    }
+}
@@ -0,0 +1,223 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * LandmarkHeuristic is the preprocessing for ALT (A*, Landmarks, Triangle
+ * inequality). It stores the exact distance from a few landmark cells to every
+ * cell; since d(L, t) <= d(L, v) + d(v, t) for every landmark L, the largest
+ * |d(L, t) - d(L, v)| is a lower bound on d(v, t). Landmarks behind the goal or
+ * behind the start give bounds close to the real distance even when the maze
+ * winds away from the straight line, where Manhattan distance is far too low.
+ *
+ * Distances are measured with unit moves and an optional unit hop between
+ * paired teleports. Every solver's moves cost at least that much, so the bound
+ * is admissible (and consistent) for all of them.
+ *
+ * Landmarks are chosen farthest-point first on the {@link JunctionGraph}, which
+ * has the same distances between its nodes but far fewer nodes than the maze:
+ * the first is the node farthest from the start, each next one the node
+ * farthest from all landmarks so far. The per-cell tables are then filled with
+ * one breadth-first search per landmark, in parallel on a {@link ForkJoinPool}.
+ * A table is a char[] when its distances fit in 16 bits and an int[] otherwise.
+ *
+ * Tables are built once per maze layout and landmark count and shared through
+ * {@link #of(Maze, int)}.
+ */
+public class LandmarkHeuristic {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    // Distance stored for a cell a landmark cannot reach (walls included)
+    private static final char UNREACHED = Character.MAX_VALUE;
+
+    // Tables already built, reused until their maze changes
+    private static final Map<Maze, LandmarkHeuristic> CACHE = new WeakHashMap<>();
+
+    private final int version;          // Maze version the tables were built from
+    private final int requested;        // Landmark count asked for; a small maze may have fewer distinct ones
+    private final int[] landmarks;      // Landmark cells, in the order they were chosen
+    private final char[][] distances;   // Landmark -> cell -> distance, or null for a wide table
+    private final int[][] wideDistances; // Landmark -> cell -> distance (-1 if unreached) for long mazes
+
+    // Returns the tables for the maze, building them only if the layout or the landmark count changed
+    public static LandmarkHeuristic of(Maze maze, int landmarkCount) {
+        if (maze instanceof MazeSnapshot) {
+            return ((MazeSnapshot) maze).getIndex(LandmarkHeuristic.class, landmarkCount,
+                    snapshot -> new LandmarkHeuristic(snapshot, landmarkCount, ForkJoinPool.commonPool()));
+        }
+        synchronized (CACHE) {
+            LandmarkHeuristic tables = CACHE.get(maze);
+            if (tables == null || tables.version != maze.getVersion() || tables.requested != landmarkCount) {
+                tables = new LandmarkHeuristic(maze, landmarkCount, ForkJoinPool.commonPool());
+                CACHE.put(maze, tables);
+            }
+            return tables;
+        }
+    }
+
+    // Chooses the landmarks, then fills one distance table per landmark in parallel
+    public LandmarkHeuristic(Maze maze, int landmarkCount, ForkJoinPool pool) {
+        if (landmarkCount < 1) throw new IllegalArgumentException("Need at least one landmark: " + landmarkCount);
+        this.version = maze.getVersion();
+        this.requested = landmarkCount;
+        this.landmarks = chooseLandmarks(maze, landmarkCount);
+        this.distances = new char[landmarks.length][];
+        this.wideDistances = new int[landmarks.length][];
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < landmarks.length; i++) {
+            int landmark = i;
+            tasks.add(() -> {
+                fillTable(maze, landmark);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : pool.invokeAll(tasks)) result.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("Building the landmark tables failed", e);
+        }
+    }
+
+    // Farthest-point selection on the junction graph, starting from the maze's start
+    private static int[] chooseLandmarks(Maze maze, int count) {
+        JunctionGraph graph = JunctionGraph.of(maze);
+        int source = graph.getNode(maze.getStartPos().x, maze.getStartPos().y);
+
+        int[] nearest = shortestDistances(graph, source); // Distance to the closest landmark so far
+        int[] chosen = new int[count];
+        int found = 0;
+        while (found < count) {
+            int farthest = -1;
+            for (int node = 0; node < nearest.length; node++) {
+                if (nearest[node] != Integer.MAX_VALUE && (farthest < 0 || nearest[node] > nearest[farthest])) {
+                    farthest = node;
+                }
+            }
+            if (found > 0 && nearest[farthest] == 0) break; // Every reachable node is a landmark already
+            chosen[found++] = graph.getNodeCell(farthest);
+
+            int[] fromLandmark = shortestDistances(graph, farthest);
+            if (found == 1) {
+                nearest = fromLandmark; // The start itself is not a landmark
+            } else {
+                for (int node = 0; node < nearest.length; node++) {
+                    nearest[node] = Math.min(nearest[node], fromLandmark[node]);
+                }
+            }
+        }
+        return Arrays.copyOf(chosen, found);
+    }
+
+    // Dijkstra over the junction graph; unreachable nodes get Integer.MAX_VALUE
+    private static int[] shortestDistances(JunctionGraph graph, int source) {
+        int[] distance = new int[graph.getNodeCount()];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        IntMinHeap open = new IntMinHeap(graph.getNodeCount());
+        distance[source] = 0;
+        open.add(0, source);
+        while (!open.isEmpty()) {
+            int key = open.peekKey();
+            int node = open.poll();
+            if (key != distance[node]) continue; // Superseded by a shorter path
+            for (int e = graph.getEdgeStart(node); e < graph.getEdgeEnd(node); e++) {
+                int next = graph.getEdgeTarget(e);
+                int newDistance = key + graph.getEdgeWeight(e);
+                if (newDistance < distance[next]) {
+                    distance[next] = newDistance;
+                    open.add(newDistance, next);
+                }
+            }
+        }
+        return distance;
+    }
+
+    // Breadth-first search from one landmark over every cell, stored as chars if the distances fit
+    private void fillTable(Maze maze, int landmark) {
+        int rows = maze.getRows();
+        int cols = maze.getCols();
+        int[] distance = new int[rows * cols];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[rows * cols];
+        int head = 0, tail = 0;
+        distance[landmarks[landmark]] = 0;
+        queue[tail++] = landmarks[landmark];
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % cols;
+            int y = cell / cols;
+            for (int d = 0; d <= 4; d++) {
+                int next;
+                if (d == 4) {
+                    next = maze.getTeleportPartner(cell);
+                } else {
+                    next = maze.isOpen(x + DX[d], y + DY[d]) ? (y + DY[d]) * cols + x + DX[d] : -1;
+                }
+                if (next >= 0 && distance[next] < 0) {
+                    distance[next] = distance[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        // The last cell dequeued is the farthest one
+        if (distance[queue[tail - 1]] < UNREACHED) {
+            char[] table = new char[distance.length];
+            for (int cell = 0; cell < table.length; cell++) {
+                table[cell] = distance[cell] < 0 ? UNREACHED : (char) distance[cell];
+            }
+            distances[landmark] = table;
+        } else {
+            wideDistances[landmark] = distance;
+        }
+    }
+
+    /**
+     * Lower bound on the number of moves from one cell to another, 0 if no
+     * landmark reaches both (then they may not be connected at all).
+     */
+    public int lowerBound(int from, int to) {
+        int best = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            int a, b;
+            if (distances[i] != null) {
+                a = distances[i][from];
+                b = distances[i][to];
+                if (a == UNREACHED || b == UNREACHED) continue;
+            } else {
+                a = wideDistances[i][from];
+                b = wideDistances[i][to];
+                if (a < 0 || b < 0) continue;
+            }
+            best = Math.max(best, Math.abs(a - b));
+        }
+        return best;
+    }
+
+    // Landmark cells (y * cols + x), in the order they were chosen
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    // Bytes taken by the distance tables
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            bytes += distances[i] != null ? 2L * distances[i].length : 4L * wideDistances[i].length;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * LatencyHistogram counts recorded durations in log-linear buckets: values
+ * below 128 get a bucket each, and every power of two above that is split into
+ * 128 equal buckets. A percentile is therefore exact to within 1%, memory is
+ * fixed (one int per bucket) and recording is O(1) with no allocation.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 7;                  // 2^7 = 128 buckets per power of two
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    private final int[] counts = new int[BUCKETS];
+    private long count;
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    // Records one value (negative values count as 0)
+    public void record(long value) {
+        value = Math.max(value, 0);
+        counts[bucket(value)]++;
+        count++;
+        total += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    // Adds every value recorded by another histogram
+    public void add(LatencyHistogram other) {
+        for (int b = 0; b < BUCKETS; b++) counts[b] += other.counts[b];
+        count += other.count;
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Smallest recorded value such that the given percentage of all values is at
+     * or below it, reported as the top of its bucket (never above the maximum).
+     * Returns 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank) return Math.min(highestValueIn(b), max);
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    // Empties the histogram
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    private static int bucket(long value) {
+        int msb = 63 - Long.numberOfLeadingZeros(value | 1);
+        if (msb < SUB_BITS) return (int) value;
+        int shift = msb - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) - SUB_COUNT);
+    }
+
+    // Largest value that falls into the bucket
+    private static long highestValueIn(int bucket) {
+        if (bucket < 2 * SUB_COUNT) return bucket;
+        int shift = (bucket >>> SUB_BITS) - 1;
+        long lowest = (long) ((bucket & (SUB_COUNT - 1)) + SUB_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.Arrays;
+
+/**
+ * LongMinHeap is a binary min-heap of (long key, int value) pairs kept in two
+ * parallel primitive arrays. A long key can hold a two-part priority such as
+ * LPA*'s [k1, k2] pair: k1 in the high 32 bits and k2 in the low 32 bits, so a
+ * single comparison orders entries lexicographically.
+ */
+public class LongMinHeap {
+    private long[] keys;  // Priority of each entry (smaller comes out first)
+    private int[] values; // Payload of each entry (usually a cell index)
+    private int size;     // Number of entries currently in the heap
+
+    // Creates an empty heap with room for the given number of entries
+    public LongMinHeap(int capacity) {
+        capacity = Math.max(capacity, 16);
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+    }
+
+    // Packs two non-negative int priorities into one key that compares lexicographically
+    public static long pack(int k1, int k2) {
+        return ((long) k1 << 32) | k2;
+    }
+
+    // Adds a value with the given priority
+    public void add(long key, int value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+
+        // Sift the new entry up until its parent is not larger
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            keys[i] = keys[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    // Returns the smallest key without removing its entry
+    public long peekKey() {
+        return keys[0];
+    }
+
+    // Returns the value of the smallest entry without removing it
+    public int peekValue() {
+        return values[0];
+    }
+
+    // Removes the entry with the smallest key and returns its value
+    public int poll() {
+        int result = values[0];
+        size--;
+        if (size > 0) {
+            long key = keys[size];
+            int value = values[size];
+
+            // Sift the last entry down from the root
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (key <= keys[child]) break;
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Empties the heap but keeps its arrays for reuse
+    public void clear() {
+        size = 0;
+    }
+}
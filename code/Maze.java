@@ -3,10 +3,26 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-public class Maze {
+/**
+ * Maze holds the grid of tiles and the positions of its special tiles. The grid
+ * is a {@link MazeGrid}: loadMaze keeps it on the heap, loadMazeOffHeap in native
+ * memory and loadMazeTiled on disk behind a tile cache. All tile access goes
+ * through getCell, isOpen and the other accessors; only heap mazes also offer the
+ * raw char[][] through getMaze. Close the maze (or load another one) to release
+ * an off-heap or tiled grid.
+ *
+ * A Maze is not thread-safe. To solve one layout on several threads, share a
+ * {@link #snapshot()} instead.
+ */
+public class Maze implements AutoCloseable {
     // Constants to represent different types of tiles in the maze
     public static final char WALL = '#';
     public static final char PATH = ' ';
@@ -15,21 +31,49 @@ public class Maze {
     public static final char TELEPORT = 'T';
     public static final char PENALTY = 'P';
 
-    private char[][] maze;  // 2D array to hold the maze layout
+    private MazeGrid grid;  // Storage of the maze layout (heap or off-heap)
+    private char[][] maze;  // The heap grid's array, or null for an off-heap grid
     private int rows, cols; // Number of rows and columns in the maze
-    private Point startPos, endPos; // Start and end positions in the maze
+    private Point startPos, endPos; // First start and first end position in the maze
+    private List<Point> startPositions = new ArrayList<>(); // Every start (S) tile, in reading order
+    private List<Point> endPositions = new ArrayList<>();   // Every end (E) tile, in reading order
     private List<Point> teleportPositions = new ArrayList<>(); // List of teleport tile positions
     private List<Point> penaltyPositions = new ArrayList<>();  // List of penalty tile positions
+    private long[] teleportCells = new long[0]; // Teleport cell indices (y * cols + x) in reading order
+    private int version; // Incremented every time the maze layout changes
+    private final List<MazeChangeListener> listeners = new CopyOnWriteArrayList<>(); // Notified of every change
 
     // Loads the maze from a file
     public void loadMaze(File file) throws IOException {
-        List<String> lines = new ArrayList<>();
+        try (Reader reader = new FileReader(file)) {
+            loadMaze(reader);
+        }
+    }
+
+    // Loads the maze from any character stream (e.g. a request body); the caller closes the reader
+    public void loadMaze(Reader source) throws IOException {
+        loadMaze(source, null);
+    }
+
+    /**
+     * Loads the maze from a character stream, reporting every parsed row to the
+     * monitor (which may be null). If the monitor stops the load, or the input is
+     * not a valid maze, the current layout is kept and an IOException is thrown.
+     */
+    public void loadMaze(Reader source, MazeLoadMonitor monitor) throws IOException {
+        List<char[]> lines = new ArrayList<>();
 
-        // Read the file line by line
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                lines.add(line);
+        // Read the input line by line; every row must be as long as the first (rectangular maze)
+        BufferedReader reader = new BufferedReader(source);
+        String text;
+        while ((text = reader.readLine()) != null) {
+            if (!lines.isEmpty() && text.length() != lines.get(0).length) {
+                throw new IOException("All lines in the maze must have the same length. Line " + (lines.size() + 1) +
+                        " has length " + text.length() + " instead of " + lines.get(0).length + ".");
+            }
+            lines.add(text.toCharArray());
+            if (monitor != null && !monitor.rowParsed(lines.size())) {
+                throw new InterruptedIOException("Maze loading cancelled after " + lines.size() + " rows");
             }
         }
 
@@ -38,52 +82,187 @@ public class Maze {
             throw new IOException("Maze file is empty.");
         }
 
-        // Set the dimensions of the maze
-        rows = lines.size();
-        cols = lines.get(0).length();
+        useGrid(new HeapMazeGrid(lines.toArray(new char[0][])));
+    }
+
+    // Loads the maze from a file into native memory, streaming it so the layout never touches the heap
+    public void loadMazeOffHeap(Path file) throws IOException {
+        OffHeapMazeGrid loaded = OffHeapMazeGrid.load(file);
+        try {
+            useGrid(loaded);
+        } catch (IOException | RuntimeException e) {
+            loaded.close();
+            throw e;
+        }
+    }
+
+    // Switches to a newly loaded grid, or keeps the current one if the new grid has no S or no E
+    private void useGrid(MazeGrid newGrid) throws IOException {
+        MazeGrid oldGrid = grid;
+        setGrid(newGrid);
 
-        // Ensure all lines are the same length (rectangular maze)
-        for (int i = 0; i < rows; i++) {
-            if (lines.get(i).length() != cols) {
-                throw new IOException("All lines in the maze must have the same length. Line " + (i + 1) +
-                        " has length " + lines.get(i).length() + " instead of " + cols + ".");
+        // Record special tile positions and ensure that both start and end positions exist
+        indexSpecialTiles();
+        if (startPositions.isEmpty() || endPositions.isEmpty()) {
+            if (oldGrid != null) {
+                setGrid(oldGrid);
+                indexSpecialTiles();
             }
+            throw new IOException("Maze must contain both a start (S) and an end (E) position.");
+        }
+        if (oldGrid != null) {
+            oldGrid.close(); // Frees the previous grid if it was off-heap
+        }
+
+        version++; // Invalidate anything precomputed for the previous layout
+        for (MazeChangeListener listener : listeners) {
+            listener.mazeReloaded();
+        }
+    }
+
+    // Opens a tile file written by TiledMazeGrid.create; tiles are paged in as cells are read
+    public void loadMazeTiled(Path tileFile, int maxCachedTiles) throws IOException {
+        TiledMazeGrid loaded = TiledMazeGrid.open(tileFile, maxCachedTiles);
+        try {
+            useGrid(loaded);
+        } catch (IOException | RuntimeException e) {
+            loaded.close();
+            throw e;
         }
+    }
+
+    private void setGrid(MazeGrid newGrid) {
+        grid = newGrid;
+        maze = newGrid instanceof HeapMazeGrid ? ((HeapMazeGrid) newGrid).getArray() : null;
+        rows = newGrid.getRows();
+        cols = newGrid.getCols();
+    }
 
-        // Initialize maze array and reset teleport/penalty/start/end
-        maze = new char[rows][cols];
+    // Rebuilds the start/end/teleport/penalty lists and the teleport index from the grid
+    private void indexSpecialTiles() {
         teleportPositions.clear();
         penaltyPositions.clear();
-        startPos = null;
-        endPos = null;
-
-        // Fill in the maze grid and record special tile positions
-        for (int i = 0; i < rows; i++) {
-            String line = lines.get(i);
-            for (int j = 0; j < cols; j++) {
-                char ch = line.charAt(j);
-                maze[i][j] = ch;
-
-                if (ch == START) {
-                    startPos = new Point(j, i);
-                } else if (ch == END) {
-                    endPos = new Point(j, i);
-                } else if (ch == TELEPORT) {
-                    teleportPositions.add(new Point(j, i));
-                } else if (ch == PENALTY) {
-                    penaltyPositions.add(new Point(j, i));
+        startPositions.clear();
+        endPositions.clear();
+
+        long[] specialCells = grid.findSpecialCells();
+        if (specialCells != null) {
+            // The grid already knows where its special tiles are (a tiled grid would otherwise page in every tile)
+            for (long cell : specialCells) {
+                indexTile((int) (cell % cols), (int) (cell / cols));
+            }
+        } else {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    indexTile(j, i);
                 }
             }
         }
+        startPos = startPositions.isEmpty() ? null : startPositions.get(0);
+        endPos = endPositions.isEmpty() ? null : endPositions.get(0);
 
-        // Ensure that both start and end positions exist
-        if (startPos == null || endPos == null) {
-            throw new IOException("Maze must contain both a start (S) and an end (E) position.");
+        // Index the teleports so a partner can be found by binary search instead of a list scan
+        teleportCells = new long[teleportPositions.size()];
+        for (int i = 0; i < teleportCells.length; i++) {
+            teleportCells[i] = (long) teleportPositions.get(i).y * cols + teleportPositions.get(i).x;
+        }
+    }
+
+    private void indexTile(int x, int y) {
+        char ch = grid.get(x, y);
+        if (ch == START) {
+            startPositions.add(new Point(x, y)); // Several S tiles are allowed (multi-source)
+        } else if (ch == END) {
+            endPositions.add(new Point(x, y));   // Several E tiles are allowed (multi-target)
+        } else if (ch == TELEPORT) {
+            teleportPositions.add(new Point(x, y));
+        } else if (ch == PENALTY) {
+            penaltyPositions.add(new Point(x, y));
         }
     }
 
-    // Returns the full maze array
+    /**
+     * Changes a single cell and notifies the change listeners.
+     * Plain wall/path edits cost O(1); changing a special tile (S, E, T, P)
+     * re-indexes the special tiles. The last S or E cannot be removed.
+     */
+    public void setCell(int x, int y, char tile) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            throw new IndexOutOfBoundsException("Cell (" + x + ", " + y + ") is outside the " + rows + "x" + cols + " maze");
+        }
+        char oldTile = grid.get(x, y);
+        if (oldTile == tile) return;
+        if ((oldTile == START && startPositions.size() == 1) || (oldTile == END && endPositions.size() == 1)) {
+            throw new IllegalArgumentException("Cannot remove the only '" + oldTile + "' tile at (" + x + ", " + y + ")");
+        }
+
+        grid.set(x, y, tile);
+        if (isSpecialTile(oldTile) || isSpecialTile(tile)) {
+            indexSpecialTiles();
+        }
+
+        version++;
+        for (MazeChangeListener listener : listeners) {
+            listener.cellChanged(x, y, oldTile, tile);
+        }
+    }
+
+    private static boolean isSpecialTile(char tile) {
+        return tile == START || tile == END || tile == TELEPORT || tile == PENALTY;
+    }
+
+    // Returns the tile at (x, y)
+    public char getCell(int x, int y) {
+        return grid.get(x, y);
+    }
+
+    // Returns the tile at cell index y * cols + x (long, so it also covers very large off-heap grids)
+    public char getCell(long cell) {
+        return grid.get(cell);
+    }
+
+    // Copies the tiles of row y into into[0, cols)
+    public void copyRow(int y, char[] into) {
+        grid.copyRow(y, into);
+    }
+
+    // Returns an immutable copy of the current layout that any number of solver threads can share
+    public MazeSnapshot snapshot() {
+        return new MazeSnapshot(this);
+    }
+
+    // Returns the storage behind this maze
+    public MazeGrid getGrid() {
+        return grid;
+    }
+
+    // True if the grid is not a heap array (off-heap or tiled), in which case getMaze() is not available
+    public boolean isOffHeap() {
+        return grid != null && maze == null;
+    }
+
+    // Frees an off-heap grid or closes a tiled one; the maze must not be used afterwards
+    @Override
+    public void close() {
+        if (grid != null) {
+            grid.close();
+        }
+    }
+
+    // Registers a listener for setCell and loadMaze changes
+    public void addChangeListener(MazeChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(MazeChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Returns the full maze array; only heap mazes have one, others need getCell
     public char[][] getMaze() {
+        if (isOffHeap()) {
+            throw new UnsupportedOperationException("Only heap mazes have a char[][] view; use getCell");
+        }
         return maze;
     }
 
@@ -97,30 +276,71 @@ public class Maze {
         return cols;
     }
 
-    // Returns the starting position
+    // Returns the starting position (the first S in reading order)
     public Point getStartPos() {
         return startPos;
     }
 
-    // Returns the ending position
+    // Returns the ending position (the first E in reading order)
     public Point getEndPos() {
         return endPos;
     }
 
+    // Returns every start position (the first one is getStartPos())
+    public List<Point> getStartPositions() {
+        return startPositions;
+    }
+
+    // Returns every end position (the first one is getEndPos())
+    public List<Point> getEndPositions() {
+        return endPositions;
+    }
+
     // Returns list of teleport tile positions
     public List<Point> getTeleportPositions() {
         return teleportPositions;
     }
 
+    // Returns the cell index of the teleport paired with the given cell, or -1 if the cell is not a
+    // paired teleport. Teleports are paired in reading order: 1st with 2nd, 3rd with 4th, and so on.
+    public int getTeleportPartner(int cell) {
+        if (grid.get(cell) != TELEPORT) return -1;
+        int partner = Arrays.binarySearch(teleportCells, cell) ^ 1;
+        return partner < teleportCells.length ? (int) teleportCells[partner] : -1;
+    }
+
+    // Returns which teleport pair the cell belongs to (0 for the 1st and 2nd teleport, 1 for the 3rd
+    // and 4th, ...), or -1 if the cell is not a paired teleport
+    public int getTeleportPair(int cell) {
+        return getTeleportPartner(cell) < 0 ? -1 : Arrays.binarySearch(teleportCells, cell) >> 1;
+    }
+
+    // Returns the teleport reached from (x, y), or null if (x, y) is not a paired teleport
+    public Point getTeleportDestination(int x, int y) {
+        if (grid.get(x, y) != TELEPORT) return null;
+        int partner = Arrays.binarySearch(teleportCells, (long) y * cols + x) ^ 1;
+        return partner < teleportCells.length ? teleportPositions.get(partner) : null;
+    }
+
     // Returns list of penalty tile positions
     public List<Point> getPenaltyPositions() {
         return penaltyPositions;
     }
 
+    // Returns a counter that changes whenever the layout changes (used to invalidate cached indexes)
+    public int getVersion() {
+        return version;
+    }
+
+    // Checks if (x, y) is within bounds and not a wall
+    public boolean isOpen(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows && grid.get(x, y) != WALL;
+    }
+
     // Checks if a move to (x, y) is within bounds, not a wall, and not already visited
     public boolean isValidMove(int x, int y, boolean[][] visited) {
         return x >= 0 && x < cols && y >= 0 && y < rows
-                && maze[y][x] != WALL && !visited[y][x];
+                && grid.get(x, y) != WALL && !visited[y][x];
     }
 
     // Returns all valid neighbors (up, right, down, left) from current position
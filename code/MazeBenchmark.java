@@ -0,0 +1,436 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * MazeBenchmark times solvers on generated mazes from the command line,
+ * without the GUI. Each solver is warmed up first so the JIT has compiled it,
+ * then timed with System.nanoTime over several runs.
+ *
+ * Usage: java MazeBenchmark [size] [teleportPairs] [runs] [edits]
+ *        java MazeBenchmark report [--size n] [--runs n] [--warmups n] [--algorithms a,b,...]
+ *                                  [--maze file]... [--out file.json|file.csv]
+ *                                  [--baseline file] [--threshold 0.10]
+ *
+ * Report mode times every algorithm (or the listed ones) on a generated maze and
+ * on any --maze files, prints latency percentiles, throughput and allocations,
+ * optionally saves them, and exits with status 1 if any of them regressed by
+ * more than the threshold against the baseline file.
+ */
+public class MazeBenchmark {
+    // Times 'runs' solves after 'warmups' untimed ones; returns the average in microseconds, or -1 if unsolved
+    static double averageMicros(Function<Maze, MazeSolver> factory, Maze maze, int warmups, int runs) {
+        for (int i = 0; i < warmups; i++) {
+            factory.apply(maze).solve(false);
+        }
+        long total = 0;
+        for (int i = 0; i < runs; i++) {
+            MazeSolver solver = factory.apply(maze);
+            long start = System.nanoTime();
+            long result = solver.solve(false);
+            total += System.nanoTime() - start;
+            if (result == -1) return -1;
+        }
+        return total / 1000.0 / runs;
+    }
+
+    // Compares 0-1 BFS (free teleports) with DijkstraSolver on increasingly teleport-dense mazes
+    static void compareTeleportSolvers(int size, int maxTeleportPairs, int runs) {
+        System.out.printf("%-10s %-8s %14s %14s %10s %10s%n",
+                "size", "pairs", "Dijkstra(us)", "0-1 BFS(us)", "DijkCost", "01Cost");
+        for (int pairs = 0; pairs <= maxTeleportPairs; pairs = pairs == 0 ? 1 : pairs * 4) {
+            Maze maze = new MazeGenerator(42 + pairs).generate(size, size, 0.05, pairs, 0);
+            double dijkstra = averageMicros(DijkstraSolver::new, maze, 2, runs);
+            double zeroOne = averageMicros(ZeroOneBFSSolver::new, maze, 2, runs);
+
+            MazeSolver dijkstraSolver = new DijkstraSolver(maze);
+            MazeSolver zeroOneSolver = new ZeroOneBFSSolver(maze);
+            dijkstraSolver.solve(false);
+            zeroOneSolver.solve(false);
+            // DijkstraSolver always jumps when it reaches a teleport, so it can miss paths in teleport-dense mazes
+            System.out.printf("%-10s %-8d %14s %14s %10d %10d%n", size + "x" + size, pairs,
+                    format(dijkstra), format(zeroOne),
+                    dijkstraSolver.getPathCost(ZeroOneBFSSolver.ZERO_COST_TELEPORTS), zeroOneSolver.getPathCost());
+        }
+    }
+
+    // Compares replanning with LPA* after single-cell edits against solving from scratch with Dial
+    static void compareReplanning(int size, int edits) {
+        Maze maze = new MazeGenerator(7).generate(size, size, 0.1, 0, size / 4);
+        LPAStarSolver incremental = new LPAStarSolver(maze);
+        incremental.solve(false);
+        long firstExpansions = incremental.getExpansions();
+        for (int i = 0; i < 3; i++) {
+            new DialSolver(maze).solve(false); // Warm-up
+        }
+
+        Random random = new Random(7);
+        long incrementalNanos = 0, freshNanos = 0, expansions = 0;
+        int mismatches = 0, performed = 0;
+        for (int i = 0; i < edits; i++) {
+            int x = 1 + random.nextInt(maze.getCols() - 2);
+            int y = 1 + random.nextInt(maze.getRows() - 2);
+            char tile = maze.getCell(x, y);
+            if (tile == Maze.START || tile == Maze.END) continue;
+            maze.setCell(x, y, tile == Maze.WALL ? Maze.PATH : Maze.WALL);
+            performed++;
+
+            long start = System.nanoTime();
+            incremental.solve(false);
+            incrementalNanos += System.nanoTime() - start;
+            expansions += incremental.getExpansions();
+
+            MazeSolver fresh = new DialSolver(maze);
+            start = System.nanoTime();
+            fresh.solve(false);
+            freshNanos += System.nanoTime() - start;
+            if (fresh.getPathCost() != incremental.getPathCost()) mismatches++;
+        }
+        incremental.detach();
+
+        System.out.printf("%dx%d, %d edits: LPA* %.1f us/replan (%.0f expansions, %d on the first solve), "
+                        + "Dial from scratch %.1f us/solve, %d cost mismatches%n",
+                size, size, performed, incrementalNanos / 1000.0 / performed, (double) expansions / performed,
+                firstExpansions, freshNanos / 1000.0 / performed, mismatches);
+    }
+
+    // Times the parallel BFS with 1, 2, 4, ... workers and reports the speed-up over one worker. Every pool size
+    // also solves the benchmark maze and a few smaller ones, and must find paths as long as BFSSolver's
+    static void compareParallelBFS(int size, int runs) throws IOException {
+        Maze maze = new MazeGenerator(11).generate(size, size, 0.5, 0, 0); // Many loops give wide frontiers
+        double sequential = averageMicros(MultiSourceBFSSolver::new, maze, 2, runs);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%dx%d open maze, sequential BFS %s us, %d cores%n", size, size, format(sequential), cores);
+
+        List<Maze> checked = new ArrayList<>();
+        checked.add(maze);
+        for (int seed = 1; seed <= 6; seed++) {
+            checked.add(new MazeGenerator(seed).generate(201, 201, (seed % 3) * 0.25, 0, 0));
+        }
+        // An unreachable open region before the start in cell order, which the bottom-up levels must skip
+        checked.add(twoRegionMaze(101));
+        checked.add(twoRegionMaze(201));
+        int[] expectedLength = new int[checked.size()];
+        for (int i = 0; i < checked.size(); i++) {
+            MazeSolver reference = new BFSSolver(checked.get(i));
+            reference.solve(false);
+            expectedLength[i] = reference.getPathLength();
+        }
+
+        System.out.printf("%-8s %14s %10s %12s%n", "workers", "time(us)", "speed-up", "mismatches");
+        int maxWorkers = Math.max(cores, 4); // Past the core count too, so the table has more than one row on small machines
+        double single = -1;
+        for (int workers = 1; ; workers = Math.min(workers * 2, maxWorkers)) {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            double micros = averageMicros(m -> new ParallelBFSSolver(m, pool), maze, 2, runs);
+            int mismatches = 0;
+            for (int i = 0; i < checked.size(); i++) {
+                MazeSolver parallel = new ParallelBFSSolver(checked.get(i), pool);
+                parallel.solve(false);
+                if (parallel.getPathLength() != expectedLength[i]) mismatches++;
+            }
+            pool.shutdown();
+            if (workers == 1) single = micros;
+            System.out.printf("%-8d %14s %9.2fx %7d of %d%s%n", workers, format(micros), single / micros,
+                    mismatches, checked.size(), workers > cores ? "  (more workers than cores)" : "");
+            if (workers == maxWorkers) break;
+        }
+    }
+
+    // An open block on top, walled off from an open block below that holds S (top left) and E (bottom right)
+    private static Maze twoRegionMaze(int size) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean wall = x == 0 || y == 0 || x == size - 1 || y == size - 1 || y == size / 2;
+                char tile = wall ? Maze.WALL : ' ';
+                if (x == 1 && y == size / 2 + 1) tile = 'S';
+                if (x == size - 2 && y == size - 2) tile = 'E';
+                text.append(tile);
+            }
+            text.append('\n');
+        }
+        Maze maze = new Maze();
+        maze.loadMaze(new StringReader(text.toString()));
+        return maze;
+    }
+
+    // Counts the cells A* expands with Manhattan distance and with landmarks (ALT), on the bundled and generated mazes
+    static void compareLandmarks(int size) throws IOException {
+        Map<String, Maze> mazes = new LinkedHashMap<>();
+        Path bundled = Path.of("Maze");
+        if (Files.isDirectory(bundled)) {
+            try (var files = Files.list(bundled)) {
+                for (Path file : files.sorted().toList()) {
+                    Maze maze = new Maze();
+                    maze.loadMaze(file.toFile());
+                    mazes.put(file.getFileName().toString(), maze);
+                }
+            }
+        }
+        mazes.put(size + "x" + size + " perfect", new MazeGenerator(5).generate(size, size, 0, 0, 0));
+        mazes.put(size + "x" + size + " 10% loops", new MazeGenerator(5).generate(size, size, 0.1, 0, 0));
+        mazes.put(size + "x" + size + " 50% loops", new MazeGenerator(5).generate(size, size, 0.5, 0, 0));
+
+        System.out.printf("%-22s %12s %12s %8s %8s %8s%n", "maze", "A* expanded", "ALT expanded", "drop", "A*Len", "ALTLen");
+        for (Map.Entry<String, Maze> entry : mazes.entrySet()) {
+            MazeSolver manhattan = new AStarSolver(entry.getValue());
+            MazeSolver landmarks = new ALTSolver(entry.getValue());
+            manhattan.solve(false);
+            landmarks.solve(false);
+            double drop = 100.0 * (manhattan.getExpansions() - landmarks.getExpansions()) / Math.max(1, manhattan.getExpansions());
+            System.out.printf("%-22s %12d %12d %7.1f%% %8d %8d%n", entry.getKey(), manhattan.getExpansions(),
+                    landmarks.getExpansions(), drop, manhattan.getPathLength(), landmarks.getPathLength());
+        }
+    }
+
+    // Iterations of the degree table comparison: untimed ones first, and the length of each
+    private static final int DEGREE_WARMUPS = 5;
+    private static final long DEGREE_ITERATION_NANOS = 200_000_000L;
+    private static int degreeSink; // Every table built is read into this, so the JIT cannot drop the builds
+
+    /**
+     * Times the cell-by-cell, 64-cells-per-word and Vector API neighbor degree
+     * tables the way a JMH average-time benchmark does: warm-up iterations, then
+     * 'iterations' timed iterations of a fixed length per variant, reported as
+     * the mean time per table with its 99.9% confidence interval. (JMH itself
+     * cannot drive this tree: its benchmarks have to live in a named package,
+     * and the maze classes are in the default one.)
+     */
+    static void compareNeighborDegrees(int size, int iterations) {
+        Maze maze = new MazeGenerator(17).generate(size, size, 0.05, 0, size / 4);
+        NeighborDegrees reference = NeighborDegrees.scalar(maze);
+        Map<String, Function<Maze, NeighborDegrees>> variants = new LinkedHashMap<>();
+        variants.put("cell by cell", NeighborDegrees::scalar);
+        variants.put("64 cells/word", NeighborDegrees::words);
+        if (NeighborDegrees.isVectorized()) {
+            variants.put("Vector API", NeighborDegrees::vector);
+        }
+
+        int n = Math.max(2, iterations);
+        System.out.printf("%dx%d degrees, %d warm-up and %d timed iterations of %d ms each:%n",
+                size, size, DEGREE_WARMUPS, n, DEGREE_ITERATION_NANOS / 1_000_000);
+        System.out.printf("%-14s %12s %14s %10s %7s%n", "variant", "us/table", "error (99.9%)", "speed-up", "equal");
+        double baseline = 0;
+        for (Map.Entry<String, Function<Maze, NeighborDegrees>> variant : variants.entrySet()) {
+            boolean equal = reference.sameDegrees(variant.getValue().apply(maze));
+            for (int i = 0; i < DEGREE_WARMUPS; i++) {
+                iterationMicros(variant.getValue(), maze);
+            }
+            double[] samples = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                samples[i] = iterationMicros(variant.getValue(), maze);
+                sum += samples[i];
+            }
+            double mean = sum / n;
+            double squares = 0;
+            for (double sample : samples) {
+                squares += (sample - mean) * (sample - mean);
+            }
+            double error = 3.291 * Math.sqrt(squares / (n - 1) / n); // Normal approximation of the 99.9% interval
+            if (baseline == 0) baseline = mean;
+            System.out.printf("%-14s %12s %14s %9.2fx %7b%n", variant.getKey(), format(mean),
+                    "+/- " + format(error), baseline / mean, equal);
+        }
+        if (!NeighborDegrees.isVectorized()) {
+            System.out.println("Vector API: not measured; run with --add-modules jdk.incubator.vector");
+        }
+    }
+
+    // Builds tables back to back for one iteration; returns the average microseconds per table
+    private static double iterationMicros(Function<Maze, NeighborDegrees> build, Maze maze) {
+        int cells = maze.getRows() * maze.getCols();
+        long start = System.nanoTime();
+        long now;
+        int tables = 0;
+        do {
+            degreeSink += build.apply(maze).getDegree(tables % cells);
+            tables++;
+            now = System.nanoTime();
+        } while (now - start < DEGREE_ITERATION_NANOS);
+        return (now - start) / 1000.0 / tables;
+    }
+
+    // Fires many short solves at once: a platform thread per solve against the virtual-thread executor
+    static void compareSolveExecutor(int size, int solves) throws InterruptedException, ExecutionException {
+        MazeSnapshot maze = new MazeGenerator(19).generate(size, size, 0.1, 0, 0).snapshot();
+        for (int round = 0; round < 2; round++) { // The first round is a warm-up
+            long start = System.nanoTime();
+            List<Thread> started = new ArrayList<>(solves);
+            for (int i = 0; i < solves; i++) {
+                Thread thread = new Thread(() -> new DialSolver(maze).solve(false));
+                thread.start();
+                started.add(thread);
+            }
+            for (Thread thread : started) thread.join();
+            double perThread = (System.nanoTime() - start) / 1e6;
+
+            try (SolveExecutor executor = new SolveExecutor()) {
+                start = System.nanoTime();
+                List<Future<SolveExecutor.Result<DialSolver>>> results = new ArrayList<>(solves);
+                for (int i = 0; i < solves; i++) {
+                    results.add(executor.submit(new DialSolver(maze), false));
+                }
+                for (Future<SolveExecutor.Result<DialSolver>> result : results) result.get();
+                double pooled = (System.nanoTime() - start) / 1e6;
+                if (round == 1) {
+                    System.out.printf("%d solves of %dx%d: thread per solve %.1f ms, executor %.1f ms (%.0f solves/s); %s%n",
+                            solves, size, size, perThread, pooled, solves / pooled * 1000, executor.describeStats());
+                }
+            }
+        }
+    }
+
+    // Solves one generated maze from tile files of several tile sizes with the same cache budget in bytes
+    static void compareTileSizes(int size, long cacheBytes) throws IOException {
+        Path text = Files.createTempFile("maze", ".txt");
+        Path tiles = Files.createTempFile("maze", ".tiles");
+        try {
+            Files.writeString(text, new MazeGenerator(13).generateText(size, size, 0.1, 0, 0));
+            for (int tileSize = 16; tileSize <= 256; tileSize *= 2) {
+                TiledMazeGrid.create(text, tiles, tileSize);
+                int cachedTiles = (int) Math.max(2, cacheBytes / ((long) tileSize * tileSize));
+                try (Maze maze = new Maze()) {
+                    maze.loadMazeTiled(tiles, cachedTiles);
+                    TiledMazeGrid grid = (TiledMazeGrid) maze.getGrid();
+                    grid.resetStats(); // Count the solve only, not the index lookups of the load
+                    long start = System.nanoTime();
+                    long result = new DialSolver(maze).solve(false);
+                    double millis = (System.nanoTime() - start) / 1e6;
+                    System.out.printf("%dx%d, %d cached tiles: %s ms, %s%n", size, size, cachedTiles,
+                            result < 0 ? "no path" : String.format("%.1f", millis), grid.describeStats());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(tiles);
+        }
+    }
+
+    // Bytes allocated per solve by a solver reused with a prepared workspace, against a new solver for every query
+    static void compareWorkspaceAllocations(int size, int runs) {
+        Maze maze = new MazeGenerator(17).generate(size, size, 0.1, 16, size / 4);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        System.out.printf("%dx%d maze%n%-20s %18s %18s%n", size, size, "solver", "new (bytes/solve)", "reused (bytes/solve)");
+
+        for (Function<Maze, MazeSolver> factory : List.<Function<Maze, MazeSolver>>of(
+                BFSSolver::new, DFSSolver::new, AStarSolver::new, DijkstraSolver::new,
+                MultiSourceBFSSolver::new, MultiTargetAStarSolver::new, ZeroOneBFSSolver::new, DialSolver::new)) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < runs; i++) {
+                factory.apply(maze).solve(false);
+            }
+            long fresh = (threads.getThreadAllocatedBytes(thread) - before) / runs;
+
+            MazeSolver solver = factory.apply(maze);
+            solver.prepare();
+            solver.solve(false); // Grows the deque and buckets to their steady-state size
+            before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < runs; i++) {
+                solver.solve(false);
+            }
+            long reused = (threads.getThreadAllocatedBytes(thread) - before) / runs;
+            System.out.printf("%-20s %18d %18d%n", solver.getAlgorithmName(), fresh, reused);
+        }
+    }
+
+    private static String format(double micros) {
+        return micros < 0 ? "no path" : String.format("%.1f", micros);
+    }
+
+    // Runs report mode; returns the number of regressions against the baseline (0 without one)
+    static int runReport(String[] args) throws IOException {
+        int size = 101, runs = 20, warmups = 3;
+        double threshold = 0.10;
+        List<String> algorithms = SolverFactory.getNames();
+        List<Path> mazeFiles = new ArrayList<>();
+        Path out = null, baseline = null;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) throw new IllegalArgumentException("Missing value for " + args[i]);
+            switch (args[i++]) {
+                case "--size": size = Integer.parseInt(value); break;
+                case "--runs": runs = Integer.parseInt(value); break;
+                case "--warmups": warmups = Integer.parseInt(value); break;
+                case "--algorithms": algorithms = Arrays.asList(value.split(",")); break;
+                case "--maze": mazeFiles.add(Path.of(value)); break;
+                case "--out": out = Path.of(value); break;
+                case "--baseline": baseline = Path.of(value); break;
+                case "--threshold": threshold = Double.parseDouble(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+            }
+        }
+
+        Map<String, Maze> mazes = new LinkedHashMap<>();
+        mazes.put("generated" + size, new MazeGenerator(19).generate(size, size, 0.1, 8, size / 4));
+        for (Path file : mazeFiles) {
+            Maze maze = new Maze();
+            try (Reader reader = Files.newBufferedReader(file)) {
+                maze.loadMaze(reader);
+            }
+            mazes.put(file.getFileName().toString(), maze);
+        }
+
+        BenchmarkReport report = new BenchmarkReport();
+        for (Map.Entry<String, Maze> maze : mazes.entrySet()) {
+            for (String algorithm : algorithms) {
+                if (SolverFactory.create(algorithm, maze.getValue()) == null) {
+                    throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+                }
+                report.measure(maze.getKey(), maze.getValue(), algorithm, warmups, runs);
+            }
+        }
+        report.print(System.out);
+        if (out != null) {
+            report.write(out);
+            System.out.println("Saved to " + out);
+        }
+        if (baseline == null) return 0;
+
+        List<String> regressions = report.compare(BenchmarkReport.read(baseline), threshold);
+        System.out.printf("%d regressions beyond %.0f%% against %s%n", regressions.size(), threshold * 100, baseline);
+        for (String regression : regressions) {
+            System.out.println("  " + regression);
+        }
+        return regressions.size();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("report")) {
+            int regressions = runReport(Arrays.copyOfRange(args, 1, args.length));
+            if (regressions > 0) System.exit(1);
+            return;
+        }
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 201;
+        int teleportPairs = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int edits = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        compareTeleportSolvers(size, teleportPairs, runs);
+        compareReplanning(size, edits);
+        compareParallelBFS(Math.max(size, 1001), runs);
+        compareTileSizes(Math.max(size, 1001), 1L << 20);
+        compareWorkspaceAllocations(size, runs);
+        compareLandmarks(size);
+        compareNeighborDegrees(Math.max(size, 1001), runs);
+        try {
+            compareSolveExecutor(Math.min(size, 101), 5000);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Executor benchmark failed", e);
+        }
+    }
+}
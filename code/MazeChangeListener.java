@@ -0,0 +1,11 @@
+/**
+ * MazeChangeListener is notified when a maze changes, so precomputed indexes and
+ * incremental solvers can repair only what was affected instead of starting over.
+ */
+public interface MazeChangeListener {
+    // Called after a single cell was changed through Maze.setCell
+    void cellChanged(int x, int y, char oldTile, char newTile);
+
+    // Called after the whole layout was replaced through Maze.loadMaze
+    void mazeReloaded();
+}
@@ -0,0 +1,136 @@
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * MazeGenerator builds random mazes for benchmarks and stress tests.
+ * It carves a perfect maze with an iterative recursive backtracker, optionally
+ * knocks out extra walls to create loops, and scatters teleport pairs and
+ * penalty tiles over the open cells. S is placed top-left and E bottom-right.
+ */
+public class MazeGenerator {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private final Random random;
+
+    public MazeGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates a maze as text in the usual file format.
+     *
+     * @param rows          Number of rows (rounded up to an odd number, at least 5)
+     * @param cols          Number of columns (rounded up to an odd number, at least 5)
+     * @param loopFraction  Fraction of the remaining inner walls to remove (0 = perfect maze)
+     * @param teleportPairs Number of teleport pairs to place
+     * @param penalties     Number of penalty tiles to place
+     */
+    public String generateText(int rows, int cols, double loopFraction, int teleportPairs, int penalties) {
+        rows = Math.max(5, rows | 1);
+        cols = Math.max(5, cols | 1);
+        char[][] grid = new char[rows][cols];
+        for (char[] row : grid) {
+            Arrays.fill(row, Maze.WALL);
+        }
+
+        // Carve passages between the odd cells with an explicit stack (no recursion depth limit)
+        int[] stack = new int[(rows / 2) * (cols / 2) + 1];
+        int top = 0;
+        stack[top++] = cols + 1;
+        grid[1][1] = Maze.PATH;
+        int[] order = {0, 1, 2, 3};
+        while (top > 0) {
+            int cell = stack[top - 1];
+            int x = cell % cols;
+            int y = cell / cols;
+            shuffle(order);
+
+            boolean carved = false;
+            for (int d : order) {
+                int nx = x + 2 * DX[d];
+                int ny = y + 2 * DY[d];
+                if (nx > 0 && nx < cols - 1 && ny > 0 && ny < rows - 1 && grid[ny][nx] == Maze.WALL) {
+                    grid[y + DY[d]][x + DX[d]] = Maze.PATH;
+                    grid[ny][nx] = Maze.PATH;
+                    stack[top++] = ny * cols + nx;
+                    carved = true;
+                    break;
+                }
+            }
+            if (!carved) top--;
+        }
+
+        // Remove some inner walls that separate two passages to create loops
+        if (loopFraction > 0) {
+            for (int y = 1; y < rows - 1; y++) {
+                for (int x = 1; x < cols - 1; x++) {
+                    boolean betweenRows = grid[y - 1][x] == Maze.PATH && grid[y + 1][x] == Maze.PATH;
+                    boolean betweenCols = grid[y][x - 1] == Maze.PATH && grid[y][x + 1] == Maze.PATH;
+                    if (grid[y][x] == Maze.WALL && (betweenRows || betweenCols) && random.nextDouble() < loopFraction) {
+                        grid[y][x] = Maze.PATH;
+                    }
+                }
+            }
+        }
+
+        grid[1][1] = Maze.START;
+        grid[rows - 2][cols - 2] = Maze.END;
+        placeRandomly(grid, Maze.TELEPORT, 2 * teleportPairs);
+        placeRandomly(grid, Maze.PENALTY, penalties);
+
+        StringBuilder text = new StringBuilder(rows * (cols + 1));
+        for (char[] row : grid) {
+            text.append(row).append('\n');
+        }
+        return text.toString();
+    }
+
+    // Generates a maze and loads it into a new Maze object
+    public Maze generate(int rows, int cols, double loopFraction, int teleportPairs, int penalties) {
+        Maze maze = new Maze();
+        try {
+            maze.loadMaze(new StringReader(generateText(rows, cols, loopFraction, teleportPairs, penalties)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Generated maze could not be loaded", e); // Never happens for our own output
+        }
+        return maze;
+    }
+
+    // Turns up to 'count' random plain path cells into the given tile
+    private void placeRandomly(char[][] grid, char tile, int count) {
+        int rows = grid.length;
+        int cols = grid[0].length;
+        for (int placed = 0, attempts = 0; placed < count && attempts < 100 * count; attempts++) {
+            int x = random.nextInt(cols);
+            int y = random.nextInt(rows);
+            if (grid[y][x] == Maze.PATH) {
+                grid[y][x] = tile;
+                placed++;
+            }
+        }
+    }
+
+    private void shuffle(int[] values) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    // Prints a generated maze: java MazeGenerator rows cols [loopFraction] [teleportPairs] [penalties] [seed]
+    public static void main(String[] args) {
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        double loops = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+        int teleports = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        int penalties = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+        System.out.print(new MazeGenerator(seed).generateText(rows, cols, loops, teleports, penalties));
+    }
+}
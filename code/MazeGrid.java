@@ -0,0 +1,41 @@
+/**
+ * MazeGrid is the storage behind a {@link Maze}: a rectangle of tiles addressed
+ * by (x, y) or by a long cell index y * cols + x. Maze reads and writes its tiles
+ * only through this interface, so the grid can live on the Java heap
+ * ({@link HeapMazeGrid}) or in native memory ({@link OffHeapMazeGrid}).
+ */
+public interface MazeGrid extends AutoCloseable {
+    int getRows();
+
+    int getCols();
+
+    // Number of cells; a long, since off-heap grids may hold more than Integer.MAX_VALUE
+    default long getCellCount() {
+        return (long) getRows() * getCols();
+    }
+
+    // Returns the tile at (x, y); coordinates are not bounds-checked beyond what the storage does
+    char get(int x, int y);
+
+    // Returns the tile at cell index y * cols + x
+    char get(long cell);
+
+    void set(int x, int y, char tile);
+
+    // Copies the tiles of row y into into[0, cols), for code that works on whole rows
+    default void copyRow(int y, char[] into) {
+        int cols = getCols();
+        for (int x = 0; x < cols; x++) {
+            into[x] = get(x, y);
+        }
+    }
+
+    // S, E, T and P cells in reading order if the grid keeps such a list, or null if callers must scan
+    default long[] findSpecialCells() {
+        return null;
+    }
+
+    // Releases the storage; any later access fails. Calling it again has no effect
+    @Override
+    void close();
+}
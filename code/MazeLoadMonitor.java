@@ -0,0 +1,9 @@
+/**
+ * MazeLoadMonitor follows a Maze.loadMaze call row by row, on the thread that
+ * does the loading, and can stop it. A stopped load throws an
+ * InterruptedIOException and leaves the maze as it was.
+ */
+public interface MazeLoadMonitor {
+    // Called after every parsed row; return false to abandon the load
+    boolean rowParsed(int rowsParsed);
+}
@@ -0,0 +1,187 @@
+import javax.swing.SwingWorker;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * MazeLoadWorker loads a maze file off the Swing event thread, in two phases.
+ *
+ * First it reads a sample of evenly spaced rows straight from the file (every
+ * row of a maze file has the same length, so row r starts at a known offset)
+ * and publishes a coarse preview of at most PREVIEW_SIZE cells a side. Then it
+ * parses the whole file into a new Maze, publishing the bytes and rows read as
+ * it goes. The finished Maze is the worker's result; the maze on screen is never
+ * touched from the worker thread.
+ *
+ * cancel() stops the parse at the next row; get() then throws a
+ * CancellationException and the previous maze stays loaded.
+ */
+public class MazeLoadWorker extends SwingWorker<Maze, MazeLoadWorker.Update> {
+    // Largest preview side in cells; each preview cell stands for a square block of the maze
+    public static final int PREVIEW_SIZE = 256;
+
+    // Publish progress at most this often, so the event thread is not flooded on fast disks
+    private static final long PROGRESS_INTERVAL_NANOS = 50_000_000L;
+
+    // Something new to show: progress of the full parse, or the coarse preview
+    public static class Update {
+        final long bytesRead;     // Bytes of the file parsed so far
+        final long totalBytes;    // Size of the file
+        final int rowsParsed;     // Full-resolution rows parsed so far
+        final char[][] preview;   // Coarse preview tiles, or null for a pure progress update
+        final int estimatedRows;  // Row count guessed from the file size (with the preview)
+        final int cols;           // Columns of the maze (with the preview)
+
+        Update(long bytesRead, long totalBytes, int rowsParsed, char[][] preview, int estimatedRows, int cols) {
+            this.bytesRead = bytesRead;
+            this.totalBytes = totalBytes;
+            this.rowsParsed = rowsParsed;
+            this.preview = preview;
+            this.estimatedRows = estimatedRows;
+            this.cols = cols;
+        }
+    }
+
+    private final File file;
+
+    public MazeLoadWorker(File file) {
+        this.file = file;
+    }
+
+    @Override
+    protected Maze doInBackground() throws IOException {
+        long totalBytes = Files.size(file.toPath());
+
+        // Phase 1: coarse preview from a sample of the rows
+        Update preview = readPreview(file, totalBytes);
+        if (preview != null) publish(preview);
+
+        // Phase 2: full parse with progress
+        Maze loaded = new Maze();
+        try (CountingInputStream counted = new CountingInputStream(Files.newInputStream(file.toPath()));
+             Reader reader = new InputStreamReader(counted, StandardCharsets.ISO_8859_1)) {
+            long[] lastPublish = {System.nanoTime()};
+            loaded.loadMaze(reader, rows -> {
+                if (isCancelled()) return false;
+                long now = System.nanoTime();
+                if (now - lastPublish[0] >= PROGRESS_INTERVAL_NANOS) {
+                    lastPublish[0] = now;
+                    publish(new Update(counted.getCount(), totalBytes, rows, null, 0, 0));
+                    setProgress((int) Math.min(100, counted.getCount() * 100 / Math.max(1, totalBytes)));
+                }
+                return true;
+            });
+        }
+        setProgress(100);
+        return loaded;
+    }
+
+    /**
+     * Builds the coarse preview from every k-th row, read by seeking to its offset.
+     * A block becomes S, E, T or P if its sampled row holds one, otherwise a wall
+     * if most of it is wall. Returns null if the file does not look like a maze;
+     * the full parse reports the actual problem.
+     */
+    static Update readPreview(File file, long totalBytes) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            // The first line gives the row length and the line terminator
+            byte[] buffer = new byte[64 * 1024];
+            long lineEnd = -1;
+            for (long offset = 0; lineEnd < 0 && offset < totalBytes; offset += buffer.length) {
+                in.seek(offset);
+                int read = in.read(buffer);
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        lineEnd = offset + i;
+                        break;
+                    }
+                }
+            }
+            if (lineEnd <= 0) return null; // A single row (or none): nothing worth previewing
+            in.seek(lineEnd - 1);
+            boolean crlf = in.read() == '\r';
+            int cols = (int) (crlf ? lineEnd - 1 : lineEnd);
+            long stride = lineEnd + 1; // Bytes per row, terminator included
+            if (cols == 0) return null;
+
+            int rows = (int) Math.min(Integer.MAX_VALUE, (totalBytes + stride - 1) / stride);
+            int factor = (Math.max(rows, cols) + PREVIEW_SIZE - 1) / PREVIEW_SIZE;
+            int previewRows = (rows + factor - 1) / factor;
+            int previewCols = (cols + factor - 1) / factor;
+            char[][] preview = new char[previewRows][previewCols];
+            byte[] row = new byte[cols];
+
+            for (int py = 0; py < previewRows; py++) {
+                in.seek(py * factor * stride);
+                try {
+                    in.readFully(row);
+                } catch (EOFException e) {
+                    return null; // Rows are not all the same length after all
+                }
+                for (int px = 0; px < previewCols; px++) {
+                    preview[py][px] = summarize(row, px * factor, Math.min(cols, (px + 1) * factor));
+                }
+            }
+            return new Update(0, totalBytes, 0, preview, rows, cols);
+        }
+    }
+
+    // One preview tile for the tiles row[from..to)
+    private static char summarize(byte[] row, int from, int to) {
+        int walls = 0;
+        char special = 0;
+        for (int x = from; x < to; x++) {
+            char tile = (char) (row[x] & 0xFF);
+            if (tile == Maze.WALL) {
+                walls++;
+            } else if (tile == Maze.START || tile == Maze.END) {
+                return tile; // Start and end must stay visible in the preview
+            } else if (tile == Maze.TELEPORT || tile == Maze.PENALTY) {
+                special = tile;
+            }
+        }
+        if (special != 0) return special;
+        return 2 * walls > to - from ? Maze.WALL : Maze.PATH;
+    }
+
+    // Counts the bytes read through it; read only from the loading thread
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) count += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -6,10 +6,15 @@ public class MazePanel extends JPanel {
     // Size of each cell in pixels
     protected int cellSize = 30;
 
+    // Largest side in pixels a maze is scaled down to when cells of 30 pixels would not fit
+    private static final int MAX_SIDE_PIXELS = 4000;
+
     private Maze maze;                // The maze data structure
     private boolean[][] visited;     // Tracks visited cells
     private List<Point> path;        // The path from start to end
     private String algorithm;        // The algorithm used for solving
+    private char[][] preview;        // Coarse tiles shown while a maze loads, or null
+    private int previewRows, previewCols; // Full-resolution size the preview stands for
 
     // Set the data required to draw the maze
     public void setMazeData(Maze maze, boolean[][] visited, List<Point> path, String algorithm) {
@@ -17,6 +22,24 @@ public class MazePanel extends JPanel {
         this.visited = visited;
         this.path = path;
         this.algorithm = algorithm;
+        this.preview = null;
+    }
+
+    /**
+     * Shows a coarse preview of a maze that is still loading. Each preview tile is
+     * drawn over the block of cells it stands for, so the panel already has the
+     * size the full maze will have.
+     */
+    public void setPreview(char[][] preview, int rows, int cols) {
+        this.preview = preview;
+        this.previewRows = rows;
+        this.previewCols = cols;
+        fitCellSize(rows, cols);
+    }
+
+    // Shrinks the cells of large mazes so the panel stays within MAX_SIDE_PIXELS (never below one pixel)
+    public void fitCellSize(int rows, int cols) {
+        cellSize = Math.max(1, Math.min(30, MAX_SIDE_PIXELS / Math.max(1, Math.max(rows, cols))));
     }
 
     // Custom painting of the maze panel
@@ -24,12 +47,24 @@ public class MazePanel extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
+        if (preview != null) {
+            paintPreview(g);
+            return;
+        }
         if (maze == null) return; // Nothing to draw if maze is not set
 
-        for (int y = 0; y < maze.getRows(); y++) {
-            for (int x = 0; x < maze.getCols(); x++) {
+        // Only the cells inside the clip need painting; on a large maze that is a small part of it
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        int firstX = Math.max(0, clip.x / cellSize);
+        int firstY = Math.max(0, clip.y / cellSize);
+        int lastX = Math.min(maze.getCols() - 1, (clip.x + clip.width) / cellSize);
+        int lastY = Math.min(maze.getRows() - 1, (clip.y + clip.height) / cellSize);
+
+        for (int y = firstY; y <= lastY; y++) {
+            for (int x = firstX; x <= lastX; x++) {
                 // Get the current cell character
-                char cell = maze.getMaze()[y][x];
+                char cell = maze.getCell(x, y);
 
                 // Set color based on cell type
                 Color color = getCellColor(cell);
@@ -48,12 +83,14 @@ public class MazePanel extends JPanel {
                     g.fillRect(x * cellSize, y * cellSize, cellSize, cellSize);
                 }
 
-                // Draw cell border
-                g.setColor(Color.LIGHT_GRAY);
-                g.drawRect(x * cellSize, y * cellSize, cellSize, cellSize);
-
-                // Draw text label for special cells (S, E, T, P)
-                drawCellLabel(g, x, y, cell);
+                // Draw cell border and the label of special cells (S, E, T, P) while cells are big enough
+                if (cellSize >= 6) {
+                    g.setColor(Color.LIGHT_GRAY);
+                    g.drawRect(x * cellSize, y * cellSize, cellSize, cellSize);
+                }
+                if (cellSize >= 12) {
+                    drawCellLabel(g, x, y, cell);
+                }
             }
         }
 
@@ -66,6 +103,22 @@ public class MazePanel extends JPanel {
         }
     }
 
+    // Draws every preview tile as a block covering the cells it stands for
+    private void paintPreview(Graphics g) {
+        double blockWidth = (double) previewCols * cellSize / preview[0].length;
+        double blockHeight = (double) previewRows * cellSize / preview.length;
+        for (int py = 0; py < preview.length; py++) {
+            int top = (int) (py * blockHeight);
+            int bottom = (int) ((py + 1) * blockHeight);
+            for (int px = 0; px < preview[py].length; px++) {
+                int left = (int) (px * blockWidth);
+                int right = (int) ((px + 1) * blockWidth);
+                g.setColor(getCellColor(preview[py][px]));
+                g.fillRect(left, top, Math.max(1, right - left), Math.max(1, bottom - top));
+            }
+        }
+    }
+
     // Determines the color to use for each cell type
     private Color getCellColor(char cell) {
         switch (cell) {
@@ -111,6 +164,7 @@ public class MazePanel extends JPanel {
     // Returns the preferred panel size based on maze dimensions
     @Override
     public Dimension getPreferredSize() {
+        if (preview != null) return new Dimension(previewCols * cellSize, previewRows * cellSize);
         if (maze == null) return new Dimension(300, 300);
         return new Dimension(maze.getCols() * cellSize, maze.getRows() * cellSize);
     }
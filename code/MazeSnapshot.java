@@ -0,0 +1,309 @@
+import java.awt.Point;
+import java.io.File;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * MazeSnapshot is an immutable copy of a maze's layout that any number of
+ * threads can solve at the same time. It is a {@link Maze}, so every solver
+ * takes it as is, but it cannot be changed: the load methods and setCell throw
+ * UnsupportedOperationException, getMaze returns a copy, and the position
+ * lists are unmodifiable. Positions and lists are copied once, when the snapshot
+ * is taken, and the same instances are handed to every caller so that solvers
+ * can ask for them on hot paths; like Maze's own, the points must not be
+ * changed. Change listeners are accepted and never called.
+ *
+ * Everything a snapshot holds is in final fields, so it is safely published to
+ * any thread that gets a reference to it, however that reference was passed.
+ * The tiles are copied into one heap array whatever grid the maze used.
+ *
+ * Derived indexes are kept on the snapshot instead of the shared per-maze
+ * caches: the neighbor degrees and the teleport pairing are built with it,
+ * and {@link #getIndex(Class, Function)} builds the others (junction graph,
+ * connectivity, jump index, teleport heuristic, and, per landmark count or
+ * cluster size, landmark tables and cluster abstraction) once on first use.
+ * Their of() methods look there first, so solvers on different threads never
+ * wait on another maze's build.
+ */
+public final class MazeSnapshot extends Maze {
+    private final int rows, cols;
+    private final int version;       // Version of the maze when the copy was taken
+    private final char[] tiles;      // Cell index y * cols + x -> tile
+    private final Point startPos, endPos;
+    private final List<Point> startPositions, endPositions, teleportPositions, penaltyPositions;
+    private final int[] teleportCells; // Teleport cell indices in reading order; pairs are (0, 1), (2, 3), ...
+    private final NeighborDegrees degrees;
+    private final MazeGrid readOnlyGrid;
+    private final Map<Object, Object> indexes = new ConcurrentHashMap<>(); // Index type (and parameter) -> index built from this snapshot
+
+    // Copies the maze's current layout and builds the neighbor degrees and the teleport pairing
+    public MazeSnapshot(Maze source) {
+        this.rows = source.getRows();
+        this.cols = source.getCols();
+        this.version = source.getVersion();
+        if ((long) rows * cols > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A " + rows + "x" + cols + " maze is too large for a snapshot");
+        }
+        this.tiles = new char[rows * cols];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                tiles[y * cols + x] = source.getCell(x, y);
+            }
+        }
+
+        this.startPositions = copyOf(source.getStartPositions());
+        this.endPositions = copyOf(source.getEndPositions());
+        this.teleportPositions = copyOf(source.getTeleportPositions());
+        this.penaltyPositions = copyOf(source.getPenaltyPositions());
+        this.startPos = startPositions.isEmpty() ? null : startPositions.get(0);
+        this.endPos = endPositions.isEmpty() ? null : endPositions.get(0);
+
+        this.teleportCells = new int[teleportPositions.size()];
+        for (int i = 0; i < teleportCells.length; i++) {
+            teleportCells[i] = teleportPositions.get(i).y * cols + teleportPositions.get(i).x;
+        }
+        this.readOnlyGrid = new ReadOnlyGrid(tiles, rows, cols);
+        this.degrees = new NeighborDegrees(this);
+    }
+
+    private static List<Point> copyOf(List<Point> points) {
+        List<Point> copy = new ArrayList<>(points.size());
+        for (Point point : points) {
+            copy.add(new Point(point));
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * Returns the index of the given type for this snapshot, building it with
+     * the builder on the first call. Concurrent first calls build it once; the
+     * others wait for it and get the same instance.
+     */
+    public <T> T getIndex(Class<T> type, Function<? super MazeSnapshot, ? extends T> builder) {
+        return getIndex(type, null, builder);
+    }
+
+    // The same for an index that also depends on a parameter (landmark count, cluster size): one per value
+    public <T> T getIndex(Class<T> type, Object parameter, Function<? super MazeSnapshot, ? extends T> builder) {
+        Object key = parameter == null ? type : List.of(type, parameter);
+        Object index = indexes.get(key);
+        if (index == null) {
+            synchronized (indexes) { // Not computeIfAbsent: a builder may ask for another index
+                index = indexes.get(key);
+                if (index == null) {
+                    index = builder.apply(this);
+                    indexes.put(key, index);
+                }
+            }
+        }
+        return type.cast(index);
+    }
+
+    // Open-neighbor counts, built with the snapshot
+    public NeighborDegrees getNeighborDegrees() {
+        return degrees;
+    }
+
+    // A snapshot is already immutable
+    @Override
+    public MazeSnapshot snapshot() {
+        return this;
+    }
+
+    @Override
+    public void loadMaze(File file) {
+        throw new UnsupportedOperationException("A maze snapshot cannot be reloaded");
+    }
+
+    @Override
+    public void loadMaze(Reader source, MazeLoadMonitor monitor) {
+        throw new UnsupportedOperationException("A maze snapshot cannot be reloaded");
+    }
+
+    @Override
+    public void loadMazeOffHeap(Path file) {
+        throw new UnsupportedOperationException("A maze snapshot cannot be reloaded");
+    }
+
+    @Override
+    public void loadMazeTiled(Path tileFile, int maxCachedTiles) {
+        throw new UnsupportedOperationException("A maze snapshot cannot be reloaded");
+    }
+
+    @Override
+    public void setCell(int x, int y, char tile) {
+        throw new UnsupportedOperationException("A maze snapshot cannot be changed; edit the maze and take a new snapshot");
+    }
+
+    // The layout never changes, so there is nothing to notify
+    @Override
+    public void addChangeListener(MazeChangeListener listener) {
+    }
+
+    @Override
+    public void removeChangeListener(MazeChangeListener listener) {
+    }
+
+    @Override
+    public char getCell(int x, int y) {
+        return tiles[y * cols + x];
+    }
+
+    @Override
+    public char getCell(long cell) {
+        return tiles[(int) cell];
+    }
+
+    @Override
+    public void copyRow(int y, char[] into) {
+        System.arraycopy(tiles, y * cols, into, 0, cols);
+    }
+
+    // A read-only grid over the snapshot's tiles (always the same one)
+    @Override
+    public MazeGrid getGrid() {
+        return readOnlyGrid;
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return false;
+    }
+
+    // Nothing to release: the tiles are on the heap
+    @Override
+    public void close() {
+    }
+
+    // Returns a copy of the tiles; changing it does not change the snapshot
+    @Override
+    public char[][] getMaze() {
+        char[][] copy = new char[rows][];
+        for (int y = 0; y < rows; y++) {
+            copy[y] = Arrays.copyOfRange(tiles, y * cols, (y + 1) * cols);
+        }
+        return copy;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public Point getStartPos() {
+        return startPos;
+    }
+
+    @Override
+    public Point getEndPos() {
+        return endPos;
+    }
+
+    @Override
+    public List<Point> getStartPositions() {
+        return startPositions;
+    }
+
+    @Override
+    public List<Point> getEndPositions() {
+        return endPositions;
+    }
+
+    @Override
+    public List<Point> getTeleportPositions() {
+        return teleportPositions;
+    }
+
+    @Override
+    public List<Point> getPenaltyPositions() {
+        return penaltyPositions;
+    }
+
+    @Override
+    public int getTeleportPartner(int cell) {
+        if (tiles[cell] != TELEPORT) return -1;
+        int partner = Arrays.binarySearch(teleportCells, cell) ^ 1;
+        return partner < teleportCells.length ? teleportCells[partner] : -1;
+    }
+
+    @Override
+    public int getTeleportPair(int cell) {
+        return getTeleportPartner(cell) < 0 ? -1 : Arrays.binarySearch(teleportCells, cell) >> 1;
+    }
+
+    @Override
+    public Point getTeleportDestination(int x, int y) {
+        int cell = y * cols + x;
+        if (getTeleportPartner(cell) < 0) return null;
+        return teleportPositions.get(Arrays.binarySearch(teleportCells, cell) ^ 1);
+    }
+
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean isOpen(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows && tiles[y * cols + x] != WALL;
+    }
+
+    @Override
+    public boolean isValidMove(int x, int y, boolean[][] visited) {
+        return isOpen(x, y) && !visited[y][x];
+    }
+
+    // MazeGrid view whose set() throws
+    private static class ReadOnlyGrid implements MazeGrid {
+        private final char[] tiles;
+        private final int rows, cols;
+
+        ReadOnlyGrid(char[] tiles, int rows, int cols) {
+            this.tiles = tiles;
+            this.rows = rows;
+            this.cols = cols;
+        }
+
+        @Override
+        public int getRows() {
+            return rows;
+        }
+
+        @Override
+        public int getCols() {
+            return cols;
+        }
+
+        @Override
+        public char get(int x, int y) {
+            return tiles[y * cols + x];
+        }
+
+        @Override
+        public char get(long cell) {
+            return tiles[(int) cell];
+        }
+
+        @Override
+        public void set(int x, int y, char tile) {
+            throw new UnsupportedOperationException("A maze snapshot cannot be changed");
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -5,10 +5,11 @@ public abstract class MazeSolver {
     // Holds the maze to be solved
     protected Maze maze;
 
-    // Tracks which cells have been visited
+    // Tracks which cells have been visited; allocated by reset() for list-based solvers,
+    // built on the first getVisited() for workspace-based ones
     protected boolean[][] visited;
 
-    // Stores the path from start to end
+    // Stores the path from start to end; null until a list-based solve sets it
     protected List<Point> path;
 
     // Number of steps taken in the solution
@@ -20,11 +21,36 @@ public abstract class MazeSolver {
     // The name of the algorithm (e.g., A*, Dijkstra)
     protected String algorithmName;
 
-    // Constructor initializes maze and tracking variables
+    // Workspace handed in with setWorkspace, or null to use the solving thread's own
+    private SolverWorkspace workspace;
+
+    // Workspace and epoch of the last workspace-based search; visited marks are read from them on demand
+    private SolverWorkspace searchWorkspace;
+    private int searchEpoch;
+
+    // Path of the last workspace-based search, encoded; 'path' is decoded from it only when asked for
+    private final CompactPath.Builder pathBuilder = new CompactPath.Builder();
+    private CompactPath compactPath; // Immutable copy of pathBuilder (or of 'path'), made on the first request
+
+    // List a list-based solver's compactPath was encoded from, and its size then. Solvers only ever append
+    // to 'path' or replace it (the visualizer assigns it directly), so the same list with the same size
+    // means the cached encoding is still current.
+    private List<Point> compactPathSource;
+    private int compactPathSourceSize;
+
+    // Expansions between two looks at the clock and the cancellation token
+    private static final int BUDGET_CHECK_INTERVAL = 256;
+
+    private SolveBudget budget = SolveBudget.UNLIMITED; // Limits of every solve
+    private CancellationToken cancellationToken;        // Polled while solving, or null
+    private SolveStatus stopReason;  // Why the last solve stopped early, or null if it ran to completion
+    private long expansions;         // Cells expanded by the last solve
+    private long nextBudgetCheck;    // Expansion count at which expand() next checks the limits
+    private long deadline;           // System.nanoTime() at which the current solve runs out of time
+
+    // Constructor initializes maze and tracking variables; nothing the size of the maze is allocated yet
     public MazeSolver(Maze maze) {
         this.maze = maze;
-        this.visited = new boolean[maze.getRows()][maze.getCols()];
-        this.path = new java.util.ArrayList<>();
         this.steps = 0;
         this.penaltySteps = 0;
     }
@@ -34,55 +60,342 @@ public abstract class MazeSolver {
 
     // Handles special tiles: teleport and penalty
     protected Point handleSpecialTile(int x, int y) {
-        Point current = new Point(x, y);
-
-        // Handle teleport tiles: move to the other teleport
-        for (Point teleport : maze.getTeleportPositions()) {
-            if (teleport.equals(current) && maze.getTeleportPositions().size() >= 2) {
-                steps++; // Count teleport as a step
-                for (Point other : maze.getTeleportPositions()) {
-                    if (!other.equals(current)) {
-                        return other; // Return the destination teleport
-                    }
-                }
-            }
+        // Handle teleport tiles: move to the paired teleport
+        Point destination = maze.getTeleportDestination(x, y);
+        if (destination != null) {
+            steps++; // Count teleport as a step
+            return destination; // Return the destination teleport
         }
 
         // Handle penalty tiles: add 2 penalty steps
-        for (Point penalty : maze.getPenaltyPositions()) {
-            if (penalty.equals(current)) {
-                penaltySteps += 2;
-                steps++; // Count stepping into penalty
-            }
+        if (maze.getCell(x, y) == Maze.PENALTY) {
+            penaltySteps += 2;
+            steps++; // Count stepping into penalty
         }
 
         return null; // No special tile found
     }
 
-    // Getter for the solved path
+    // Getter for the solved path (decoded from the compact path the first time after a workspace-based solve)
     public List<Point> getPath() {
+        if (path == null) {
+            path = getCompactPath().toList();
+        }
         return path;
     }
 
-    // Getter for visited cells
+    // The solved path as move codes; empty if there is no path
+    public CompactPath getCompactPath() {
+        if (path != null) {
+            // List-based solver: encode the list once, and again only if it was replaced or grew since
+            if (compactPath == null || compactPathSource != path || compactPathSourceSize != path.size()) {
+                compactPath = CompactPath.of(path);
+                compactPathSource = path;
+                compactPathSourceSize = path.size();
+            }
+            return compactPath;
+        }
+        if (compactPath == null) {
+            compactPath = pathBuilder.build();
+        }
+        return compactPath;
+    }
+
+    // Getter for visited cells (built from the workspace marks the first time after a workspace-based solve;
+    // all false before the first solve and after a solve refused over its memory budget)
     public boolean[][] getVisited() {
+        if (visited == null) {
+            if (searchWorkspace != null && searchWorkspace.getEpoch() != searchEpoch) {
+                throw new IllegalStateException("The visited marks of this solve were overwritten by a later "
+                        + "solve on the same workspace; call getVisited() before solving again");
+            }
+            int cols = maze.getCols();
+            boolean[][] marks = new boolean[maze.getRows()][cols];
+            if (searchWorkspace != null) {
+                for (int y = 0; y < marks.length; y++) {
+                    for (int x = 0; x < cols; x++) {
+                        marks[y][x] = searchWorkspace.wasSettled(searchEpoch, y * cols + x);
+                    }
+                }
+            }
+            visited = marks;
+        }
         return visited;
     }
 
+    // Number of cells on the solved path, including both ends (0 if there is no path)
+    public int getPathLength() {
+        return path != null ? path.size() : pathBuilder.size();
+    }
+
+    // Limits every following solve; SolveBudget.UNLIMITED removes them
+    public void setBudget(SolveBudget budget) {
+        this.budget = budget;
+    }
+
+    public SolveBudget getBudget() {
+        return budget;
+    }
+
+    // Token that stops the following solves once it is cancelled, or null for none
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Outcome of the last solve. After an early stop the visited cells are the
+     * ones expanded so far, and the path (if any) leads from the start to the
+     * cell the search was expanding when it stopped.
+     */
+    public SolveStatus getStatus() {
+        if (stopReason != null) return stopReason;
+        return getPathLength() > 0 ? SolveStatus.SOLVED : SolveStatus.NO_PATH;
+    }
+
+    // Cells expanded by the last solve
+    public long getExpansions() {
+        return expansions;
+    }
+
+    /**
+     * Rough peak memory of one solve in bytes, compared against the budget before
+     * the solve allocates anything. The default covers the workspace: six ints per
+     * cell (reached and settled stamps, distance, parent, queue and path buffer).
+     * Solvers with an open list or tables of their own add those on top.
+     */
+    protected long estimateMemoryBytes() {
+        return (long) maze.getRows() * maze.getCols() * 24;
+    }
+
+    /**
+     * Counts one expansion and returns false once the solve has to stop. Solvers
+     * call it for every cell they take off their open list; it only looks at the
+     * clock and the token every BUDGET_CHECK_INTERVAL calls.
+     */
+    protected final boolean expand() {
+        if (++expansions < nextBudgetCheck) return true;
+        return checkBudget(1);
+    }
+
+    // Counts a batch of expansions at once, for solvers that expand a whole level between checks
+    protected final boolean expand(int count) {
+        expansions += count;
+        if (expansions < nextBudgetCheck) return true;
+        return checkBudget(count);
+    }
+
+    // True once the current solve has run out of budget (or was refused before it started)
+    protected boolean isStopped() {
+        return stopReason != null;
+    }
+
+    // Records that the current solve ended early for a reason the solver found itself
+    protected void stopEarly(SolveStatus reason) {
+        if (stopReason == null) stopReason = reason;
+    }
+
+    // Stops a workspace-based search, keeping the path to the cell it was expanding as the partial result
+    protected long stopSearch(int cell) {
+        storePath(cell);
+        return -1;
+    }
+
+    // Stops a list-based search, keeping the given path to the cell it was expanding as the partial result
+    protected long stopSearch(List<Point> partialPath) {
+        path = partialPath;
+        if (!path.isEmpty()) countPathSteps();
+        return -1;
+    }
+
+    /**
+     * Runs another solver as one phase of this solve. It gets what is left of this
+     * solve's time and expansions, and its expansions and early stop count as this
+     * solve's own.
+     */
+    protected long solveNested(MazeSolver inner, boolean visualize) {
+        long timeLeft = budget.hasTimeLimit() ? Math.max(0, deadline - System.nanoTime()) : Long.MAX_VALUE;
+        long max = budget.getMaxExpansions();
+        long expansionsLeft = max == Long.MAX_VALUE ? max : Math.max(0, max - expansions);
+        inner.setBudget(new SolveBudget(timeLeft, expansionsLeft, budget.getMaxMemoryBytes()));
+        inner.setCancellationToken(cancellationToken);
+
+        long result = inner.solve(visualize);
+        expansions += inner.expansions;
+        if (inner.stopReason != null) {
+            stopReason = inner.stopReason;
+        }
+        scheduleBudgetCheck();
+        return result;
+    }
+
+    // Starts the budget of a new solve. reset() and beginSearch() call it before they touch anything the
+    // size of the maze, so a solve over the memory budget is refused before it allocates; solvers check
+    // isStopped() before building any table of their own.
+    private void startBudget() {
+        expansions = 0;
+        stopReason = null;
+        deadline = budget.hasTimeLimit() ? System.nanoTime() + budget.getTimeLimitNanos() : 0;
+        if (estimateMemoryBytes() > budget.getMaxMemoryBytes()) {
+            stopReason = SolveStatus.MEMORY_LIMIT;
+        }
+        scheduleBudgetCheck();
+    }
+
+    // Looks at every limit; records the reason and returns false if one of them is used up
+    private boolean checkBudget(int count) {
+        if (stopReason == null) {
+            if (expansions > budget.getMaxExpansions()) {
+                stopReason = SolveStatus.EXPANSION_LIMIT;
+            } else if (cancellationToken != null && cancellationToken.isCancelled()) {
+                stopReason = SolveStatus.CANCELLED;
+            } else if (budget.hasTimeLimit() && System.nanoTime() - deadline >= 0) {
+                stopReason = SolveStatus.DEADLINE;
+            }
+        }
+        if (stopReason != null) {
+            expansions -= count; // The refused expansions did not happen
+            return false;
+        }
+        scheduleBudgetCheck();
+        return true;
+    }
+
+    // The next check is due at the expansion limit, or sooner if there is a clock or token to watch
+    private void scheduleBudgetCheck() {
+        if (stopReason != null) {
+            nextBudgetCheck = 0;
+            return;
+        }
+        long max = budget.getMaxExpansions();
+        nextBudgetCheck = max == Long.MAX_VALUE ? Long.MAX_VALUE : max + 1;
+        if (budget.hasTimeLimit() || cancellationToken != null) {
+            nextBudgetCheck = Math.min(nextBudgetCheck, expansions + BUDGET_CHECK_INTERVAL);
+        }
+    }
+
+    // Uses the given workspace instead of the solving thread's own
+    public void setWorkspace(SolverWorkspace workspace) {
+        this.workspace = workspace;
+    }
+
+    /**
+     * Sizes the workspace and the path encoder for this maze, so that later
+     * workspace-based solves allocate nothing. Solving calls it as well;
+     * calling it up front only moves the allocation out of the first solve.
+     */
+    public void prepare() {
+        int cellCount = maze.getRows() * maze.getCols();
+        activeWorkspace().prepare(cellCount);
+        pathBuilder.ensureCapacity(cellCount);
+    }
+
+    private SolverWorkspace activeWorkspace() {
+        return workspace != null ? workspace : SolverWorkspace.forCurrentThread();
+    }
+
+    /**
+     * Starts a search on the workspace instead of the boolean[][] and List used by
+     * reset(). Mark cells with settle() on the returned workspace; getVisited() and
+     * getPath() turn the marks and the compact path into their usual form only when
+     * they are called.
+     *
+     * If the solve is over its memory budget nothing is allocated; the caller must
+     * check isStopped() before touching the workspace.
+     */
+    protected SolverWorkspace beginSearch() {
+        startBudget();
+        if (stopReason != null) {
+            clearResults(); // Plain empty results; the workspace is left as it is
+            return activeWorkspace();
+        }
+        prepare();
+        searchWorkspace = activeWorkspace();
+        searchEpoch = searchWorkspace.begin(maze.getRows() * maze.getCols());
+        visited = null;
+        path = null;
+        pathBuilder.clear();
+        compactPath = null;
+        compactPathSource = null;
+        steps = 0;
+        penaltySteps = 0;
+        return searchWorkspace;
+    }
+
+    // Encodes the parent chain ending at 'end' as the solved path and counts its steps under the default costs
+    protected void storePath(int end) {
+        int[] cells = searchWorkspace.getPathBuffer();
+        int length = 0;
+        for (int cell = end; cell != -1; cell = searchWorkspace.getParent(cell)) {
+            length++;
+        }
+        int index = length;
+        for (int cell = end; cell != -1; cell = searchWorkspace.getParent(cell)) {
+            cells[--index] = cell;
+        }
+
+        int cols = maze.getCols();
+        pathBuilder.clear();
+        for (int i = 0; i < length; i++) {
+            pathBuilder.add(cells[i] % cols, cells[i] / cols);
+        }
+        steps = length - 1;
+        penaltySteps = CostModel.DEFAULT.pathCost(maze, cells, length) - steps;
+    }
+
     // Getter for total steps including penalties
     public int getSteps() {
         return steps + penaltySteps;
     }
 
+    // Exact cost of the solved path under the default cost model, or -1 if there is no path
+    public int getPathCost() {
+        return getPathCost(CostModel.DEFAULT);
+    }
+
+    // Exact cost of the solved path under the given cost model, or -1 if there is no path
+    public int getPathCost(CostModel costModel) {
+        if (path == null) {
+            CompactPath solved = getCompactPath();
+            return solved.isEmpty() ? -1 : costModel.pathCost(maze, solved);
+        }
+        return path.isEmpty() ? -1 : costModel.pathCost(maze, path);
+    }
+
     // Getter for algorithm name
     public String getAlgorithmName() {
         return algorithmName;
     }
 
-    // Resets all tracking variables for a fresh solve
+    // Sets steps from the final path: one per move, with penalty tiles on the path counted as penaltySteps
+    protected void countPathSteps() {
+        steps = path.size() - 1;
+        penaltySteps = CostModel.DEFAULT.pathCost(maze, path) - steps;
+    }
+
+    // Resets all tracking variables and starts the budget for a fresh solve; the visited marks of a
+    // list-based solver are only allocated if the solve is within its memory budget
     protected void reset() {
-        this.visited = new boolean[maze.getRows()][maze.getCols()];
+        startBudget();
+        clearResults();
+        if (!isStopped()) {
+            this.visited = new boolean[maze.getRows()][maze.getCols()];
+        }
+    }
+
+    // Like reset(), for solvers whose memory must not grow with the maze: no visited marks are allocated,
+    // so getVisited() reads all false unless the solver overrides it to build them from its own tables
+    protected void resetWithoutVisited() {
+        startBudget();
+        clearResults();
+    }
+
+    // Empty results: no visited marks yet (getVisited() reads them as all false) and an empty path
+    private void clearResults() {
+        this.visited = null;
+        this.searchWorkspace = null;
         this.path = new java.util.ArrayList<>();
+        this.compactPath = null;
+        this.compactPathSource = null;
         this.steps = 0;
         this.penaltySteps = 0;
     }
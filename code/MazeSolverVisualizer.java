@@ -4,6 +4,8 @@ import java.awt.event.ActionEvent;
 import java.io.File;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 public class MazeSolverVisualizer {
     // Maze object to store the maze structure
@@ -14,11 +16,15 @@ public class MazeSolverVisualizer {
     private long visualizationDelay = 50; // Delay in milliseconds between visual steps
     private boolean isPaused = false; // Flag to pause/resume visualization
     private boolean isRunning = false; // Flag to prevent multiple runs at once
+    private final SolveExecutor solveExecutor = new SolveExecutor(); // Runs solves and comparisons on virtual threads
 
     private JFrame frame; // Main window
     private JButton dfsButton, bfsButton, aStarButton, dijkstraButton; // Algorithm buttons
     private JButton leftHandButton, rightHandButton, deadEndButton, compareButton, loadButton; // Other control buttons
     private JButton pauseButton, stepButton; // Pause and Step controls
+    private JButton cancelLoadButton; // Stops a maze that is still loading
+    private JProgressBar loadProgress; // Bytes of the maze file loaded so far
+    private MazeLoadWorker loadWorker; // Maze file being loaded in the background, or null
 
     public MazeSolverVisualizer() {
         initializeGUI(); // Set up GUI when object is created
@@ -31,7 +37,7 @@ public class MazeSolverVisualizer {
         frame.setLayout(new BorderLayout()); // Use border layout
 
         mazePanel = new MazePanel(); // Create maze drawing panel
-        frame.add(mazePanel, BorderLayout.CENTER); // Add maze panel to center of window
+        frame.add(new JScrollPane(mazePanel), BorderLayout.CENTER); // Scroll mazes larger than the screen
 
         // Create control panel with grid layout: 3 rows (for 3 sets of buttons)
         JPanel controlPanel = new JPanel(new GridLayout(3, 1));
@@ -54,9 +60,11 @@ public class MazeSolverVisualizer {
         buttonPanel2.add(deadEndButton);
         buttonPanel2.add(compareButton);
 
-        // Add pause and step buttons to third row
+        // Add pause and step buttons, and the load progress, to third row
         buttonPanel3.add(pauseButton);
         buttonPanel3.add(stepButton);
+        buttonPanel3.add(loadProgress);
+        buttonPanel3.add(cancelLoadButton);
 
         // Add button panels to the main control panel
         controlPanel.add(buttonPanel1);
@@ -116,9 +124,19 @@ public class MazeSolverVisualizer {
         stepButton = new JButton("Step");
         stepButton.setEnabled(false); // Initially disabled
         stepButton.addActionListener(e -> step());
+
+        loadProgress = new JProgressBar(0, 100);
+        loadProgress.setStringPainted(true);
+        loadProgress.setVisible(false); // Only shown while a maze loads
+
+        cancelLoadButton = new JButton("Cancel Load");
+        cancelLoadButton.setVisible(false);
+        cancelLoadButton.addActionListener(e -> {
+            if (loadWorker != null) loadWorker.cancel(false); // The worker stops at the next row
+        });
     }
 
-    // Load maze from file using file chooser
+    // Load maze from file using file chooser; the file is read on a background worker
     private void loadMazeFile() {
         if (isRunning) {
             infoArea.setText("Please wait for current operation to finish");
@@ -127,25 +145,84 @@ public class MazeSolverVisualizer {
 
         JFileChooser fileChooser = new JFileChooser(); // Dialog to choose file
         int returnValue = fileChooser.showOpenDialog(frame);
-        if (returnValue == JFileChooser.APPROVE_OPTION) {
-            File selectedFile = fileChooser.getSelectedFile();
-            try {
-                maze.loadMaze(selectedFile); // Parse and load the maze file
-                mazePanel.setPreferredSize(new Dimension(maze.getCols() * mazePanel.cellSize,
-                        maze.getRows() * mazePanel.cellSize)); // Resize panel to fit maze
+        if (returnValue != JFileChooser.APPROVE_OPTION) return;
 
-                mazePanel.setMazeData(maze, new boolean[maze.getRows()][maze.getCols()],
-                        new ArrayList<>(), "Maze"); // Reset maze panel
+        File selectedFile = fileChooser.getSelectedFile();
+        setButtonsEnabled(false); // Keep the current maze untouched until the new one is complete
+        isRunning = true;
+        loadProgress.setValue(0);
+        loadProgress.setString("Reading " + selectedFile.getName());
+        loadProgress.setVisible(true);
+        cancelLoadButton.setVisible(true);
+        infoArea.setText("Loading " + selectedFile.getName() + "...");
+
+        loadWorker = new MazeLoadWorker(selectedFile) {
+            // Runs on the Swing thread with the updates published since the last call
+            @Override
+            protected void process(List<MazeLoadWorker.Update> updates) {
+                for (MazeLoadWorker.Update update : updates) {
+                    if (update.preview != null) {
+                        // Phase 1: coarse preview at the size the full maze will have
+                        mazePanel.setPreview(update.preview, update.estimatedRows, update.cols);
+                        mazePanel.setPreferredSize(null);
+                        fitFrame();
+                        mazePanel.repaint();
+                    }
+                }
+                MazeLoadWorker.Update last = updates.get(updates.size() - 1);
+                loadProgress.setValue((int) Math.min(100, last.bytesRead * 100 / Math.max(1, last.totalBytes)));
+                loadProgress.setString(formatMegabytes(last.bytesRead) + " / " + formatMegabytes(last.totalBytes) +
+                        " MB, " + last.rowsParsed + " rows");
+            }
+
+            // Phase 2: swap in the full maze, or put the old one back if loading failed
+            @Override
+            protected void done() {
+                try {
+                    maze = get();
+                    infoArea.setText("Maze loaded successfully.\nStart: " + maze.getStartPos() +
+                            ", End: " + maze.getEndPos() +
+                            "\nSize: " + maze.getRows() + "x" + maze.getCols());
+                } catch (CancellationException e) {
+                    infoArea.setText("Loading " + selectedFile.getName() + " was cancelled; the previous maze is kept.");
+                } catch (ExecutionException e) {
+                    infoArea.setText("Error loading maze: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                if (maze.getRows() > 0) {
+                    mazePanel.fitCellSize(maze.getRows(), maze.getCols());
+                    mazePanel.setPreferredSize(new Dimension(maze.getCols() * mazePanel.cellSize,
+                            maze.getRows() * mazePanel.cellSize)); // Resize panel to fit maze
+                    mazePanel.setMazeData(maze, new boolean[maze.getRows()][maze.getCols()],
+                            new ArrayList<>(), "Maze"); // Reset maze panel
+                } else {
+                    mazePanel.setPreview(null, 0, 0); // No maze before and none now: drop the preview
+                }
                 mazePanel.repaint();
+                fitFrame();
 
-                frame.pack(); // Resize frame
-                infoArea.setText("Maze loaded successfully.\nStart: " + maze.getStartPos() +
-                        ", End: " + maze.getEndPos() +
-                        "\nSize: " + maze.getRows() + "x" + maze.getCols());
-            } catch (Exception e) {
-                infoArea.setText("Error loading maze: " + e.getMessage());
+                loadProgress.setVisible(false);
+                cancelLoadButton.setVisible(false);
+                setButtonsEnabled(true);
+                isRunning = false;
+                loadWorker = null;
             }
-        }
+        };
+        loadWorker.execute();
+    }
+
+    // Resizes the window to fit its contents, but never beyond the screen (the maze scrolls instead)
+    private void fitFrame() {
+        frame.pack();
+        Rectangle screen = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+        frame.setSize(Math.min(frame.getWidth(), screen.width), Math.min(frame.getHeight(), screen.height));
+    }
+
+    // Bytes as megabytes with one decimal, for the load progress
+    private static String formatMegabytes(long bytes) {
+        return String.format("%.1f", bytes / (1024.0 * 1024.0));
     }
 
     // Run the selected algorithm in a new thread
@@ -165,17 +242,19 @@ public class MazeSolverVisualizer {
         pauseButton.setEnabled(true); // Enable pause
         isRunning = true;
 
-        // Start algorithm execution in a separate thread
-        new Thread(() -> {
+        // Start algorithm execution on a virtual thread of the solve executor
+        solveExecutor.submit(() -> {
             try {
                 MazeSolver solver = createSolver(algorithm); // Create appropriate solver
-                if (solver == null) return;
+                if (solver == null) return null;
 
                 // Reset visualization
                 mazePanel.setMazeData(maze, new boolean[maze.getRows()][maze.getCols()],
                         new ArrayList<>(), algorithm);
                 mazePanel.repaint();
 
+                solver.reset(); // Fresh visited marks and path for the step-by-step runs below
+
                 long startTime = System.currentTimeMillis(); // Start timer
                 boolean success = false;
 
@@ -231,7 +310,8 @@ public class MazeSolverVisualizer {
                     isPaused = false;
                 });
             }
-        }).start();
+            return null;
+        });
     }
 
     // Counts how many cells in the 'visited' array are true (i.e., visited during the solving process)
@@ -247,24 +327,7 @@ public class MazeSolverVisualizer {
 
     // Creates an instance of the appropriate maze-solving algorithm based on user selection
     private MazeSolver createSolver(String algorithm) {
-        switch (algorithm) {
-            case "DFS":
-                return new DFSSolver(maze);                 // Depth-First Search
-            case "BFS":
-                return new BFSSolver(maze);                 // Breadth-First Search
-            case "A*":
-                return new AStarSolver(maze);                // A* Search Algorithm
-            case "Dijkstra":
-                return new DijkstraSolver(maze);       // Dijkstra's Algorithm
-            case "LeftHand":
-                return new WallFollowerSolver(maze, true);  // Left-hand wall-following
-            case "RightHand":
-                return new WallFollowerSolver(maze, false); // Right-hand wall-following
-            case "DeadEnd":
-                return new DeadEndFillingSolver(maze);  // Dead-end filling method
-            default:
-                return null;                                   // If algorithm not recognized
-        }
+        return SolverFactory.create(algorithm, maze); // null if algorithm not recognized
     }
 
     // Toggles between paused and running states; updates button text accordingly
@@ -399,7 +462,7 @@ public class MazeSolverVisualizer {
                 maze.getStartPos().y,
                 null,
                 0,
-                heuristic(maze.getStartPos().x, maze.getStartPos().y)
+                solver.heuristic(maze.getStartPos().x, maze.getStartPos().y)
         ));
 
         while (!openSet.isEmpty()) {
@@ -428,7 +491,7 @@ public class MazeSolverVisualizer {
             Point teleportPos = solver.handleSpecialTile(x, y);
             if (teleportPos != null) {
                 double newG = current.g + 1;
-                double newH = heuristic(teleportPos.x, teleportPos.y);
+                double newH = solver.heuristic(teleportPos.x, teleportPos.y);
                 openSet.add(new AStarSolver.Node(
                         teleportPos.x,
                         teleportPos.y,
@@ -442,7 +505,7 @@ public class MazeSolverVisualizer {
             // Add all neighbors with updated cost and heuristic to the priority queue
             for (Point neighbor : maze.getNeighbors(x, y, solver.visited)) {
                 double newG = current.g + 1;
-                double newH = heuristic(neighbor.x, neighbor.y);
+                double newH = solver.heuristic(neighbor.x, neighbor.y);
                 openSet.add(new AStarSolver.Node(
                         neighbor.x,
                         neighbor.y,
@@ -576,11 +639,6 @@ public class MazeSolverVisualizer {
         }
     }
 
-    // Manhattan distance heuristic used by A* algorithm
-    private double heuristic(int x, int y) {
-        return Math.abs(x - maze.getEndPos().x) + Math.abs(y - maze.getEndPos().y);
-    }
-
     // Runs all algorithms several times and compares their performance
     private void compareAlgorithms() {
         if (isRunning) {
@@ -596,8 +654,10 @@ public class MazeSolverVisualizer {
         setButtonsEnabled(false); // Disable UI buttons
         isRunning = true;
 
-        // Start new thread for comparison to avoid freezing the UI
-        new Thread(() -> {
+        // Run the comparison on a virtual thread to avoid freezing the UI; every run fans out to all algorithms at once.
+        // It only waits on the solves, so it takes no permit of its own (holding one would starve them)
+        MazeSnapshot snapshot = maze.snapshot(); // The solves share it, so later edits to the maze do not reach them
+        solveExecutor.coordinate(() -> {
             String[] algorithms = {"DFS", "BFS", "A*", "Dijkstra", "LeftHand", "RightHand", "DeadEnd"};
             Map<String, Double> avgTimes = new HashMap<>();
             Map<String, Double> avgSteps = new HashMap<>();
@@ -606,32 +666,45 @@ public class MazeSolverVisualizer {
 
             int numRuns = 5; // Number of repetitions per algorithm
 
-            for (String algo : algorithms) {
-                long totalTime = 0;
-                long totalSteps = 0;
-                long totalPathLength = 0;
-                long totalVisitedCells = 0;
-                int successfulRuns = 0;
-
-                for (int i = 0; i < numRuns; i++) {
-                    MazeSolver solver = createSolver(algo); // Instantiate solver based on algorithm
-                    long timeTaken = solver.solve(false); // Run solver (no visualization)
-
-                    if (timeTaken != -1) { // Check if solver succeeded
-                        totalTime += timeTaken;
-                        totalSteps += solver.getSteps();
-                        totalPathLength += solver.getPath().size();
-                        totalVisitedCells += countVisitedCells(solver.getVisited());
-                        successfulRuns++;
+            long[] totalTime = new long[algorithms.length];
+            long[] totalSteps = new long[algorithms.length];
+            long[] totalPathLength = new long[algorithms.length];
+            long[] totalVisitedCells = new long[algorithms.length];
+            int[] successfulRuns = new int[algorithms.length];
+
+            for (int i = 0; i < numRuns; i++) {
+                List<SolveExecutor.Result<MazeSolver>> results;
+                try {
+                    results = solveExecutor.solveAll(snapshot, Arrays.asList(algorithms), SolveBudget.UNLIMITED, true);
+                } catch (ExecutionException e) {
+                    SwingUtilities.invokeLater(() -> {
+                        infoArea.setText("Error during comparison: " + e.getCause().getMessage());
+                        setButtonsEnabled(true);
+                        isRunning = false;
+                    });
+                    return null;
+                }
+
+                for (int a = 0; a < algorithms.length; a++) {
+                    MazeSolver solver = results.get(a).getSolver();
+                    if (results.get(a).getTimeMillis() != -1) { // Check if solver succeeded
+                        totalTime[a] += results.get(a).getTimeMillis();
+                        totalSteps[a] += solver.getSteps();
+                        totalPathLength[a] += solver.getPath().size();
+                        totalVisitedCells[a] += countVisitedCells(solver.getVisited());
+                        successfulRuns[a]++;
                     }
                 }
+            }
 
+            for (int a = 0; a < algorithms.length; a++) {
+                String algo = algorithms[a];
                 // Store averages or mark as -1 if all runs failed
-                if (successfulRuns > 0) {
-                    avgTimes.put(algo, (double) totalTime / successfulRuns);
-                    avgSteps.put(algo, (double) totalSteps / successfulRuns);
-                    avgPathLengths.put(algo, (double) totalPathLength / successfulRuns);
-                    avgVisitedCells.put(algo, (double) totalVisitedCells / successfulRuns);
+                if (successfulRuns[a] > 0) {
+                    avgTimes.put(algo, (double) totalTime[a] / successfulRuns[a]);
+                    avgSteps.put(algo, (double) totalSteps[a] / successfulRuns[a]);
+                    avgPathLengths.put(algo, (double) totalPathLength[a] / successfulRuns[a]);
+                    avgVisitedCells.put(algo, (double) totalVisitedCells[a] / successfulRuns[a]);
                 } else {
                     avgTimes.put(algo, -1.0);
                     avgSteps.put(algo, -1.0);
@@ -646,7 +719,8 @@ public class MazeSolverVisualizer {
                 setButtonsEnabled(true);
                 isRunning = false;
             });
-        }).start(); // Start background thread
+            return null;
+        });
     }
 
 
@@ -0,0 +1,89 @@
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MultiGoalSolver is the base class for solvers that search from many sources to
+ * many targets in a single pass. All sources are seeded at once with cost 0, and
+ * the search stops at the first target it settles, so "nearest of N exits" costs
+ * about as much as one ordinary search instead of N of them.
+ *
+ * By default the sources are every S tile and the targets every E tile of the maze,
+ * read again whenever the maze's version changes, so a solver reused after
+ * setCell or a reload searches the tiles the maze has now. Sources and targets
+ * given to the constructor stay fixed, but their cell indices are recomputed in
+ * the same way in case the maze was reloaded with another width.
+ */
+public abstract class MultiGoalSolver extends MazeSolver {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    protected static final int[] DX = {0, 1, 0, -1};
+    protected static final int[] DY = {-1, 0, 1, 0};
+
+    protected int[] sourceCells; // Cell indices the search starts from
+    protected int[] targetCells; // Cell indices that end the search, sorted for binary search
+
+    private final List<Point> sources; // Fixed sources, or null to use the maze's S tiles
+    private final List<Point> targets; // Fixed targets, or null to use the maze's E tiles
+    private int goalsVersion;          // Maze version sourceCells and targetCells were computed for
+
+    // Uses every S tile as a source and every E tile as a target
+    public MultiGoalSolver(Maze maze) {
+        super(maze);
+        if (maze.getStartPositions().isEmpty() || maze.getEndPositions().isEmpty()) {
+            throw new IllegalArgumentException("Need at least one source and one target");
+        }
+        this.sources = null;
+        this.targets = null;
+        computeGoals();
+    }
+
+    public MultiGoalSolver(Maze maze, List<Point> sources, List<Point> targets) {
+        super(maze);
+        if (sources.isEmpty() || targets.isEmpty()) {
+            throw new IllegalArgumentException("Need at least one source and one target");
+        }
+        this.sources = new ArrayList<>(sources);
+        this.targets = new ArrayList<>(targets);
+        computeGoals();
+    }
+
+    // Brings sourceCells and targetCells up to date with the maze; call at the start of every solve
+    protected void refreshGoals() {
+        if (goalsVersion != maze.getVersion()) {
+            computeGoals();
+        }
+    }
+
+    private void computeGoals() {
+        goalsVersion = maze.getVersion();
+        sourceCells = toCells(sources != null ? sources : maze.getStartPositions());
+        targetCells = toCells(targets != null ? targets : maze.getEndPositions());
+        Arrays.sort(targetCells);
+    }
+
+    private int[] toCells(List<Point> points) {
+        int[] cells = new int[points.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = points.get(i).y * maze.getCols() + points.get(i).x;
+        }
+        return cells;
+    }
+
+    // True if the cell is one of the targets
+    protected boolean isTarget(int cell) {
+        return Arrays.binarySearch(targetCells, cell) >= 0;
+    }
+
+    // Returns the target reached by the last solve, or null if none was reached
+    public Point getReachedTarget() {
+        List<Point> solved = getPath();
+        return solved.isEmpty() ? null : solved.get(solved.size() - 1);
+    }
+
+    // Returns the source the last path starts from, or null if no path was found
+    public Point getReachedSource() {
+        List<Point> solved = getPath();
+        return solved.isEmpty() ? null : solved.get(0);
+    }
+}
@@ -0,0 +1,81 @@
+import java.awt.Point;
+import java.util.List;
+
+/**
+ * MultiSourceBFSSolver runs one breadth-first search seeded with every source at
+ * distance 0 and stops at the first target it reaches. The result is a shortest
+ * path between the closest (source, target) pair, with a teleport hop counting
+ * as one step.
+ */
+public class MultiSourceBFSSolver extends MultiGoalSolver {
+
+    public MultiSourceBFSSolver(Maze maze) {
+        super(maze);
+        this.algorithmName = "Multi BFS";
+    }
+
+    public MultiSourceBFSSolver(Maze maze, List<Point> sources, List<Point> targets) {
+        super(maze, sources, targets);
+        this.algorithmName = "Multi BFS";
+    }
+
+    /**
+     * Solves the maze from all sources at once.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no target is reachable
+     */
+    @Override
+    public long solve(boolean visualize) {
+        SolverWorkspace workspace = beginSearch(); // Reused arrays, nothing allocated in steady state
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: the workspace was not touched
+        refreshGoals(); // S and E tiles may have changed since the last solve
+
+        int cols = maze.getCols();
+        int[] queue = workspace.getQueue();
+        int head = 0, tail = 0;
+
+        // Seed every source; they all share distance 0
+        for (int source : sourceCells) {
+            if (!workspace.isReached(source)) {
+                discover(workspace, source, -1);
+                queue[tail++] = source;
+            }
+        }
+
+        while (head < tail) {
+            int cell = queue[head++];
+            if (isTarget(cell)) {
+                storePath(cell);
+                return System.currentTimeMillis() - startTime;
+            }
+            if (!expand()) return stopSearch(cell); // Out of budget: path so far
+
+            int x = cell % cols;
+            int y = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (maze.isOpen(nx, ny) && !workspace.isReached(ny * cols + nx)) {
+                    discover(workspace, ny * cols + nx, cell);
+                    queue[tail++] = ny * cols + nx;
+                }
+            }
+
+            int partner = maze.getTeleportPartner(cell);
+            if (partner >= 0 && !workspace.isReached(partner)) {
+                discover(workspace, partner, cell);
+                queue[tail++] = partner;
+            }
+        }
+
+        return -1; // No target reachable from any source
+    }
+
+    // Marks a cell as reached (and shown as visited) the moment it is queued
+    private static void discover(SolverWorkspace workspace, int cell, int parent) {
+        workspace.reach(cell, 0, parent);
+        workspace.settle(cell);
+    }
+}
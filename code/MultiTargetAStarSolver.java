@@ -0,0 +1,179 @@
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MultiTargetAStarSolver runs A* from every source at once toward the nearest of
+ * several targets. Its heuristic is the Manhattan distance to the closest target.
+ * With a handful of targets that minimum is computed directly; with more it is
+ * read from a Manhattan distance transform of the grid, built in two linear
+ * passes, so each lookup stays O(1) no matter how many exits there are.
+ * Manhattan distance overestimates when a teleport is a shortcut, so on a maze
+ * with teleports the heuristic is instead the smallest {@link TeleportHeuristic}
+ * bound over the targets, or 0 (plain Dijkstra) when there are too many targets
+ * to keep a bound for each. The heuristic is rebuilt when the maze's version
+ * changes.
+ *
+ * Costs, parents and the open list live in the solver workspace, as in
+ * AStarSolver, so repeated solves allocate nothing once it has grown.
+ */
+public class MultiTargetAStarSolver extends MultiGoalSolver {
+    // Above this many targets, the heuristic uses a distance transform instead of a loop
+    private static final int DIRECT_HEURISTIC_LIMIT = 8;
+
+    // Cell -> Manhattan distance to the nearest target, or null while the direct loop is used
+    private int[] targetDistance;
+    // One teleport-aware bound per target, or null on a maze without teleports
+    private TeleportHeuristic[] targetBounds;
+    private boolean zeroHeuristic;     // Teleports and too many targets for a bound each
+    private int heuristicVersion = -1; // Maze version the heuristic was built for
+
+    public MultiTargetAStarSolver(Maze maze) {
+        super(maze);
+        this.algorithmName = "Multi A*";
+    }
+
+    public MultiTargetAStarSolver(Maze maze, List<Point> sources, List<Point> targets) {
+        super(maze, sources, targets);
+        this.algorithmName = "Multi A*";
+    }
+
+    /**
+     * Solves the maze from all sources toward the nearest target.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no target is reachable
+     */
+    @Override
+    public long solve(boolean visualize) {
+        SolverWorkspace workspace = beginSearch(); // Reused arrays, nothing allocated in steady state
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: the workspace was not touched
+        refreshGoals(); // S and E tiles may have changed since the last solve
+
+        int cols = maze.getCols();
+        if (heuristicVersion != maze.getVersion()) {
+            buildHeuristic();
+            heuristicVersion = maze.getVersion();
+        }
+
+        // Every source starts at cost 0
+        IntMinHeap open = workspace.getHeap();
+        for (int source : sourceCells) {
+            workspace.reach(source, 0, -1);
+            open.add(heuristic(source), source);
+        }
+
+        while (!open.isEmpty()) {
+            int key = open.peekKey();
+            int cell = open.poll();
+            if (key != workspace.getDistance(cell) + heuristic(cell)) continue; // Stale heap entry
+
+            if (isTarget(cell)) {
+                storePath(cell);
+                return System.currentTimeMillis() - startTime;
+            }
+            if (!expand()) return stopSearch(cell); // Out of budget: path so far
+            workspace.settle(cell); // Shown as visited
+
+            int x = cell % cols;
+            int y = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (maze.isOpen(nx, ny)) {
+                    relax(workspace, open, cell, ny * cols + nx);
+                }
+            }
+
+            int partner = maze.getTeleportPartner(cell);
+            if (partner >= 0) {
+                relax(workspace, open, cell, partner);
+            }
+        }
+
+        return -1; // No target reachable from any source
+    }
+
+    // Moves and teleport hops both cost one step
+    private void relax(SolverWorkspace workspace, IntMinHeap open, int from, int to) {
+        int newCost = workspace.getDistance(from) + 1;
+        if (newCost < workspace.getDistance(to)) {
+            workspace.reach(to, newCost, from);
+            open.add(newCost + heuristic(to), to);
+        }
+    }
+
+    // The workspace, plus the heap: an int key and an int cell per entry, and each of a cell's four
+    // neighbors can lower its cost once
+    @Override
+    protected long estimateMemoryBytes() {
+        return super.estimateMemoryBytes() + (long) maze.getRows() * maze.getCols() * 4 * 8;
+    }
+
+    // Picks the heuristic for the maze's current layout and targets
+    private void buildHeuristic() {
+        targetDistance = null;
+        targetBounds = null;
+        zeroHeuristic = false;
+        if (maze.getTeleportPositions().size() >= 2) {
+            if (targetCells.length > DIRECT_HEURISTIC_LIMIT) {
+                zeroHeuristic = true;
+                return;
+            }
+            int cols = maze.getCols();
+            targetBounds = new TeleportHeuristic[targetCells.length];
+            for (int i = 0; i < targetCells.length; i++) {
+                targetBounds[i] = new TeleportHeuristic(maze, targetCells[i] % cols, targetCells[i] / cols);
+            }
+        } else if (targetCells.length > DIRECT_HEURISTIC_LIMIT) {
+            targetDistance = buildDistanceTransform();
+        }
+    }
+
+    // Lower bound on the cost to the nearest target
+    private int heuristic(int cell) {
+        if (zeroHeuristic) return 0;
+        if (targetDistance != null) return targetDistance[cell];
+
+        int cols = maze.getCols();
+        int best = Integer.MAX_VALUE;
+        if (targetBounds != null) {
+            for (TeleportHeuristic bound : targetBounds) {
+                best = Math.min(best, bound.estimate(cell % cols, cell / cols));
+            }
+            return best;
+        }
+        for (int target : targetCells) {
+            best = Math.min(best, Math.abs(cell % cols - target % cols) + Math.abs(cell / cols - target / cols));
+        }
+        return best;
+    }
+
+    // Manhattan distance transform (walls ignored): a forward and a backward sweep over the grid
+    private int[] buildDistanceTransform() {
+        int rows = maze.getRows();
+        int cols = maze.getCols();
+        int[] distance = new int[rows * cols];
+        Arrays.fill(distance, Integer.MAX_VALUE / 2);
+        for (int target : targetCells) {
+            distance[target] = 0;
+        }
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                int i = y * cols + x;
+                if (y > 0) distance[i] = Math.min(distance[i], distance[i - cols] + 1);
+                if (x > 0) distance[i] = Math.min(distance[i], distance[i - 1] + 1);
+            }
+        }
+        for (int y = rows - 1; y >= 0; y--) {
+            for (int x = cols - 1; x >= 0; x--) {
+                int i = y * cols + x;
+                if (y < rows - 1) distance[i] = Math.min(distance[i], distance[i + cols] + 1);
+                if (x < cols - 1) distance[i] = Math.min(distance[i], distance[i + 1] + 1);
+            }
+        }
+        return distance;
+    }
+}
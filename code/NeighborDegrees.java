@@ -0,0 +1,189 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * NeighborDegrees holds the number of open neighbors (up, right, down, left)
+ * of every cell of a maze. Dead ends have degree 1, corridor cells degree 2 and
+ * junctions 3 or 4, so dead-end filling and junction detection read them from
+ * here instead of probing four neighbors per cell.
+ *
+ * The table is computed a whole row at a time. When the JVM runs with
+ * --add-modules jdk.incubator.vector, {@link VectorDegrees} does it with the
+ * Vector API, one byte lane per cell. Otherwise it is done 64 cells per long:
+ * each row is turned into a bit mask of its open cells, the left and right
+ * neighbor masks are that mask shifted by one, the up and down masks are the
+ * rows above and below, and the four masks are added with bitwise adders into
+ * the three bit planes of the count. The same arithmetic is done cell by cell
+ * by {@link #scalar(Maze)}, which is kept as the reference the other two are
+ * checked and benchmarked against. Teleport hops are not neighbors here.
+ *
+ * A table is built once per maze layout and shared through {@link #of(Maze)}.
+ */
+public class NeighborDegrees {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // Tables already built, reused until their maze changes
+    private static final Map<Maze, NeighborDegrees> CACHE = new WeakHashMap<>();
+
+    // Whether the Vector API module was resolved at startup and the hardware has wide enough vectors.
+    // VectorDegrees is not even loaded otherwise, so the class works without the module.
+    private static final boolean VECTOR_API = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && VectorDegrees.isSupported();
+
+    private final int rows, cols;
+    private final int version;    // Maze version the table was built from
+    private final byte[] degrees; // Cell index -> open neighbors, 0 to 4
+
+    // Returns the table for the maze, building it only if the layout changed since the last call
+    public static NeighborDegrees of(Maze maze) {
+        if (maze instanceof MazeSnapshot) {
+            return ((MazeSnapshot) maze).getNeighborDegrees();
+        }
+        synchronized (CACHE) {
+            NeighborDegrees table = CACHE.get(maze);
+            if (table == null || table.version != maze.getVersion()) {
+                table = new NeighborDegrees(maze);
+                CACHE.put(maze, table);
+            }
+            return table;
+        }
+    }
+
+    // Computes the degrees row by row, with the Vector API when it is available and 64 cells per word otherwise
+    public NeighborDegrees(Maze maze) {
+        this(maze.getRows(), maze.getCols(), maze.getVersion());
+        if (VECTOR_API) {
+            VectorDegrees.fill(maze, degrees);
+        } else {
+            fillWords(maze);
+        }
+    }
+
+    // The 64-cells-per-word table, whether or not the Vector API is available
+    public static NeighborDegrees words(Maze maze) {
+        NeighborDegrees table = new NeighborDegrees(maze.getRows(), maze.getCols(), maze.getVersion());
+        table.fillWords(maze);
+        return table;
+    }
+
+    // The Vector API table; only call it if isVectorized() is true
+    public static NeighborDegrees vector(Maze maze) {
+        if (!VECTOR_API) {
+            throw new UnsupportedOperationException("Run with --add-modules jdk.incubator.vector for the Vector API");
+        }
+        NeighborDegrees table = new NeighborDegrees(maze.getRows(), maze.getCols(), maze.getVersion());
+        VectorDegrees.fill(maze, table.degrees);
+        return table;
+    }
+
+    // True if new tables are computed with the Vector API
+    public static boolean isVectorized() {
+        return VECTOR_API;
+    }
+
+    // Fills the table row by row, 64 cells at a time
+    private void fillWords(Maze maze) {
+        int words = (cols + 63) >>> 6;
+        long[] above = new long[words];
+        long[] current = new long[words];
+        long[] below = new long[words];
+        char[] tiles = new char[cols];
+        if (rows > 0) openMask(maze, 0, tiles, current);
+
+        for (int y = 0; y < rows; y++) {
+            if (y + 1 < rows) {
+                openMask(maze, y + 1, tiles, below);
+            } else {
+                Arrays.fill(below, 0);
+            }
+            for (int w = 0; w < words; w++) {
+                long left = current[w] << 1 | (w > 0 ? current[w - 1] >>> 63 : 0);
+                long right = current[w] >>> 1 | (w + 1 < words ? current[w + 1] << 63 : 0);
+                long up = above[w];
+                long down = below[w];
+
+                // Two half adders, then the sum of their results: bit planes 0, 1 and 2 of the count
+                long sumA = up ^ down, carryA = up & down;
+                long sumB = left ^ right, carryB = left & right;
+                long bit0 = sumA ^ sumB;
+                long carry = sumA & sumB;
+                long bit1 = carryA ^ carryB ^ carry;
+                long bit2 = carryA & carryB; // 4 open neighbors; a carry into bit 2 cannot happen otherwise
+
+                int base = y * cols + (w << 6);
+                int count = Math.min(64, cols - (w << 6));
+                for (int i = 0; i < count; i++) {
+                    degrees[base + i] = (byte) ((bit0 >>> i & 1) | (bit1 >>> i & 1) << 1 | (bit2 >>> i & 1) << 2);
+                }
+            }
+            long[] recycled = above;
+            above = current;
+            current = below;
+            below = recycled;
+        }
+    }
+
+    private NeighborDegrees(int rows, int cols, int version) {
+        if ((long) rows * cols > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A " + rows + "x" + cols + " maze is too large for a degree table");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.version = version;
+        this.degrees = new byte[rows * cols];
+    }
+
+    // Sets bit x % 64 of word x / 64 for every open cell of the row; bits past the last column stay clear
+    private static void openMask(Maze maze, int y, char[] tiles, long[] mask) {
+        Arrays.fill(mask, 0);
+        maze.copyRow(y, tiles); // One bulk copy instead of a grid lookup per cell
+        for (int x = 0; x < tiles.length; x++) {
+            if (tiles[x] != Maze.WALL) mask[x >>> 6] |= 1L << x;
+        }
+    }
+
+    // Scalar fallback: the same table, probing the four neighbors of each cell
+    public static NeighborDegrees scalar(Maze maze) {
+        NeighborDegrees table = new NeighborDegrees(maze.getRows(), maze.getCols(), maze.getVersion());
+        for (int y = 0; y < table.rows; y++) {
+            for (int x = 0; x < table.cols; x++) {
+                int count = 0;
+                for (int d = 0; d < 4; d++) {
+                    if (maze.isOpen(x + DX[d], y + DY[d])) count++;
+                }
+                table.degrees[y * table.cols + x] = (byte) count;
+            }
+        }
+        return table;
+    }
+
+    // Open neighbors of the cell y * cols + x (computed for walls too)
+    public int getDegree(int cell) {
+        return degrees[cell];
+    }
+
+    public int getDegree(int x, int y) {
+        return degrees[y * cols + x];
+    }
+
+    // Copy of the table, for passes that lower degrees as they fill cells
+    public byte[] copyDegrees() {
+        return degrees.clone();
+    }
+
+    // True if both tables hold the same degrees
+    public boolean sameDegrees(NeighborDegrees other) {
+        return Arrays.equals(degrees, other.degrees);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+}
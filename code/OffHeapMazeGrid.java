@@ -0,0 +1,123 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * OffHeapMazeGrid stores one byte per tile in a native {@link MemorySegment}, so a
+ * maze of billions of cells neither fits nor needs to fit in the Java heap and
+ * never adds to garbage collection work. Cells are addressed by long indices.
+ *
+ * The memory belongs to a shared {@link Arena} and is freed by {@link #close()}
+ * (or by closing the Maze that uses the grid), not by the garbage collector.
+ * Any access after close throws IllegalStateException; closing twice is allowed.
+ * The grid can be read from several threads at once, like a char[][].
+ */
+public class OffHeapMazeGrid implements MazeGrid {
+    private final Arena arena;          // Owns the native memory
+    private final MemorySegment tiles;  // rows * cols bytes, row after row
+    private final int rows, cols;
+    private boolean closed;
+
+    // Allocates a grid of the given size with every tile set to a wall
+    public OffHeapMazeGrid(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Grid must have at least one row and column, got " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.arena = Arena.ofShared();
+        this.tiles = arena.allocate((long) rows * cols);
+        tiles.fill((byte) Maze.WALL);
+    }
+
+    /**
+     * Reads a maze text file into a new off-heap grid. The file is streamed
+     * twice, once to measure it and once to copy the rows, so only one row is on
+     * the heap at a time. Tiles outside Latin-1 are stored as '?' (open path).
+     */
+    public static OffHeapMazeGrid load(Path file) throws IOException {
+        int rows = 0, cols = -1;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (cols < 0) {
+                    cols = line.length();
+                } else if (line.length() != cols) {
+                    throw new IOException("All lines in the maze must have the same length. Line " + (rows + 1) +
+                            " has length " + line.length() + " instead of " + cols + ".");
+                }
+                rows++;
+            }
+        }
+        if (rows == 0) {
+            throw new IOException("Maze file is empty.");
+        }
+        if (cols == 0) {
+            throw new IOException("Maze rows must not be empty.");
+        }
+
+        OffHeapMazeGrid grid = new OffHeapMazeGrid(rows, cols);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            for (int y = 0; y < rows; y++) {
+                String line = reader.readLine();
+                if (line == null || line.length() != cols) {
+                    throw new IOException("Maze file changed while it was being loaded.");
+                }
+                byte[] row = line.getBytes(StandardCharsets.ISO_8859_1);
+                MemorySegment.copy(row, 0, grid.tiles, ValueLayout.JAVA_BYTE, (long) y * cols, cols);
+            }
+        } catch (IOException | RuntimeException e) {
+            grid.close(); // Do not leak native memory on a failed load
+            throw e;
+        }
+        return grid;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public char get(int x, int y) {
+        return get((long) y * cols + x);
+    }
+
+    @Override
+    public char get(long cell) {
+        return (char) (tiles.get(ValueLayout.JAVA_BYTE, cell) & 0xFF);
+    }
+
+    @Override
+    public void set(int x, int y, char tile) {
+        tiles.set(ValueLayout.JAVA_BYTE, (long) y * cols + x, (byte) tile);
+    }
+
+    // Native bytes held by this grid
+    public long getByteSize() {
+        return tiles.byteSize();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    // Frees the native memory; threads still reading the grid get an IllegalStateException
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            arena.close();
+        }
+    }
+}
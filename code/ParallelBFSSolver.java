@@ -0,0 +1,323 @@
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ParallelBFSSolver is a level-synchronous breadth-first search that expands each
+ * frontier level across a {@link ForkJoinPool}.
+ *
+ * Narrow levels are expanded top-down: every worker takes a slice of the frontier,
+ * claims unvisited neighbors with a CAS on a shared visited bitset and writes them
+ * to its own output buffer; the buffers are then concatenated into the next
+ * frontier. Once a level covers a large part of the still unvisited cells, the
+ * search switches to bottom-up: every worker scans a slice of the list of unvisited
+ * cells and adds those that have a neighbor in the current level, which avoids most
+ * of the failed claims a wide top-down level would make.
+ *
+ * Teleport hops are an extra edge of one step, as in {@link MultiSourceBFSSolver}.
+ * The path is read back from the level numbers in a fixed direction order, so it
+ * is the same for every pool size, including a single thread.
+ */
+public class ParallelBFSSolver extends MazeSolver {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // Levels smaller than this are expanded on the calling thread; forking would cost more than it saves
+    private static final int SEQUENTIAL_THRESHOLD = 2048;
+
+    // Go bottom-up when the frontier exceeds 1/ALPHA of the unvisited cells, back when it drops below 1/BETA.
+    // Bottom-up only scans the unvisited cells, so its cost per level is proportional to their number.
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    // Work items per worker, so a slow slice does not hold up the whole level
+    private static final int SLICES_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+
+    private int levels;          // Number of BFS levels expanded by the last solve
+    private int bottomUpLevels;  // How many of them ran bottom-up
+
+    public ParallelBFSSolver(Maze maze) {
+        this(maze, ForkJoinPool.commonPool());
+    }
+
+    // Constructor sets the pool the levels are expanded on and the algorithm name
+    public ParallelBFSSolver(Maze maze, ForkJoinPool pool) {
+        super(maze);
+        this.pool = pool;
+        this.algorithmName = "Parallel BFS";
+    }
+
+    /**
+     * Runs the level-synchronous search from the start to the end.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no path found
+     */
+    @Override
+    public long solve(boolean visualize) {
+        reset();
+        levels = 0;
+        bottomUpLevels = 0;
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: allocate nothing
+
+        int cols = maze.getCols();
+        int cellCount = maze.getRows() * cols;
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int end = maze.getEndPos().y * cols + maze.getEndPos().x;
+
+        int[] level = new int[cellCount];                                // BFS level of each cell, -1 if unreached
+        AtomicLongArray claimed = new AtomicLongArray((cellCount + 63) >>> 6); // Visited bits, set by CAS
+        Arrays.fill(level, -1);
+
+        int[] frontier = {start};
+        int frontierSize = 1;
+        level[start] = 0;
+        claim(claimed, start);
+        // Only the start's component can ever be reached, so the direction switch compares against its size
+        ConnectivityIndex components = ConnectivityIndex.of(maze);
+        int startComponent = components.getComponent(start % cols, start / cols);
+        int unvisited = components.getComponentSize(startComponent) - 1;
+        boolean bottomUp = false;
+        int[] remaining = null; // Unvisited open cells, only kept while the search runs bottom-up
+        int remainingSize = 0;
+
+        for (int depth = 0; frontierSize > 0 && level[end] < 0; depth++) {
+            // The budget is charged a whole level at a time, before the level is handed to the workers
+            if (!expand(frontierSize)) break;
+
+            // Direction-optimizing switch (Beamer et al.), using cell counts instead of edge counts
+            if (!bottomUp && frontierSize > unvisited / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < unvisited / BETA) {
+                bottomUp = false;
+            }
+
+            int[][] buffers;
+            if (bottomUp) {
+                if (remaining == null) {
+                    remaining = collectUnvisited(level, components, startComponent, unvisited);
+                    remainingSize = remaining.length;
+                }
+                int[] keptCounts = new int[sliceCount(remainingSize)];
+                buffers = expandBottomUp(level, claimed, depth, remaining, remainingSize, keptCounts);
+                remainingSize = compact(remaining, remainingSize, keptCounts);
+            } else {
+                remaining = null; // Rebuilt from the level array if the search goes bottom-up again
+                buffers = expandTopDown(level, claimed, depth, frontier, frontierSize);
+            }
+
+            // Concatenate the per-slice buffers; each slice's output is already in a fixed order
+            frontierSize = 0;
+            for (int[] buffer : buffers) frontierSize += buffer[0];
+            frontier = new int[frontierSize];
+            int offset = 0;
+            for (int[] buffer : buffers) {
+                System.arraycopy(buffer, 1, frontier, offset, buffer[0]);
+                offset += buffer[0];
+            }
+
+            unvisited -= frontierSize;
+            levels++;
+            if (bottomUp) bottomUpLevels++;
+        }
+
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (level[cell] >= 0) visited[cell / cols][cell % cols] = true;
+        }
+        if (isStopped()) return stopSearch(reconstructPath(level, frontier[0])); // Out of budget: path so far
+        if (level[end] < 0) return -1; // No path found
+
+        path = reconstructPath(level, end);
+        countPathSteps();
+        return System.currentTimeMillis() - startTime;
+    }
+
+    // Expands a level top-down; returns one buffer per slice as {count, cells...}
+    private int[][] expandTopDown(int[] level, AtomicLongArray claimed, int depth, int[] frontier, int frontierSize) {
+        int slices = sliceCount(frontierSize);
+        List<Callable<int[]>> tasks = new ArrayList<>(slices);
+        for (int s = 0; s < slices; s++) {
+            int from = (int) ((long) frontierSize * s / slices);
+            int to = (int) ((long) frontierSize * (s + 1) / slices);
+            tasks.add(() -> {
+                int[] out = new int[1 + 4 * (to - from) + 1];
+                int count = 0;
+                int cols = maze.getCols();
+                for (int i = from; i < to; i++) {
+                    int cell = frontier[i];
+                    int x = cell % cols;
+                    int y = cell / cols;
+                    for (int d = 0; d < 4; d++) {
+                        int nx = x + DX[d];
+                        int ny = y + DY[d];
+                        int next = ny * cols + nx;
+                        if (maze.isOpen(nx, ny) && level[next] < 0 && claim(claimed, next)) {
+                            level[next] = depth + 1;
+                            if (count + 2 > out.length) out = Arrays.copyOf(out, out.length * 2);
+                            out[1 + count++] = next;
+                        }
+                    }
+                    int partner = maze.getTeleportPartner(cell);
+                    if (partner >= 0 && level[partner] < 0 && claim(claimed, partner)) {
+                        level[partner] = depth + 1;
+                        if (count + 2 > out.length) out = Arrays.copyOf(out, out.length * 2);
+                        out[1 + count++] = partner;
+                    }
+                }
+                out[0] = count;
+                return out;
+            });
+        }
+        return run(tasks, frontierSize);
+    }
+
+    // Expands a level bottom-up: every still unvisited cell looks for a neighbor in the current level.
+    // Cells that stay unvisited are compacted to the front of their slice of 'remaining'.
+    private int[][] expandBottomUp(int[] level, AtomicLongArray claimed, int depth,
+                                   int[] remaining, int remainingSize, int[] keptCounts) {
+        int slices = keptCounts.length;
+        List<Callable<int[]>> tasks = new ArrayList<>(slices);
+        for (int s = 0; s < slices; s++) {
+            int slice = s;
+            int from = (int) ((long) remainingSize * s / slices);
+            int to = (int) ((long) remainingSize * (s + 1) / slices);
+            tasks.add(() -> {
+                int[] out = new int[64];
+                int count = 0;
+                int kept = from;
+                int cols = maze.getCols();
+                for (int i = from; i < to; i++) {
+                    int cell = remaining[i];
+                    int x = cell % cols;
+                    int y = cell / cols;
+
+                    boolean reached = false;
+                    for (int d = 0; d < 4 && !reached; d++) {
+                        int nx = x + DX[d];
+                        int ny = y + DY[d];
+                        reached = maze.isOpen(nx, ny) && level[ny * cols + nx] == depth;
+                    }
+                    if (!reached) {
+                        int partner = maze.getTeleportPartner(cell);
+                        reached = partner >= 0 && level[partner] == depth;
+                    }
+
+                    if (!reached) {
+                        remaining[kept++] = cell;
+                    } else if (claim(claimed, cell)) { // Every cell is in one slice only, so this always succeeds
+                        level[cell] = depth + 1;
+                        if (count + 2 > out.length) out = Arrays.copyOf(out, out.length * 2);
+                        out[1 + count++] = cell;
+                    }
+                }
+                keptCounts[slice] = kept - from;
+                out[0] = count;
+                return out;
+            });
+        }
+        return run(tasks, remainingSize);
+    }
+
+    // Closes the gaps the slices left in 'remaining'; returns the new number of remaining cells
+    private static int compact(int[] remaining, int remainingSize, int[] keptCounts) {
+        int slices = keptCounts.length;
+        int size = 0;
+        for (int s = 0; s < slices; s++) {
+            int from = (int) ((long) remainingSize * s / slices);
+            System.arraycopy(remaining, from, remaining, size, keptCounts[s]);
+            size += keptCounts[s];
+        }
+        return size;
+    }
+
+    // Lists the cells of the start's component that are not visited yet, in cell order.
+    // Cells of other components can never be reached, and counting them would crowd out the real ones.
+    private int[] collectUnvisited(int[] level, ConnectivityIndex components, int startComponent, int unvisited) {
+        int[] cells = new int[Math.max(unvisited, 0)];
+        int count = 0;
+        int cols = maze.getCols();
+        for (int cell = 0; cell < level.length && count < cells.length; cell++) {
+            if (level[cell] < 0 && components.getComponent(cell % cols, cell / cols) == startComponent) {
+                cells[count++] = cell;
+            }
+        }
+        return cells;
+    }
+
+    // Runs the slices on the pool, or inline when the level is too small to be worth forking
+    private int[][] run(List<Callable<int[]>> tasks, int work) {
+        int[][] buffers = new int[tasks.size()][];
+        try {
+            if (work < SEQUENTIAL_THRESHOLD || tasks.size() == 1) {
+                for (int i = 0; i < buffers.length; i++) buffers[i] = tasks.get(i).call();
+            } else {
+                List<Future<int[]>> results = pool.invokeAll(tasks);
+                for (int i = 0; i < buffers.length; i++) buffers[i] = results.get(i).get();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Parallel BFS level failed", e);
+        }
+        return buffers;
+    }
+
+    private int sliceCount(int work) {
+        if (work < SEQUENTIAL_THRESHOLD) return 1;
+        return Math.max(1, Math.min(work / 64, pool.getParallelism() * SLICES_PER_WORKER));
+    }
+
+    // Sets the visited bit of a cell; returns false if another worker got there first
+    private static boolean claim(AtomicLongArray claimed, int cell) {
+        int word = cell >>> 6;
+        long bit = 1L << (cell & 63);
+        while (true) {
+            long current = claimed.get(word);
+            if ((current & bit) != 0) return false;
+            if (claimed.compareAndSet(word, current, current | bit)) return true;
+        }
+    }
+
+    // Walks back from the end, always to the first neighbor (in direction order) one level lower
+    private List<Point> reconstructPath(int[] level, int end) {
+        int cols = maze.getCols();
+        List<Point> result = new ArrayList<>();
+        int cell = end;
+        result.add(new Point(end % cols, end / cols));
+        while (level[cell] > 0) {
+            int x = cell % cols;
+            int y = cell / cols;
+            int previous = -1;
+            for (int d = 0; d < 4 && previous < 0; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (maze.isOpen(nx, ny) && level[ny * cols + nx] == level[cell] - 1) {
+                    previous = ny * cols + nx;
+                }
+            }
+            if (previous < 0) previous = maze.getTeleportPartner(cell); // Only a teleport hop is left
+            cell = previous;
+            result.add(new Point(cell % cols, cell / cols));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // Number of BFS levels expanded by the last solve
+    public int getLevels() {
+        return levels;
+    }
+
+    // Number of those levels that were expanded bottom-up
+    public int getBottomUpLevels() {
+        return bottomUpLevels;
+    }
+}
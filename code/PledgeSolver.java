@@ -0,0 +1,178 @@
+import java.util.Arrays;
+
+/**
+ * PledgeSolver walks with the Pledge algorithm: head in a preferred direction
+ * until a wall is hit, then follow that wall with the left hand while summing
+ * the turns taken (+1 right, -1 left), and let go of it once the sum is back to
+ * zero. Counting turns instead of just checking the heading lets the walker get
+ * around obstacles that trap a plain wall follower.
+ *
+ * Pledge is guaranteed to leave a maze, not to find a goal inside it, so the
+ * walk can circle forever. To make it terminate, every (cell, heading) state is
+ * marked when the walker is in it; being in a marked state
+ * again means the walk is repeating itself, and the attempt is abandoned. Up to
+ * four attempts are made, one per preferred direction, starting with the one
+ * that points most directly at the end. Each attempt makes at most 4 * cells
+ * moves, so a solve takes at most 16 * cells moves.
+ *
+ * The state marks take four bits per cell. The loop-free walk, the visited
+ * cells and the reported path live on the solver workspace (six ints per cell,
+ * reused by later solves on the same thread), and the solvability check builds
+ * the maze's {@link ConnectivityIndex} (one int per cell, cached per maze).
+ *
+ * A paired teleport is one more passage, to the partner given by
+ * {@link Maze#getTeleportPartner}, as for {@link TremauxSolver} and the
+ * connectivity check. A hop has no heading to prefer or avoid, so the walker
+ * takes it whenever it steps onto a teleport, keeping its heading; the hop
+ * counts as a move of its own. Loops in the walk are cut out as it goes, so the
+ * reported path is simple.
+ */
+public class PledgeSolver extends MazeSolver {
+    // Up, Right, Down, Left: turning right is +1, turning left is +3 (mod 4)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private byte[] seen = new byte[0]; // Two cells per byte, one bit per heading: states already walked through
+
+    private int moves;     // Moves walked by the last solve, over all attempts
+    private int attempts;  // Preferred directions tried by the last solve
+    private int stackSize; // Cells on the loop-free walk of the current attempt
+
+    // Constructor sets the algorithm name
+    public PledgeSolver(Maze maze) {
+        super(maze);
+        this.algorithmName = "Pledge";
+    }
+
+    /**
+     * Walks with the Pledge rule from the start, once per preferred direction,
+     * until the end is reached or every direction has run into a repeated state.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no path found
+     */
+    @Override
+    public long solve(boolean visualize) {
+        SolverWorkspace workspace = beginSearch();
+        moves = 0;
+        attempts = 0;
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: the workspace was not touched
+
+        // Start and end in different components: every attempt would end in a loop
+        if (!ConnectivityIndex.isSolvable(maze)) return -1;
+
+        int cols = maze.getCols();
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int end = maze.getEndPos().y * cols + maze.getEndPos().x;
+        int cellCount = maze.getRows() * cols;
+        if (seen.length < (cellCount + 1) / 2) {
+            seen = new byte[(cellCount + 1) / 2];
+        }
+
+        int firstDirection = directionTowards(start, end);
+        for (int attempt = 0; attempt < 4; attempt++) {
+            attempts++;
+            Arrays.fill(seen, 0, (cellCount + 1) / 2, (byte) 0);
+            int reached = walk(workspace, start, end, (firstDirection + attempt) & 3);
+            if (reached == end) {
+                storePath(end);
+                return System.currentTimeMillis() - startTime;
+            }
+            if (reached >= 0) return stopSearch(reached); // Out of budget: the loop-free walk so far
+        }
+
+        return -1; // Every preferred direction ended up walking in circles
+    }
+
+    // One Pledge walk with the given preferred direction; returns the end if it got there,
+    // the current cell if the budget ran out, or -1 if it started walking in circles
+    private int walk(SolverWorkspace workspace, int start, int end, int preferred) {
+        int cols = maze.getCols();
+        int[] stack = workspace.getQueue(); // Loop-free walk from the start; cells are stored at their distance
+        stackSize = 0;
+        push(workspace, stack, start);
+
+        int cell = start;
+        int heading = preferred;
+        int turns = 0; // Sum of turns since the wall was first touched; 0 means walking freely
+
+        while (cell != end) {
+            if (!expand()) return cell;
+            if (!markState(cell, heading)) return -1; // Same cell and heading as before: a loop
+
+            int x = cell % cols;
+            int y = cell / cols;
+            int left = (heading + 3) & 3;
+            if (turns != 0 && maze.isOpen(x + DX[left], y + DY[left])) {
+                heading = left; // Following the wall: keep the left hand on it
+                turns--;
+            } else if (!maze.isOpen(x + DX[heading], y + DY[heading])) {
+                heading = (heading + 1) & 3; // Blocked: turn right and (keep) following the wall
+                turns++;
+                continue;
+            }
+
+            int next = (y + DY[heading]) * cols + x + DX[heading];
+            push(workspace, stack, next);
+            moves++;
+            int partner = maze.getTeleportPartner(next);
+            if (partner >= 0) {
+                push(workspace, stack, partner); // Take the hop on arrival; it is a passage of its own
+                next = partner;
+                moves++;
+            }
+            cell = next;
+        }
+        return end;
+    }
+
+    // Appends a cell to the walk, or cuts the walk back to it if it is already on it
+    private void push(SolverWorkspace workspace, int[] stack, int cell) {
+        if (workspace.isReached(cell)) {
+            int position = workspace.getDistance(cell);
+            if (position < stackSize && stack[position] == cell) {
+                stackSize = position + 1; // The walk came back to this cell: drop the loop it made
+                return;
+            }
+        }
+        workspace.reach(cell, stackSize, stackSize > 0 ? stack[stackSize - 1] : -1);
+        workspace.settle(cell);
+        stack[stackSize++] = cell;
+    }
+
+    // Marks the (cell, heading) state as walked; returns false if it already was
+    private boolean markState(int cell, int heading) {
+        int bit = 1 << ((cell & 1) * 4 + heading);
+        if ((seen[cell >> 1] & bit) != 0) return false;
+        seen[cell >> 1] |= (byte) bit;
+        return true;
+    }
+
+    // The workspace, plus the state marks
+    @Override
+    protected long estimateMemoryBytes() {
+        return super.estimateMemoryBytes() + ((long) maze.getRows() * maze.getCols() + 1) / 2;
+    }
+
+    // Grid direction that points most directly from one cell towards another
+    private int directionTowards(int from, int to) {
+        int cols = maze.getCols();
+        int dx = to % cols - from % cols;
+        int dy = to / cols - from / cols;
+        if (Math.abs(dx) >= Math.abs(dy)) {
+            return dx >= 0 ? 1 : 3;
+        }
+        return dy >= 0 ? 2 : 0;
+    }
+
+    // Moves walked by the last solve, over all attempts
+    public int getMoves() {
+        return moves;
+    }
+
+    // Number of preferred directions the last solve tried
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,447 @@
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SMAStarSolver runs simplified memory-bounded A* (SMA*, Russell 1992) in a
+ * fixed pool of search nodes. It behaves like A* until the pool is full; then,
+ * to make room for a new node, it forgets the worst leaf (highest f, shallowest
+ * first) and backs that leaf's f up into its parent. A parent with forgotten
+ * children goes back on the open list under the lowest forgotten f, and
+ * regenerates them if that part of the maze becomes the most promising again;
+ * the children it still holds are not generated twice. Subtrees that turn out
+ * to be dead ends are released right away. Among equal f the deepest node is
+ * expanded first, so ties make progress towards the end.
+ *
+ * As long as the cheapest path fits in the pool it returns the same costs as
+ * A*, with more work the tighter the pool. A path longer than the pool is
+ * dropped; if a cheaper path may have been dropped that way, the path found is
+ * only the best that fit, and the solve keeps it with status MEMORY_LIMIT
+ * rather than SOLVED. If none fits it gives up with MEMORY_LIMIT instead of
+ * running out of heap, which on a maze with many loops can take long enough
+ * that a time limit is worth setting. The pool size comes from the
+ * SolveBudget's memory limit when there is one. No visited marks are kept:
+ * getVisited() shows the cells the pool's table holds a node for when the
+ * solve ends.
+ *
+ * Moves cost as in CostModel.DEFAULT and a teleport is an extra edge to its
+ * partner, as for Dial's algorithm; h is a {@link TeleportHeuristic}, which
+ * stays admissible when a teleport is a shortcut.
+ */
+public class SMAStarSolver extends MazeSolver {
+    // Up, Right, Down, Left
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    public static final int DEFAULT_MAX_NODES = 1 << 16;
+    private static final int MIN_NODES = 16;
+    // Seven ints and four bytes per node, two table entries of three ints, and up to four heap entries of twelve bytes
+    private static final int BYTES_PER_NODE = 7 * 4 + 4 + 2 * 12 + 4 * 12;
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final int maxNodes; // Pool size without a memory budget
+
+    // The node pool; a node is a cell reached along one particular path
+    private int[] nodeCell = new int[0];
+    private int[] nodeCost = new int[0];      // g
+    private int[] nodeF = new int[0];         // Open-list f: the node's own f, or its forgotten children's once expanded
+    private int[] nodeBaseF = new int[0];     // Own f (g + h, at least the parent's), the bound its children start from
+    private int[] nodeParent = new int[0];
+    private int[] nodeChildren = new int[0];  // Children currently in the pool
+    private int[] nodeForgotten = new int[0]; // Lowest f of the forgotten children, INFINITY if none
+    private byte[] nodeForgottenMoves = new byte[0]; // Bit per move whose child was forgotten
+    private byte[] nodeMove = new byte[0];       // Move from the parent that reached the node, 4 for a teleport
+    private boolean[] nodeExpanded = new boolean[0]; // Successors generated: later expansions only regenerate forgotten ones
+    private boolean[] nodeOpen = new boolean[0]; // On the open list; only the entry matching its f and g is live
+    private int[] freeNodes = new int[0];
+    private int freeCount;
+
+    // Direct-mapped table of the cheapest node in the pool for a cell, to skip duplicate paths
+    private int[] tableCell = new int[0];
+    private int[] tableCost = new int[0];
+    private int[] tableNode = new int[0]; // -1 for an empty slot
+
+    // Open list by (f, deepest first) and, for eviction, by (highest f, shallowest first); g stands in for depth
+    private final LongMinHeap open = new LongMinHeap(64);
+    private final LongMinHeap worst = new LongMinHeap(64);
+    private long[] scratchKeys = new long[0]; // Live heap entries while a heap is compacted
+    private int[] scratchNodes = new int[0];
+
+    private final int[] successorMove = new int[5]; // Successors of the node being expanded, sorted by f
+    private final int[] successorCell = new int[5];
+    private final int[] successorCost = new int[5];
+    private final int[] successorF = new int[5];
+
+    private boolean poolFilled; // Whether the pool holds the last solve's nodes
+    private int droppedF;     // Lowest f of the paths dropped because the pool could not hold them, INFINITY if none
+    private long evictions;   // Nodes forgotten by the last solve to make room
+    private TeleportHeuristic teleportHeuristic; // Bound for the maze and end being solved
+
+    public SMAStarSolver(Maze maze) {
+        this(maze, DEFAULT_MAX_NODES);
+    }
+
+    public SMAStarSolver(Maze maze, int maxNodes) {
+        super(maze);
+        if (maxNodes < MIN_NODES) {
+            throw new IllegalArgumentException("Need at least " + MIN_NODES + " nodes: " + maxNodes);
+        }
+        this.maxNodes = maxNodes;
+        this.algorithmName = "SMA*";
+    }
+
+    /**
+     * Searches within the node pool until the end is expanded or nothing is left open.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no path found
+     */
+    @Override
+    public long solve(boolean visualize) {
+        resetWithoutVisited(); // Visited marks would grow with the maze; getVisited() reads the pool instead
+        poolFilled = false;
+        droppedF = INFINITY;
+        evictions = 0;
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Not even the smallest pool fits the budget
+        teleportHeuristic = TeleportHeuristic.of(maze);
+
+        int cols = maze.getCols();
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int goal = maze.getEndPos().y * cols + maze.getEndPos().x;
+        initialize(poolSize());
+        poolFilled = true;
+
+        int root = allocate(start, 0, heuristic(start), -1, 0);
+        insertOpen(root);
+
+        while (true) {
+            int node = pollOpen();
+            if (node < 0) break;
+            int cell = nodeCell[node];
+            if (cell == goal) {
+                if (nodeCost[node] > droppedF) {
+                    stopEarly(SolveStatus.MEMORY_LIMIT); // A cheaper path may have been dropped: this one is only the best that fit
+                    return stopSearch(pathTo(node));
+                }
+                path = pathTo(node);
+                countPathSteps();
+                return System.currentTimeMillis() - startTime;
+            }
+            if (!expand()) return stopSearch(pathTo(node)); // Out of budget: path so far
+            expandNode(node);
+        }
+
+        if (droppedF < INFINITY) stopEarly(SolveStatus.MEMORY_LIMIT); // There may be a path, just not one that fits
+        return -1;
+    }
+
+    // Generates the successors of a node and keeps as many of them as the pool allows
+    private void expandNode(int node) {
+        int cols = maze.getCols();
+        int cell = nodeCell[node];
+        int forgottenF = nodeForgotten[node];
+        int forgottenMoves = nodeForgottenMoves[node];
+        nodeForgotten[node] = INFINITY; // Everything forgotten below it is regenerated now
+        nodeForgottenMoves[node] = 0;
+        int moves = nodeExpanded[node] ? forgottenMoves : 0x1F; // The others are still held, or led nowhere
+        nodeExpanded[node] = true;
+        int count = 0;
+        for (int move = 0; move < 5; move++) {
+            if ((moves & (1 << move)) == 0) continue;
+            int next;
+            int cost;
+            if (move == 4) {
+                next = maze.getTeleportPartner(cell);
+                cost = CostModel.DEFAULT.getTeleportCost();
+            } else {
+                int nx = cell % cols + DX[move];
+                int ny = cell / cols + DY[move];
+                next = maze.isOpen(nx, ny) ? ny * cols + nx : -1;
+                cost = next >= 0 ? CostModel.DEFAULT.enterCost(maze.getCell(nx, ny)) : 0;
+            }
+            if (next < 0) continue;
+            int g = nodeCost[node] + cost;
+            if (inPool(next, g)) continue; // Already in the pool at no more cost (this includes going back) // Going back: a path through it again is never cheaper
+
+            // Insertion sort by f: cheap successors get the free nodes first
+            int f = Math.max(nodeBaseF[node], g + heuristic(next));
+            if ((forgottenMoves & (1 << move)) != 0) {
+                f = Math.max(f, forgottenF); // Searched before: keep the bound it was forgotten with
+            }
+            int i = count++;
+            while (i > 0 && successorF[i - 1] > f) {
+                successorMove[i] = successorMove[i - 1];
+                successorCell[i] = successorCell[i - 1];
+                successorCost[i] = successorCost[i - 1];
+                successorF[i] = successorF[i - 1];
+                i--;
+            }
+            successorMove[i] = move;
+            successorCell[i] = next;
+            successorCost[i] = g;
+            successorF[i] = f;
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (freeCount == 0) {
+                int leaf = worstLeaf();
+                if (leaf < 0 || worstKey(nodeF[leaf], nodeCost[leaf]) >= worstKey(successorF[i], successorCost[i])) {
+                    // Nothing worse to forget: this successor and the rest are forgotten instead
+                    nodeForgotten[node] = Math.min(nodeForgotten[node], successorF[i]);
+                    for (int rest = i; rest < count; rest++) {
+                        nodeForgottenMoves[node] |= (byte) (1 << successorMove[rest]);
+                    }
+                    break;
+                }
+                evict(leaf, nodeF[leaf]);
+            }
+            int child = allocate(successorCell[i], successorCost[i], successorF[i], node, successorMove[i]);
+            nodeChildren[node]++;
+            insertOpen(child);
+        }
+
+        if (nodeChildren[node] == 0 && nodeForgotten[node] < INFINITY) {
+            if (worstLeaf() >= 0) {
+                evict(node, nodeForgotten[node]); // Better leaves hold the pool: forget this one until they are done
+            } else {
+                droppedF = Math.min(droppedF, nodeForgotten[node]); // The pool is nothing but the path to this node: it cannot go deeper
+                release(node);
+            }
+        } else if (nodeChildren[node] == 0) {
+            release(node); // Dead end
+        } else if (nodeForgotten[node] < INFINITY) {
+            reopen(node);
+        }
+    }
+
+    // Forgets a leaf and backs its f up into its parent, which goes back on the open list
+    private void evict(int leaf, int backedUp) {
+        evictions++;
+        int parent = nodeParent[leaf];
+        free(leaf);
+        if (parent < 0) return;
+        nodeChildren[parent]--;
+        nodeForgotten[parent] = Math.min(nodeForgotten[parent], backedUp);
+        nodeForgottenMoves[parent] |= (byte) (1 << nodeMove[leaf]);
+        reopen(parent);
+    }
+
+    // Frees a node that leads nowhere, and every ancestor that is left with nothing to offer
+    private void release(int node) {
+        while (node >= 0) {
+            int parent = nodeParent[node];
+            free(node);
+            if (parent < 0) return;
+            nodeChildren[parent]--;
+            if (nodeOpen[parent]) {
+                if (nodeChildren[parent] == 0) markLeaf(parent);
+                return;
+            }
+            if (nodeChildren[parent] > 0 || nodeForgotten[parent] < INFINITY) return;
+            node = parent;
+        }
+    }
+
+    // Puts an expanded node with forgotten children back on the open list under their lowest f
+    private void reopen(int node) {
+        int f = Math.max(nodeBaseF[node], nodeForgotten[node]);
+        if (nodeOpen[node] && f == nodeF[node]) { // Its live entry is still right
+            if (nodeChildren[node] == 0) markLeaf(node);
+            return;
+        }
+        nodeF[node] = f;
+        insertOpen(node);
+    }
+
+    // Makes an open node that just lost its last child evictable again; worstLeaf() dropped its entry while it had children
+    private void markLeaf(int node) {
+        worst.add(worstKey(nodeF[node], nodeCost[node]), node);
+        if (worst.size() > 2 * nodeCell.length) compact(worst, true);
+    }
+
+    private int allocate(int cell, int cost, int f, int parent, int move) {
+        int node = freeNodes[--freeCount];
+        nodeCell[node] = cell;
+        nodeCost[node] = cost;
+        nodeF[node] = f;
+        nodeBaseF[node] = f;
+        nodeParent[node] = parent;
+        nodeChildren[node] = 0;
+        nodeForgotten[node] = INFINITY;
+        nodeForgottenMoves[node] = 0;
+        nodeMove[node] = (byte) move;
+        nodeExpanded[node] = false;
+        nodeOpen[node] = false;
+
+        int slot = slotOf(cell);
+        tableCell[slot] = cell;
+        tableCost[slot] = cost;
+        tableNode[slot] = node;
+        return node;
+    }
+
+    private void free(int node) {
+        int slot = slotOf(nodeCell[node]);
+        if (tableNode[slot] == node) tableNode[slot] = -1;
+        nodeOpen[node] = false; // Any heap entries of the node are stale from now on
+        freeNodes[freeCount++] = node;
+    }
+
+    // True if the pool holds a node for the cell with at most the given cost
+    private boolean inPool(int cell, int cost) {
+        int slot = slotOf(cell);
+        return tableNode[slot] >= 0 && tableCell[slot] == cell && tableCost[slot] <= cost;
+    }
+
+    private int slotOf(int cell) {
+        return (cell * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(tableCell.length));
+    }
+
+    // Adds a node to the open list under its current f; an older entry of the same node turns stale
+    private void insertOpen(int node) {
+        nodeOpen[node] = true;
+        open.add(openKey(nodeF[node], nodeCost[node]), node);
+        worst.add(worstKey(nodeF[node], nodeCost[node]), node);
+        if (open.size() > 2 * nodeCell.length) compact(open, false);
+        if (worst.size() > 2 * nodeCell.length) compact(worst, true);
+    }
+
+    // Takes the open node with the lowest f, or returns -1 if there is none
+    private int pollOpen() {
+        while (!open.isEmpty()) {
+            long key = open.peekKey();
+            int node = open.poll();
+            if (isLive(node, key, false)) {
+                nodeOpen[node] = false;
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    // Open leaf with the highest f (shallowest first among equals), or -1 if there is none
+    private int worstLeaf() {
+        while (!worst.isEmpty()) {
+            int node = worst.peekValue();
+            if (isLive(node, worst.peekKey(), true) && nodeChildren[node] == 0) return node;
+            worst.poll(); // Stale, or an open node that still has children in the pool
+        }
+        return -1;
+    }
+
+    private static long openKey(int f, int cost) {
+        return ((long) f << 32) | (0xFFFFFFFFL - cost);
+    }
+
+    // Smaller is worse: a leaf is evicted before anything with a larger key
+    private static long worstKey(int f, int cost) {
+        return ((long) (INFINITY - f) << 32) | cost;
+    }
+
+    // True if a heap entry belongs to an open node and still matches its f and g
+    private boolean isLive(int node, long key, boolean worstHeap) {
+        if (!nodeOpen[node]) return false;
+        return key == (worstHeap ? worstKey(nodeF[node], nodeCost[node]) : openKey(nodeF[node], nodeCost[node]));
+    }
+
+    // Drops the stale entries of a heap, so the heaps stay within the memory the pool was sized for
+    private void compact(LongMinHeap heap, boolean worstHeap) {
+        int count = 0;
+        while (!heap.isEmpty()) {
+            long key = heap.peekKey();
+            int node = heap.poll();
+            if (isLive(node, key, worstHeap)) {
+                nodeOpen[node] = false; // Keeps a second entry of a reused node from matching as well
+                scratchKeys[count] = key;
+                scratchNodes[count++] = node;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            nodeOpen[scratchNodes[i]] = true;
+            heap.add(scratchKeys[i], scratchNodes[i]);
+        }
+    }
+
+    // Largest pool that fits the memory budget, at most maxNodes
+    private int poolSize() {
+        return (int) Math.min(maxNodes, getBudget().getMaxMemoryBytes() / BYTES_PER_NODE);
+    }
+
+    // Sizes the pool and its table, and frees every node
+    private void initialize(int nodes) {
+        if (nodeCell.length != nodes) {
+            nodeCell = new int[nodes];
+            nodeCost = new int[nodes];
+            nodeF = new int[nodes];
+            nodeBaseF = new int[nodes];
+            nodeParent = new int[nodes];
+            nodeChildren = new int[nodes];
+            nodeForgotten = new int[nodes];
+            nodeForgottenMoves = new byte[nodes];
+            nodeMove = new byte[nodes];
+            nodeExpanded = new boolean[nodes];
+            nodeOpen = new boolean[nodes];
+            freeNodes = new int[nodes];
+            int slots = Integer.highestOneBit(nodes) * 4; // Two to four slots per node
+            tableCell = new int[slots];
+            tableCost = new int[slots];
+            tableNode = new int[slots];
+            scratchKeys = new long[nodes];
+            scratchNodes = new int[nodes];
+        }
+        java.util.Arrays.fill(tableNode, -1);
+        java.util.Arrays.fill(nodeOpen, false);
+        for (int i = 0; i < nodes; i++) {
+            freeNodes[i] = nodes - 1 - i;
+        }
+        freeCount = nodes;
+        open.clear();
+        worst.clear();
+    }
+
+    // Cells the table holds a pool node for; a collision can hide a cell that still has one
+    @Override
+    public boolean[][] getVisited() {
+        boolean[][] marks = super.getVisited(); // All false: the search itself keeps no marks
+        if (poolFilled) {
+            int cols = maze.getCols();
+            for (int slot = 0; slot < tableCell.length; slot++) {
+                if (tableNode[slot] >= 0) marks[tableCell[slot] / cols][tableCell[slot] % cols] = true;
+            }
+        }
+        return marks;
+    }
+
+    // The pool is the only memory that depends on the settings; a budget below the smallest pool refuses the solve
+    @Override
+    protected long estimateMemoryBytes() {
+        return (long) MIN_NODES * BYTES_PER_NODE;
+    }
+
+    private List<Point> pathTo(int node) {
+        int cols = maze.getCols();
+        List<Point> result = new ArrayList<>();
+        for (; node >= 0; node = nodeParent[node]) {
+            result.add(new Point(nodeCell[node] % cols, nodeCell[node] / cols));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // Lower bound on the cost to the end, teleports included
+    private int heuristic(int cell) {
+        return teleportHeuristic.estimate(cell % maze.getCols(), cell / maze.getCols());
+    }
+
+    // Nodes forgotten by the last solve to make room for better ones
+    public long getEvictions() {
+        return evictions;
+    }
+
+    // Size of the node pool used by the last solve
+    public int getPoolSize() {
+        return nodeCell.length;
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * SolveBudget limits a single solve: a wall-clock time limit, a maximum number
+ * of expanded cells and a maximum estimated memory use. A solver that runs
+ * out of budget stops early, returns -1 and reports why in getStatus(); what it
+ * found so far (visited cells, partial path) stays readable.
+ *
+ * A budget is immutable and can be shared by any number of solvers; the time
+ * limit starts counting when each solve starts. Long.MAX_VALUE means no limit.
+ */
+public class SolveBudget {
+    // No limits at all: the default of every solver
+    public static final SolveBudget UNLIMITED = new SolveBudget(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final long timeLimitNanos;  // Wall-clock time a solve may take
+    private final long maxExpansions;   // Cells a solve may expand
+    private final long maxMemoryBytes;  // Largest memory estimate a solve may start with
+
+    public SolveBudget(long timeLimitNanos, long maxExpansions, long maxMemoryBytes) {
+        if (timeLimitNanos < 0 || maxExpansions < 0 || maxMemoryBytes < 0) {
+            throw new IllegalArgumentException("Limits must not be negative: time=" + timeLimitNanos
+                    + "ns, expansions=" + maxExpansions + ", memory=" + maxMemoryBytes);
+        }
+        this.timeLimitNanos = timeLimitNanos;
+        this.maxExpansions = maxExpansions;
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    // Same budget with the time limit replaced
+    public SolveBudget withTimeLimitMillis(long millis) {
+        return new SolveBudget(millis >= Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE : millis * 1_000_000,
+                maxExpansions, maxMemoryBytes);
+    }
+
+    // Same budget with the expansion limit replaced
+    public SolveBudget withMaxExpansions(long expansions) {
+        return new SolveBudget(timeLimitNanos, expansions, maxMemoryBytes);
+    }
+
+    // Same budget with the memory limit replaced
+    public SolveBudget withMaxMemoryBytes(long bytes) {
+        return new SolveBudget(timeLimitNanos, maxExpansions, bytes);
+    }
+
+    public long getTimeLimitNanos() {
+        return timeLimitNanos;
+    }
+
+    public long getMaxExpansions() {
+        return maxExpansions;
+    }
+
+    public long getMaxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    public boolean hasTimeLimit() {
+        return timeLimitNanos != Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,113 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * SolveClient is a small loopback client for SolveServer, used to drive the
+ * service from scripts and to check it end to end.
+ */
+public class SolveClient {
+    private final String baseUrl; // e.g. http://127.0.0.1:8080
+
+    public SolveClient(int port) {
+        this.baseUrl = "http://127.0.0.1:" + port;
+    }
+
+    // Uploads a maze file under the given id
+    public String loadMaze(String id, File file) throws IOException {
+        return request("PUT", "/mazes/" + encode(id), Files.readAllBytes(file.toPath()));
+    }
+
+    // Removes a maze from the server
+    public String unloadMaze(String id) throws IOException {
+        return request("DELETE", "/mazes/" + encode(id), null);
+    }
+
+    // Runs one query and returns its JSON result line
+    public String solve(String mazeId, String algorithm, boolean includePath) throws IOException {
+        return request("GET", "/solve?maze=" + encode(mazeId) + "&algorithm=" + encode(algorithm)
+                + "&path=" + includePath, null);
+    }
+
+    /**
+     * Submits a batch of "mazeId algorithm" queries and hands every result line to
+     * the consumer as soon as the server streams it.
+     */
+    public void solveBatch(List<String> queries, boolean includePath, Consumer<String> onResult) throws IOException {
+        HttpURLConnection connection = open("POST", "/batch?path=" + includePath);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(String.join("\n", queries).getBytes(StandardCharsets.UTF_8));
+        }
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                onResult.accept(line);
+            }
+        }
+    }
+
+    private String request(String method, String path, byte[] body) throws IOException {
+        HttpURLConnection connection = open(method, path);
+        if (body != null) {
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+
+        // Error responses still carry a JSON body, so read whichever stream has it
+        InputStream stream = connection.getResponseCode() < 400
+                ? connection.getInputStream() : connection.getErrorStream();
+        try (InputStream in = stream) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+    }
+
+    private HttpURLConnection open(String method, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(baseUrl + path).toURL().openConnection();
+        connection.setRequestMethod(method);
+        if (method.equals("PUT") || method.equals("POST")) {
+            connection.setDoOutput(true);
+        }
+        return connection;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Loopback check: starts a server on a free port, loads the given maze files,
+     * solves each with every algorithm in one streamed batch, then shuts down.
+     * Usage: java SolveClient mazeFile...
+     */
+    public static void main(String[] args) throws IOException {
+        SolveServer server = new SolveServer(0, Runtime.getRuntime().availableProcessors());
+        server.start();
+        try {
+            SolveClient client = new SolveClient(server.getPort());
+            List<String> queries = new ArrayList<>();
+            for (String arg : args) {
+                File file = new File(arg);
+                System.out.println(client.loadMaze(file.getName(), file));
+                for (String algorithm : SolverFactory.getNames()) {
+                    queries.add(file.getName() + " " + algorithm);
+                }
+            }
+            client.solveBatch(queries, false, System.out::println);
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SolveExecutor runs many short solves at once on virtual threads. Every
+ * submitted solve gets its own virtual thread right away, so submitting costs
+ * no platform thread; a fair semaphore then lets at most maxConcurrent of them
+ * solve at a time, and the rest wait in submission order. That wait is the
+ * queue, and its depth, peak and waiting time are counted.
+ *
+ * Virtual threads are created per task, so a per-thread SolverWorkspace would be
+ * allocated and sized again for every solve. Instead each running solve borrows
+ * a workspace from a pool and returns it when it is done; the pool never holds
+ * more than maxConcurrent of them, and once they have grown to the maze size
+ * the solves allocate nothing.
+ *
+ * {@link #solveAll(Maze, List, SolveBudget, boolean)} fans one maze out to
+ * several algorithms and waits for all of them. The solves are scoped to that
+ * call: if one fails or the caller is interrupted, the others are cancelled
+ * (through a shared CancellationToken once they run), and none is still running
+ * when the call returns or throws. StructuredTaskScope would do the same, but
+ * it is still a preview API. Its solves need permits of their own, so it must
+ * not be called from a task that holds one: with maxConcurrent 1 that task
+ * would wait forever. Code that loops over solveAll runs through
+ * {@link #coordinate(Callable)}, which takes no permit.
+ *
+ * Solvers on different threads must not share a mutable Maze; solve a
+ * {@link MazeSnapshot} instead.
+ */
+public class SolveExecutor implements AutoCloseable {
+    private final int maxConcurrent;
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;    // One per solve allowed to run at the same time
+    private final ThreadLocal<Boolean> holdsPermit = new ThreadLocal<>(); // Set while a thread runs a task under a permit
+    private final ConcurrentLinkedDeque<SolverWorkspace> workspaces = new ConcurrentLinkedDeque<>(); // Idle, most recently used first
+
+    private final AtomicInteger queued = new AtomicInteger();     // Submitted tasks waiting for a permit
+    private final AtomicInteger peakQueued = new AtomicInteger(); // Highest queue depth seen
+    private final AtomicInteger running = new AtomicInteger();    // Tasks holding a permit
+    private final AtomicInteger workspacesCreated = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();             // Threw, or was cancelled while queued
+    private final LongAdder started = new LongAdder();            // Tasks that got a permit
+    private final LongAdder queueWaitNanos = new LongAdder();     // Total time from submission to the permit
+
+    /**
+     * What one solve returned: the solver (path, steps, status and so on), the
+     * value solve() returned, and how long the solve waited for a permit.
+     */
+    public static class Result<S extends MazeSolver> {
+        private final S solver;
+        private final long timeMillis;
+        private final long queueWaitNanos;
+
+        Result(S solver, long timeMillis, long queueWaitNanos) {
+            this.solver = solver;
+            this.timeMillis = timeMillis;
+            this.queueWaitNanos = queueWaitNanos;
+        }
+
+        public S getSolver() {
+            return solver;
+        }
+
+        // Time solve() reported in milliseconds, or -1 if it found no path
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        public long getQueueWaitNanos() {
+            return queueWaitNanos;
+        }
+    }
+
+    // An executor that runs as many solves at a time as there are cores
+    public SolveExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public SolveExecutor(int maxConcurrent) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Need at least one concurrent solve: " + maxConcurrent);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    // Runs a solve on a pooled workspace; getVisited() on the solver only works afterwards if keepVisited is set
+    public <S extends MazeSolver> Future<Result<S>> submit(S solver, boolean keepVisited) {
+        return schedule(threads, waitNanos -> solve(solver, keepVisited, waitNanos));
+    }
+
+    // Runs any task under the concurrency limit (for solves that do more than call solve(), such as animated ones)
+    public <T> Future<T> submit(Callable<T> task) {
+        return schedule(threads, waitNanos -> task.call());
+    }
+
+    // Runs a task that only waits on other solves (such as a loop over solveAll) on its own virtual thread, without a permit
+    public <T> Future<T> coordinate(Callable<T> task) {
+        return threads.submit(task);
+    }
+
+    /**
+     * Solves the maze with each algorithm concurrently, every solver with the
+     * given budget, and returns the results in the order of the algorithms once
+     * all of them are done. If a solve throws, the others are cancelled and its
+     * exception is rethrown as an ExecutionException.
+     *
+     * Must not be called from a task submitted here: that task holds a permit
+     * while the solves wait for theirs, which deadlocks once the permits run
+     * out. Such a call throws IllegalStateException; run the caller through
+     * {@link #coordinate(Callable)} or on a thread of its own instead.
+     */
+    public List<Result<MazeSolver>> solveAll(Maze maze, List<String> algorithms, SolveBudget budget,
+                                             boolean keepVisited) throws InterruptedException, ExecutionException {
+        if (holdsPermit.get() != null) {
+            throw new IllegalStateException("solveAll called from a task holding a permit; use coordinate() instead");
+        }
+        CancellationToken scope = new CancellationToken(); // Cancels every solve of this call at once
+        List<MazeSolver> solvers = new ArrayList<>(algorithms.size());
+        for (String algorithm : algorithms) {
+            MazeSolver solver = SolverFactory.create(algorithm, maze);
+            if (solver == null) throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+            solver.setBudget(budget);
+            solver.setCancellationToken(scope);
+            solvers.add(solver);
+        }
+
+        // The call's own virtual threads: closing them waits for every solve started here
+        try (ExecutorService scopeThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Result<MazeSolver>>> futures = new ArrayList<>(solvers.size());
+            try {
+                for (MazeSolver solver : solvers) {
+                    futures.add(schedule(scopeThreads, waitNanos -> solve(solver, keepVisited, waitNanos)));
+                }
+                List<Result<MazeSolver>> results = new ArrayList<>(futures.size());
+                for (Future<Result<MazeSolver>> future : futures) {
+                    results.add(future.get());
+                }
+                return results;
+            } catch (InterruptedException | ExecutionException | RuntimeException e) {
+                scope.cancel(); // Running solves stop at their next budget check
+                for (Future<Result<MazeSolver>> future : futures) {
+                    future.cancel(true); // Queued ones stop waiting for a permit
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Work of one task, given how long it waited for its permit
+    private interface Task<T> {
+        T run(long queueWaitNanos) throws Exception;
+    }
+
+    /**
+     * Starts a virtual thread on the given executor that waits for a permit and
+     * then runs the task. The task counts as queued from here until it gets the
+     * permit or is cancelled. It is run through execute(), not submit(), so the
+     * executor's close() waits for its thread even if the Future was cancelled.
+     */
+    private <T> Future<T> schedule(ExecutorService on, Task<T> task) {
+        long submitTime = System.nanoTime();
+        AtomicBoolean dequeued = new AtomicBoolean();
+        FutureTask<T> future = new FutureTask<>(() -> runWithPermit(task, submitTime, dequeued)) {
+            @Override
+            protected void done() {
+                if (isCancelled()) leaveQueue(dequeued); // Cancelled before its thread got a permit
+            }
+        };
+        submitted.increment();
+        peakQueued.accumulateAndGet(queued.incrementAndGet(), Math::max);
+        try {
+            on.execute(future);
+        } catch (RejectedExecutionException e) {
+            leaveQueue(dequeued);
+            throw e;
+        }
+        return future;
+    }
+
+    // Takes a task off the queue count once, whether it got its permit or was cancelled first
+    private void leaveQueue(AtomicBoolean dequeued) {
+        if (dequeued.compareAndSet(false, true)) {
+            queued.decrementAndGet();
+        }
+    }
+
+    private <T> T runWithPermit(Task<T> task, long submitTime, AtomicBoolean dequeued) throws Exception {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            failed.increment(); // Cancelled before it ran
+            throw e;
+        } finally {
+            leaveQueue(dequeued);
+        }
+        long waitNanos = System.nanoTime() - submitTime;
+        started.increment();
+        queueWaitNanos.add(waitNanos);
+        running.incrementAndGet();
+        holdsPermit.set(Boolean.TRUE);
+        try {
+            T result = task.run(waitNanos);
+            completed.increment();
+            return result;
+        } catch (Exception | Error e) {
+            failed.increment();
+            throw e;
+        } finally {
+            holdsPermit.remove();
+            running.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    // One solve on a borrowed workspace, which goes back to the pool before the result is handed out
+    private <S extends MazeSolver> Result<S> solve(S solver, boolean keepVisited, long waitNanos) {
+        SolverWorkspace workspace = workspaces.pollFirst();
+        if (workspace == null) {
+            workspace = new SolverWorkspace();
+            workspacesCreated.incrementAndGet();
+        }
+        try {
+            solver.setWorkspace(workspace);
+            long timeMillis = solver.solve(false);
+            if (keepVisited) {
+                solver.getVisited(); // Copies the marks out of the workspace before another solve reuses it
+            }
+            return new Result<>(solver, timeMillis, waitNanos);
+        } finally {
+            solver.setWorkspace(null);
+            workspaces.offerFirst(workspace);
+        }
+    }
+
+    // Stops taking tasks and waits for the submitted ones to finish
+    @Override
+    public void close() {
+        threads.close();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    // Tasks submitted but still waiting for a permit
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public int getPeakQueueDepth() {
+        return peakQueued.get();
+    }
+
+    // Tasks currently running
+    public int getRunning() {
+        return running.get();
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    // Workspaces allocated so far; stays at most maxConcurrent
+    public int getWorkspacesCreated() {
+        return workspacesCreated.get();
+    }
+
+    // Average time a task waited for a permit, in microseconds
+    public double getAverageQueueWaitMicros() {
+        long count = started.sum();
+        return count == 0 ? 0 : queueWaitNanos.sum() / 1000.0 / count;
+    }
+
+    public String describeStats() {
+        return String.format("%d submitted, %d completed, %d failed, %d running, queue %d (peak %d), "
+                        + "avg wait %.1f us, %d workspaces, limit %d",
+                getSubmitted(), getCompleted(), getFailed(), getRunning(), getQueueDepth(), getPeakQueueDepth(),
+                getAverageQueueWaitMicros(), getWorkspacesCreated(), maxConcurrent);
+    }
+}
@@ -0,0 +1,440 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.awt.Point;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SolveServer is a long-running local solve service. Mazes are loaded once into
+ * a registry keyed by id and then answer any number of path queries over HTTP on
+ * the loopback interface, using the regular MazeSolver implementations.
+ *
+ * Registered mazes are kept as {@link MazeSnapshot}s, which cannot be modified,
+ * so request threads share them without copying and build each derived index
+ * only once per maze. Loading under an existing id replaces the registry entry
+ * with a new snapshot. Each query gets its own solver instance. Clients can
+ * only upload maze text; files on the host are registered from the command
+ * line, so a request cannot make the service read an arbitrary path.
+ *
+ * Endpoints (responses are JSON, one object per line):
+ *   PUT    /mazes/{id}            body = maze text
+ *   GET    /mazes/{id}            size, start and end of a loaded maze
+ *   DELETE /mazes/{id}            unloads a maze
+ *   GET    /solve?maze=&algorithm=[&path=true|compact][&timeoutMs=][&maxExpansions=]
+ *   POST   /batch[?path=true|compact][&timeoutMs=][&maxExpansions=]
+ *                                 body = one "mazeId algorithm" query per line;
+ *                                 results are streamed back as each one finishes
+ *
+ * path=true lists the path as [x,y] pairs; path=compact sends it as Base64 of
+ * CompactPath.writeTo in run-length mode, a few bytes per corridor.
+ *
+ * timeoutMs and maxExpansions give every solve of the request a SolveBudget. A
+ * solve that runs out of it answers with status "stopped", the reason, and the
+ * partial path up to where the search got (pathLength, and the path if asked for).
+ * A solver that throws answers with status "error" for its query only.
+ *
+ * Request bodies are capped, both by Content-Length and by the bytes actually
+ * read, and a batch takes at most MAX_BATCH_QUERIES queries; larger requests get
+ * 413 instead of filling the heap of the resident service.
+ */
+public class SolveServer {
+    private static final long MAX_MAZE_BYTES = 32L << 20;  // Maze text of an upload, about 5000x5000 cells
+    private static final long MAX_BATCH_BYTES = 1L << 20;  // Query lines of one batch
+    private static final int MAX_BATCH_QUERIES = 10_000;
+
+    private final Map<String, MazeSnapshot> registry = new ConcurrentHashMap<>(); // Loaded mazes by id
+    private final ExecutorService httpThreads;  // Threads that read requests and write responses
+    private final ExecutorService solveThreads; // Threads that run batched solves
+    private final HttpServer server;
+
+    // Creates a server on the loopback interface (port 0 picks a free port)
+    public SolveServer(int port, int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpThreads = Executors.newFixedThreadPool(threads);
+        solveThreads = Executors.newFixedThreadPool(threads);
+        server.setExecutor(httpThreads);
+    }
+
+    // Registers the endpoints and starts accepting requests (not in the constructor, which must not hand out this)
+    public void start() {
+        server.createContext("/mazes/", this::handleMaze);
+        server.createContext("/solve", this::handleSolve);
+        server.createContext("/batch", this::handleBatch);
+        server.start();
+    }
+
+    // Stops accepting requests and shuts down the worker threads
+    public void stop() {
+        server.stop(0);
+        httpThreads.shutdownNow();
+        solveThreads.shutdownNow();
+    }
+
+    // Returns the port actually bound (useful when the server was created with port 0)
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Adds or replaces a maze in the registry as a snapshot of its current layout; returns the snapshot
+    public MazeSnapshot register(String id, Maze maze) {
+        MazeSnapshot snapshot = maze.snapshot();
+        registry.put(id, snapshot);
+        return snapshot;
+    }
+
+    // Returns a loaded maze, or null if no maze has this id
+    public MazeSnapshot getMaze(String id) {
+        return registry.get(id);
+    }
+
+    // PUT/GET/DELETE /mazes/{id}
+    private void handleMaze(HttpExchange exchange) throws IOException {
+        String id = exchange.getRequestURI().getPath().substring("/mazes/".length());
+        try {
+            switch (exchange.getRequestMethod()) {
+                case "PUT":
+                case "POST": {
+                    Maze maze = new Maze();
+                    maze.loadMaze(new InputStreamReader(limitedBody(exchange, MAX_MAZE_BYTES), StandardCharsets.UTF_8));
+                    respond(exchange, 200, describe(id, register(id, maze)));
+                    break;
+                }
+                case "GET": {
+                    Maze maze = registry.get(id);
+                    if (maze == null) {
+                        respond(exchange, 404, error("Unknown maze: " + id));
+                    } else {
+                        respond(exchange, 200, describe(id, maze));
+                    }
+                    break;
+                }
+                case "DELETE":
+                    respond(exchange, registry.remove(id) != null ? 200 : 404, "{\"maze\":" + quote(id) + "}");
+                    break;
+                default:
+                    respond(exchange, 405, error("Unsupported method " + exchange.getRequestMethod()));
+            }
+        } catch (BodyTooLargeException e) {
+            respond(exchange, 413, error(e.getMessage()));
+        } catch (IOException e) {
+            respond(exchange, 400, error("Error loading maze: " + e.getMessage()));
+        }
+    }
+
+    // GET /solve?maze=id&algorithm=name
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        SolveBudget budget;
+        try {
+            budget = parseBudget(params);
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+            return;
+        }
+        String result = solve(0, params.get("maze"), params.get("algorithm"), params.get("path"), budget);
+        respond(exchange, 200, result);
+    }
+
+    // POST /batch: runs all queries in parallel and streams one result line per query as it completes
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String pathFormat = params.get("path");
+        SolveBudget budget;
+        try {
+            budget = parseBudget(params);
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+            return;
+        }
+
+        List<String[]> queries = new ArrayList<>();
+        try {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(limitedBody(exchange, MAX_BATCH_BYTES), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    if (queries.size() == MAX_BATCH_QUERIES) {
+                        throw new BodyTooLargeException("Batch has more than " + MAX_BATCH_QUERIES + " queries");
+                    }
+                    queries.add(line.trim().split("\\s+", 2));
+                }
+            }
+        } catch (BodyTooLargeException e) {
+            respond(exchange, 413, error(e.getMessage()));
+            return;
+        }
+
+        CompletionService<String> results = new ExecutorCompletionService<>(solveThreads);
+        for (int i = 0; i < queries.size(); i++) {
+            int index = i;
+            String[] query = queries.get(i);
+            results.submit(() -> solve(index, query[0], query.length > 1 ? query[1] : null, pathFormat, budget));
+        }
+
+        // Length 0 switches the response to chunked encoding, so each line goes out as soon as it is ready
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer out = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < queries.size(); i++) {
+                String result;
+                try {
+                    result = results.take().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    result = error("Solve failed: " + e.getCause());
+                }
+                out.write(result);
+                out.write('\n');
+                out.flush();
+            }
+        }
+    }
+
+    // Runs a single query against a registered maze and formats the result as one JSON object;
+    // pathFormat is "true" or "compact" to include the path, anything else to leave it out
+    private String solve(int index, String mazeId, String algorithm, String pathFormat, SolveBudget budget) {
+        try {
+            return runQuery(index, mazeId, algorithm, pathFormat, budget);
+        } catch (RuntimeException e) { // A failing solver answers for its own query; the connection stays usable
+            return "{\"query\":" + index + ",\"maze\":" + quote(mazeId) + ",\"algorithm\":" + quote(algorithm)
+                    + ",\"status\":\"error\",\"message\":" + quote("Solve failed: " + e) + "}";
+        }
+    }
+
+    private String runQuery(int index, String mazeId, String algorithm, String pathFormat, SolveBudget budget) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"query\":").append(index)
+                .append(",\"maze\":").append(quote(mazeId))
+                .append(",\"algorithm\":").append(quote(algorithm));
+
+        Maze maze = mazeId == null ? null : registry.get(mazeId);
+        MazeSolver solver = algorithm == null || maze == null ? null : SolverFactory.create(algorithm, maze);
+        if (maze == null) {
+            return json.append(",\"status\":\"error\",\"message\":\"unknown maze\"}").toString();
+        }
+        if (solver == null) {
+            return json.append(",\"status\":\"error\",\"message\":\"unknown algorithm\"}").toString();
+        }
+
+        // Reject queries whose start and end are disconnected without running the solver
+        ConnectivityIndex components = ConnectivityIndex.of(maze);
+        boolean reachable = solver instanceof MultiGoalSolver
+                ? components.anyConnected(maze.getStartPositions(), maze.getEndPositions())
+                : components.connected(maze.getStartPos(), maze.getEndPos());
+        if (!reachable) {
+            return json.append(",\"status\":\"no_path\",\"reason\":\"disconnected\"}").toString();
+        }
+
+        solver.setBudget(budget);
+        long startTime = System.currentTimeMillis();
+        long timeTaken = solver.solve(false);
+        SolveStatus status = solver.getStatus();
+        if (status.isStoppedEarly()) {
+            json.append(",\"status\":\"stopped\",\"reason\":").append(quote(status.name().toLowerCase()))
+                    .append(",\"timeMs\":").append(System.currentTimeMillis() - startTime)
+                    .append(",\"expansions\":").append(solver.getExpansions());
+        } else if (timeTaken == -1) {
+            return json.append(",\"status\":\"no_path\"}").toString();
+        } else {
+            json.append(",\"status\":\"ok\",\"timeMs\":").append(timeTaken);
+        }
+
+        json.append(",\"steps\":").append(solver.getSteps())
+                .append(",\"pathLength\":").append(solver.getPathLength());
+        if ("compact".equals(pathFormat)) {
+            json.append(",\"compactPath\":").append(quote(encode(solver.getCompactPath())));
+        } else if ("true".equals(pathFormat)) {
+            json.append(",\"path\":[");
+            List<Point> path = solver.getPath();
+            for (int i = 0; i < path.size(); i++) {
+                if (i > 0) json.append(',');
+                json.append('[').append(path.get(i).x).append(',').append(path.get(i).y).append(']');
+            }
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    // Base64 of the run-length form of a path
+    private static String encode(CompactPath path) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            path.writeTo(out, true);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Cannot happen with an in-memory stream
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    // Budget from the timeoutMs and maxExpansions parameters; unlimited where they are missing
+    private static SolveBudget parseBudget(Map<String, String> params) {
+        SolveBudget budget = SolveBudget.UNLIMITED;
+        try {
+            if (params.containsKey("timeoutMs")) {
+                budget = budget.withTimeLimitMillis(Long.parseLong(params.get("timeoutMs")));
+            }
+            if (params.containsKey("maxExpansions")) {
+                budget = budget.withMaxExpansions(Long.parseLong(params.get("maxExpansions")));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad budget parameter: " + e.getMessage());
+        }
+        return budget;
+    }
+
+    // The request body, refused up front if Content-Length is over the limit and cut off once more is read
+    private static InputStream limitedBody(HttpExchange exchange, long limit) throws BodyTooLargeException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null) {
+            try {
+                if (Long.parseLong(length.trim()) > limit) {
+                    throw new BodyTooLargeException("Request body is over " + limit + " bytes");
+                }
+            } catch (NumberFormatException e) {
+                // Not a number: the byte count below still applies
+            }
+        }
+        return new LimitedInputStream(exchange.getRequestBody(), limit);
+    }
+
+    // A request body larger than the server accepts
+    private static class BodyTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        BodyTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    // Passes at most limit bytes through and throws BodyTooLargeException when the stream has more
+    private static class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+        private final long limit;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, (int) Math.min(length, remaining + 1));
+            if (n > 0) count(n);
+            return n;
+        }
+
+        private void count(int n) throws BodyTooLargeException {
+            remaining -= n;
+            if (remaining < 0) throw new BodyTooLargeException("Request body is over " + limit + " bytes");
+        }
+    }
+
+    private static String describe(String id, Maze maze) {
+        return "{\"maze\":" + quote(id) + ",\"rows\":" + maze.getRows() + ",\"cols\":" + maze.getCols()
+                + ",\"start\":[" + maze.getStartPos().x + "," + maze.getStartPos().y + "]"
+                + ",\"end\":[" + maze.getEndPos().x + "," + maze.getEndPos().y + "]}";
+    }
+
+    private static String error(String message) {
+        return "{\"status\":\"error\",\"message\":" + quote(message) + "}";
+    }
+
+    // Formats a string as a JSON string literal (or null)
+    private static String quote(String value) {
+        if (value == null) return "null";
+        StringBuilder out = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') out.append('\\').append(c);
+            else if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+            else out.append(c);
+        }
+        return out.append('"').toString();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = (body + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Starts the service: java SolveServer [port] [threads] [id=mazeFile ...]
+     * The listed maze files are registered before the server starts accepting requests.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        SolveServer solveServer = new SolveServer(port, threads);
+        for (int i = 2; i < args.length; i++) {
+            String[] entry = args[i].split("=", 2);
+            Maze maze = new Maze();
+            maze.loadMaze(new File(entry[1]));
+            solveServer.register(entry[0], maze);
+        }
+
+        solveServer.start();
+        System.out.println("Solve server listening on 127.0.0.1:" + solveServer.getPort());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            solveServer.stop();
+            try {
+                solveServer.solveThreads.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+    }
+}
@@ -0,0 +1,14 @@
+// Outcome of the last solve of a MazeSolver
+public enum SolveStatus {
+    SOLVED,          // A path to the goal was found
+    NO_PATH,         // The search finished without reaching the goal
+    DEADLINE,        // Stopped early: the time limit of the SolveBudget ran out
+    EXPANSION_LIMIT, // Stopped early: the maximum number of expansions was reached
+    MEMORY_LIMIT,    // Not started: the estimated memory use is over the budget (SMA*: the best path did not fit)
+    CANCELLED;       // Stopped early: the CancellationToken was cancelled
+
+    // True for the statuses of a solve that did not run to completion
+    public boolean isStoppedEarly() {
+        return this != SOLVED && this != NO_PATH;
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SolverFactory maps algorithm names to new solver instances, so the GUI and
+ * the solve service agree on what each name means.
+ * A solver keeps per-solve state, so every solve needs its own instance; the
+ * maze itself is only read and can be shared.
+ */
+public class SolverFactory {
+    // Every algorithm name understood by create(), in display order
+    private static final List<String> NAMES = Collections.unmodifiableList(Arrays.asList(
+            "DFS", "BFS", "A*", "Dijkstra", "LeftHand", "RightHand", "DeadEnd",
+            "JunctionDijkstra", "JunctionA*", "HPA*", "Dial", "0-1 BFS",
+            "Multi BFS", "Multi A*", "Parallel BFS", "Tremaux", "Pledge", "ARA*",
+            "IDA*", "SMA*", "JPS+", "ALT"));
+
+    private SolverFactory() {
+    }
+
+    // Creates a solver for the given algorithm name, or returns null if the name is unknown
+    public static MazeSolver create(String algorithm, Maze maze) {
+        switch (algorithm) {
+            case "DFS":
+                return new DFSSolver(maze);                  // Depth-First Search
+            case "BFS":
+                return new BFSSolver(maze);                  // Breadth-First Search
+            case "A*":
+                return new AStarSolver(maze);                // A* Search Algorithm
+            case "Dijkstra":
+                return new DijkstraSolver(maze);             // Dijkstra's Algorithm
+            case "LeftHand":
+                return new WallFollowerSolver(maze, true);   // Left-hand wall-following
+            case "RightHand":
+                return new WallFollowerSolver(maze, false);  // Right-hand wall-following
+            case "DeadEnd":
+                return new DeadEndFillingSolver(maze);       // Dead-end filling method
+            case "JunctionDijkstra":
+                return new JunctionGraphSolver(maze, false); // Dijkstra on the junction graph
+            case "JunctionA*":
+                return new JunctionGraphSolver(maze, true);  // A* on the junction graph
+            case "HPA*":
+                return new HPAStarSolver(maze);              // Hierarchical A*
+            case "Dial":
+                return new DialSolver(maze);                 // Bucket-queue Dijkstra with real penalty costs
+            case "0-1 BFS":
+                return new ZeroOneBFSSolver(maze);           // Deque-based search with free teleports
+            case "Multi BFS":
+                return new MultiSourceBFSSolver(maze);       // All S tiles to the nearest E tile
+            case "Multi A*":
+                return new MultiTargetAStarSolver(maze);     // All S tiles to the nearest E tile, guided
+            case "Parallel BFS":
+                return new ParallelBFSSolver(maze);          // Level-synchronous BFS on the common ForkJoinPool
+            case "Tremaux":
+                return new TremauxSolver(maze);              // Passage-marking walk, always completes
+            case "Pledge":
+                return new PledgeSolver(maze);               // Turn-counting wall follower with loop detection
+            case "ARA*":
+                return new AnytimeAStarSolver(maze);         // Anytime weighted A*, improves its path while time remains
+            case "IDA*":
+                return new IDAStarSolver(maze);              // Iterative deepening A*, fixed-size transposition table
+            case "SMA*":
+                return new SMAStarSolver(maze);              // Memory-bounded A*, forgets the worst leaves when full
+            case "JPS+":
+                return new JumpPointSolver(maze);            // A* over precomputed jump points
+            case "ALT":
+                return new ALTSolver(maze);                  // A* with landmark lower bounds
+            default:
+                return null;                                 // If algorithm not recognized
+        }
+    }
+
+    // Returns all algorithm names that create() accepts
+    public static List<String> getNames() {
+        return NAMES;
+    }
+}
@@ -0,0 +1,146 @@
+import java.util.Arrays;
+
+/**
+ * SolverWorkspace holds the per-cell scratch arrays, queues and heaps a search
+ * needs, so repeated solves on the same maze reuse them instead of allocating
+ * new ones every time.
+ *
+ * Visited and distance marks are epoch-stamped: a cell counts as reached or
+ * settled only if its stamp equals the current epoch, so starting a new search
+ * is a single increment instead of clearing every array. Arrays only grow, and
+ * once {@link #prepare(int)} has sized them for a maze, a search allocates nothing.
+ *
+ * A workspace is not thread-safe. {@link #forCurrentThread()} gives every thread
+ * its own, which is what solvers use unless they are handed one explicitly.
+ */
+public class SolverWorkspace {
+    private static final ThreadLocal<SolverWorkspace> PER_THREAD = ThreadLocal.withInitial(SolverWorkspace::new);
+
+    private int epoch;                 // Stamp of the current search
+    private int[] reachedStamp = new int[0];  // Cell -> epoch in which it got a distance and parent
+    private int[] settledStamp = new int[0];  // Cell -> epoch in which it was settled (expanded)
+    private int[] distance = new int[0];      // Valid only where reachedStamp == epoch
+    private int[] parent = new int[0];        // Valid only where reachedStamp == epoch
+    private int[] queue = new int[0];         // FIFO queue for BFS, one slot per cell
+    private int[] pathBuffer = new int[0];    // Cells of a path being read back from the parents
+    private int[][] buckets = new int[0][];   // Bucket queue for Dial's algorithm
+    private int[] bucketSize = new int[0];
+    private final IntDeque deque = new IntDeque(16);
+    private final IntMinHeap heap = new IntMinHeap(16);
+    private final LongMinHeap longHeap = new LongMinHeap(16); // For searches ordered by two keys, such as A*
+
+    // Returns the workspace of the calling thread
+    public static SolverWorkspace forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    // Grows the per-cell arrays to hold at least the given number of cells
+    public void prepare(int cellCount) {
+        if (reachedStamp.length < cellCount) {
+            reachedStamp = new int[cellCount];
+            settledStamp = new int[cellCount];
+            distance = new int[cellCount];
+            parent = new int[cellCount];
+            queue = new int[cellCount];
+            pathBuffer = new int[cellCount];
+            epoch = 0; // New arrays hold only stamp 0, which no search uses
+        }
+    }
+
+    /**
+     * Starts a new search over the given number of cells and returns its epoch.
+     * Every cell reads as unreached and unsettled afterwards.
+     */
+    public int begin(int cellCount) {
+        prepare(cellCount);
+        if (++epoch == Integer.MAX_VALUE) {
+            // Once every two billion searches the stamps are cleared for real
+            Arrays.fill(reachedStamp, 0);
+            Arrays.fill(settledStamp, 0);
+            epoch = 1;
+        }
+        deque.clear();
+        heap.clear();
+        longHeap.clear();
+        Arrays.fill(bucketSize, 0);
+        return epoch;
+    }
+
+    public int getEpoch() {
+        return epoch;
+    }
+
+    // True if the cell got a distance in the current search
+    public boolean isReached(int cell) {
+        return reachedStamp[cell] == epoch;
+    }
+
+    // Distance of the cell in the current search, or Integer.MAX_VALUE if it was not reached
+    public int getDistance(int cell) {
+        return reachedStamp[cell] == epoch ? distance[cell] : Integer.MAX_VALUE;
+    }
+
+    public int getParent(int cell) {
+        return parent[cell];
+    }
+
+    // Records the distance and parent of a cell in the current search
+    public void reach(int cell, int newDistance, int newParent) {
+        reachedStamp[cell] = epoch;
+        distance[cell] = newDistance;
+        parent[cell] = newParent;
+    }
+
+    public boolean isSettled(int cell) {
+        return settledStamp[cell] == epoch;
+    }
+
+    public void settle(int cell) {
+        settledStamp[cell] = epoch;
+    }
+
+    // True if the cell was settled in the search with the given epoch and no later search has started
+    public boolean wasSettled(int searchEpoch, int cell) {
+        return searchEpoch == epoch && settledStamp[cell] == epoch;
+    }
+
+    // Array FIFO with one slot per cell; enough for a BFS that enqueues every cell at most once
+    public int[] getQueue() {
+        return queue;
+    }
+
+    // Scratch array with one slot per cell for turning a parent chain into a path
+    public int[] getPathBuffer() {
+        return pathBuffer;
+    }
+
+    public IntDeque getDeque() {
+        return deque;
+    }
+
+    public IntMinHeap getHeap() {
+        return heap;
+    }
+
+    public LongMinHeap getLongHeap() {
+        return longHeap;
+    }
+
+    // Returns 'count' empty buckets, each growing as needed and kept for the next search
+    public int[][] getBuckets(int count) {
+        if (buckets.length < count) {
+            int[][] grown = Arrays.copyOf(buckets, count);
+            for (int b = buckets.length; b < count; b++) {
+                grown[b] = new int[16];
+            }
+            buckets = grown;
+            bucketSize = Arrays.copyOf(bucketSize, count);
+        }
+        return buckets;
+    }
+
+    // Sizes of the buckets returned by getBuckets, all zero at the start of a search
+    public int[] getBucketSizes() {
+        return bucketSize;
+    }
+}
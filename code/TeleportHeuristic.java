@@ -0,0 +1,181 @@
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * TeleportHeuristic is a lower bound on the cost from a cell to the end that
+ * stays admissible when teleports are about. Manhattan distance alone is not:
+ * walking to a teleport and hopping can be much shorter than the straight line.
+ * The bound is
+ *
+ *     h(v) = min(|v - end|, min over teleports T of |v - T| + exit(T))
+ *
+ * where |a - b| is the Manhattan distance and exit(T) is the least cost of
+ * hopping from T to its partner and going on from there, again with free
+ * movement and further hops allowed. The exits are computed once per maze
+ * layout and end with a Dijkstra over the teleports (quadratic in their
+ * number, which is small in practice). Moves are counted as 1 and hops as
+ * CostModel.DEFAULT's teleport cost; no solver's moves are cheaper.
+ *
+ * With a handful of teleports the minimum is taken directly, which is exact.
+ * With more it is read from a Manhattan distance transform over blocks of
+ * cells, sized so the table has at most MAX_BLOCKS entries, so each lookup is
+ * O(1) however many teleports there are. The block value is lowered by the
+ * most a block can hide, so it never overestimates; on mazes of up to
+ * MAX_BLOCKS cells the blocks are single cells and the bound is exact.
+ *
+ * A bound is built for one maze layout and end, and shared through
+ * {@link #of(Maze)}. A bound towards some other cell, such as one of several
+ * targets, is built directly with {@link #TeleportHeuristic(Maze, int, int)}.
+ */
+public class TeleportHeuristic {
+    // Up to this many paired teleports the minimum is taken with a loop instead of the block table
+    private static final int DIRECT_LIMIT = 8;
+    // Largest number of entries in the block table
+    private static final int MAX_BLOCKS = 1 << 16;
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    // Bounds already built, reused until their maze changes or the end moves
+    private static final Map<Maze, TeleportHeuristic> CACHE = new WeakHashMap<>();
+
+    private final int version;       // Maze version the bound was built from
+    private final int goalX, goalY;  // End the bound leads to
+    private final int[] teleportX, teleportY; // Paired teleports, for the direct loop
+    private final int[] exitCost;    // Teleport -> least cost to the end after hopping from it
+    private final int blockSize;     // Side of a block in cells
+    private final int blockCols;     // Blocks per row
+    private final int[] blockBound;  // Block -> lowest |T - block| + exit(T), or null for the direct loop
+
+    // Returns the bound for the maze and its current end, building it only if either changed
+    public static TeleportHeuristic of(Maze maze) {
+        if (maze instanceof MazeSnapshot) {
+            return ((MazeSnapshot) maze).getIndex(TeleportHeuristic.class, TeleportHeuristic::new);
+        }
+        synchronized (CACHE) {
+            TeleportHeuristic bound = CACHE.get(maze);
+            if (bound == null || !bound.matches(maze)) {
+                bound = new TeleportHeuristic(maze);
+                CACHE.put(maze, bound);
+            }
+            return bound;
+        }
+    }
+
+    // Bound towards the maze's end
+    public TeleportHeuristic(Maze maze) {
+        this(maze, maze.getEndPos().x, maze.getEndPos().y);
+    }
+
+    // Computes the exit cost of every paired teleport, then the block table if there are many
+    public TeleportHeuristic(Maze maze, int goalX, int goalY) {
+        this.version = maze.getVersion();
+        this.goalX = goalX;
+        this.goalY = goalY;
+
+        int cols = maze.getCols();
+        int paired = 0;
+        int[] xs = new int[maze.getTeleportPositions().size()];
+        int[] ys = new int[xs.length];
+        int[] partnerX = new int[xs.length];
+        int[] partnerY = new int[xs.length];
+        for (Point teleport : maze.getTeleportPositions()) {
+            int partner = maze.getTeleportPartner(teleport.y * cols + teleport.x);
+            if (partner < 0) continue; // An unpaired teleport is just a floor tile
+            xs[paired] = teleport.x;
+            ys[paired] = teleport.y;
+            partnerX[paired] = partner % cols;
+            partnerY[paired] = partner / cols;
+            paired++;
+        }
+        teleportX = Arrays.copyOf(xs, paired);
+        teleportY = Arrays.copyOf(ys, paired);
+        exitCost = exitCosts(partnerX, partnerY, paired, CostModel.DEFAULT.getTeleportCost());
+
+        if (paired <= DIRECT_LIMIT) {
+            blockSize = 1;
+            blockCols = 0;
+            blockBound = null;
+        } else {
+            int rows = maze.getRows();
+            int size = 1;
+            while ((long) ((rows + size - 1) / size) * ((cols + size - 1) / size) > MAX_BLOCKS) size++;
+            blockSize = size;
+            blockCols = (cols + size - 1) / size;
+            blockBound = buildBlockTable((rows + size - 1) / size);
+        }
+    }
+
+    // Dijkstra over the teleports: hop, walk freely to the end or to another teleport, and so on
+    private int[] exitCosts(int[] partnerX, int[] partnerY, int count, int hopCost) {
+        int[] cost = new int[count];
+        boolean[] done = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            cost[i] = hopCost + Math.abs(partnerX[i] - goalX) + Math.abs(partnerY[i] - goalY);
+        }
+        for (int round = 0; round < count; round++) {
+            int best = -1;
+            for (int i = 0; i < count; i++) {
+                if (!done[i] && (best < 0 || cost[i] < cost[best])) best = i;
+            }
+            done[best] = true;
+            for (int i = 0; i < count; i++) {
+                if (done[i]) continue;
+                // Hop from teleport i, walk to teleport 'best', continue from there
+                int via = hopCost + Math.abs(partnerX[i] - teleportX[best]) + Math.abs(partnerY[i] - teleportY[best]) + cost[best];
+                cost[i] = Math.min(cost[i], via);
+            }
+        }
+        return cost;
+    }
+
+    // Manhattan distance transform over blocks, seeded with each teleport's exit cost in its own block
+    private int[] buildBlockTable(int blockRows) {
+        int[] bound = new int[blockRows * blockCols];
+        Arrays.fill(bound, INFINITY);
+        for (int i = 0; i < teleportX.length; i++) {
+            int block = (teleportY[i] / blockSize) * blockCols + teleportX[i] / blockSize;
+            bound[block] = Math.min(bound[block], exitCost[i]);
+        }
+
+        for (int y = 0; y < blockRows; y++) {
+            for (int x = 0; x < blockCols; x++) {
+                int i = y * blockCols + x;
+                if (y > 0) bound[i] = Math.min(bound[i], bound[i - blockCols] + blockSize);
+                if (x > 0) bound[i] = Math.min(bound[i], bound[i - 1] + blockSize);
+            }
+        }
+        for (int y = blockRows - 1; y >= 0; y--) {
+            for (int x = blockCols - 1; x >= 0; x--) {
+                int i = y * blockCols + x;
+                if (y < blockRows - 1) bound[i] = Math.min(bound[i], bound[i + blockCols] + blockSize);
+                if (x < blockCols - 1) bound[i] = Math.min(bound[i], bound[i + 1] + blockSize);
+            }
+        }
+        return bound;
+    }
+
+    // Lower bound on the cost from (x, y) to the end
+    public int estimate(int x, int y) {
+        int direct = Math.abs(x - goalX) + Math.abs(y - goalY);
+        if (blockBound != null) {
+            // Two cells k blocks apart along an axis are at least (k - 1) * blockSize + 1 apart along it
+            int viaTeleport = blockBound[(y / blockSize) * blockCols + x / blockSize] - 2 * (blockSize - 1);
+            return Math.max(0, Math.min(direct, viaTeleport));
+        }
+        for (int i = 0; i < teleportX.length; i++) {
+            direct = Math.min(direct, Math.abs(x - teleportX[i]) + Math.abs(y - teleportY[i]) + exitCost[i]);
+        }
+        return direct;
+    }
+
+    // True if the bound was built for the maze's current layout and end
+    public boolean matches(Maze maze) {
+        return version == maze.getVersion() && goalX == maze.getEndPos().x && goalY == maze.getEndPos().y;
+    }
+
+    // Side of the blocks the table is kept in, 1 when the bound is exact
+    public int getBlockSize() {
+        return blockSize;
+    }
+}
@@ -0,0 +1,499 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TiledMazeGrid keeps a maze on disk, split into square tiles, and pages tiles
+ * in on demand through a fixed-size LRU cache. Only the cached tiles are in
+ * memory, so the maze itself may be larger than RAM. Code that reads cells
+ * through Maze accessors faults tiles in without knowing about them.
+ *
+ * When a read lands within a few cells of a tile border, the tile across that
+ * border is loaded in the background. A search frontier that approaches a new
+ * tile therefore usually finds it already cached. Reads of the most recently
+ * used tile skip the lock and the LRU bookkeeping, so that tile is moved to the
+ * newest end of the LRU order before every insert; otherwise a prefetch would
+ * evict the very tile the search is working in.
+ *
+ * Tile file layout (big-endian):
+ * <pre>
+ *   int magic, int rows, int cols, int tileSize, long specialOffset
+ *   tiles, row by row of tiles, each tileSize * tileSize bytes row by row (padded with walls)
+ *   at specialOffset: int count, then count long cell indices of S/E/T/P tiles in reading order
+ * </pre>
+ * The special tile list lets Maze find starts, ends and teleports without
+ * reading every tile. Edited tiles are written back when they are evicted and
+ * on {@link #flush()} / {@link #close()}. A tile is only dropped from the
+ * cache once its write-back succeeded, so a failed write keeps the edits in
+ * memory (and the cache one tile over its limit) until a later write works.
+ *
+ * Tiles are read from disk outside the lock. Every write-back bumps the tile's
+ * write count, and a read that overlapped a write of the same tile is redone,
+ * so an old copy never replaces what was just written.
+ */
+public class TiledMazeGrid implements MazeGrid {
+    private static final int MAGIC = 0x4D5A5431; // "MZT1"
+    private static final int HEADER_SIZE = 24;
+
+    // Default number of cells next to a tile border that trigger prefetching the neighbor tile
+    private static final int DEFAULT_PREFETCH_DIVISOR = 8;
+
+    // A cached tile; the data array stays valid after eviction, so readers never see it freed
+    private static final class Tile {
+        final int index;
+        final byte[] data;
+        boolean dirty;
+
+        Tile(int index, byte[] data) {
+            this.index = index;
+            this.data = data;
+        }
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int rows, cols, tileSize;
+    private final int tilesX, tilesY;
+    private final int maxCachedTiles;
+    private final int prefetchMargin;
+
+    private final Map<Integer, Tile> cache;   // LRU order, guarded by 'this'
+    private final byte[] resident;            // Tile -> 1 while cached or being prefetched (a hint, read unlocked)
+    private final int[] writeCounts;          // Tile -> write-backs so far, guarded by 'this'
+    private volatile Tile lastTile;           // Most recently used tile, checked before taking the lock
+    private long[] specialCells;              // S/E/T/P cells in reading order, guarded by 'this'
+    private boolean specialDirty;             // specialCells differs from the file
+    private final ExecutorService prefetcher;
+    private boolean closed;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder prefetches = new LongAdder();
+    private final LongAdder writeBacks = new LongAdder();
+
+    private TiledMazeGrid(Path file, FileChannel channel, int rows, int cols, int tileSize,
+                          long[] specialCells, int maxCachedTiles, int prefetchMargin) {
+        this.file = file;
+        this.channel = channel;
+        this.rows = rows;
+        this.cols = cols;
+        this.tileSize = tileSize;
+        this.tilesX = (cols + tileSize - 1) / tileSize;
+        this.tilesY = (rows + tileSize - 1) / tileSize;
+        this.maxCachedTiles = maxCachedTiles;
+        this.prefetchMargin = prefetchMargin;
+        this.specialCells = specialCells;
+        this.resident = new byte[tilesX * tilesY];
+        this.writeCounts = new int[tilesX * tilesY];
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        this.prefetcher = prefetchMargin > 0 ? Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "tile-prefetch-" + file.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Converts a maze text file into a tile file. The text is streamed one row at
+     * a time, so neither file has to fit in memory.
+     */
+    public static void create(Path mazeText, Path tileFile, int tileSize) throws IOException {
+        if (tileSize < 2 || (long) tileSize * tileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tile size must be between 2 and 46340, got " + tileSize);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(mazeText, StandardCharsets.ISO_8859_1);
+             FileChannel out = FileChannel.open(tileFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            String line = reader.readLine();
+            if (line == null) throw new IOException("Maze file is empty.");
+            int cols = line.length();
+            if (cols == 0) throw new IOException("Maze rows must not be empty.");
+            int tilesX = (cols + tileSize - 1) / tileSize;
+            long tileBytes = (long) tileSize * tileSize;
+            byte[] padding = new byte[tileSize];
+            Arrays.fill(padding, (byte) Maze.WALL);
+
+            long[] special = new long[16];
+            int specialCount = 0;
+            int rows = 0;
+            for (; line != null; line = reader.readLine(), rows++) {
+                if (line.length() != cols) {
+                    throw new IOException("All lines in the maze must have the same length. Line " + (rows + 1) +
+                            " has length " + line.length() + " instead of " + cols + ".");
+                }
+                byte[] row = line.getBytes(StandardCharsets.ISO_8859_1);
+                for (int x = 0; x < cols; x++) {
+                    if (isSpecial((char) (row[x] & 0xFF))) {
+                        if (specialCount == special.length) special = Arrays.copyOf(special, specialCount * 2);
+                        special[specialCount++] = (long) rows * cols + x;
+                    }
+                }
+
+                // Every tile this row crosses gets one row of tileSize bytes
+                long tileRowBase = HEADER_SIZE + (long) (rows / tileSize) * tilesX * tileBytes
+                        + (long) (rows % tileSize) * tileSize;
+                for (int tx = 0; tx < tilesX; tx++) {
+                    int from = tx * tileSize;
+                    int length = Math.min(tileSize, cols - from);
+                    ByteBuffer piece = ByteBuffer.allocate(tileSize);
+                    piece.put(row, from, length).put(padding, 0, tileSize - length).flip();
+                    writeFully(out, piece, tileRowBase + tx * tileBytes);
+                }
+            }
+
+            // Pad the rows below the last maze row in the bottom row of tiles
+            int tilesY = (rows + tileSize - 1) / tileSize;
+            for (int y = rows; y < tilesY * tileSize; y++) {
+                long tileRowBase = HEADER_SIZE + (long) (y / tileSize) * tilesX * tileBytes
+                        + (long) (y % tileSize) * tileSize;
+                for (int tx = 0; tx < tilesX; tx++) {
+                    writeFully(out, ByteBuffer.wrap(padding), tileRowBase + tx * tileBytes);
+                }
+            }
+
+            long specialOffset = HEADER_SIZE + (long) tilesX * tilesY * tileBytes;
+            writeSpecialCells(out, specialOffset, Arrays.copyOf(special, specialCount));
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(rows).putInt(cols).putInt(tileSize).putLong(specialOffset).flip();
+            writeFully(out, header, 0);
+        }
+    }
+
+    // Opens a tile file with room for the given number of cached tiles and default prefetching
+    public static TiledMazeGrid open(Path tileFile, int maxCachedTiles) throws IOException {
+        return open(tileFile, maxCachedTiles, -1);
+    }
+
+    /**
+     * Opens a tile file.
+     *
+     * @param maxCachedTiles Tiles kept in memory at most (at least 2)
+     * @param prefetchMargin Distance to a tile border that triggers prefetching the
+     *                       neighbor tile; 0 disables prefetching, -1 picks tileSize / 8
+     */
+    public static TiledMazeGrid open(Path tileFile, int maxCachedTiles, int prefetchMargin) throws IOException {
+        if (maxCachedTiles < 2) {
+            throw new IllegalArgumentException("The tile cache needs room for at least 2 tiles, got " + maxCachedTiles);
+        }
+        FileChannel channel = FileChannel.open(tileFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException(tileFile + " is not a tiled maze file.");
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            int tileSize = header.getInt();
+            long specialOffset = header.getLong();
+
+            ByteBuffer count = ByteBuffer.allocate(4);
+            readFully(channel, count, specialOffset);
+            ByteBuffer cells = ByteBuffer.allocate(count.flip().getInt() * 8);
+            readFully(channel, cells, specialOffset + 4);
+            long[] special = new long[cells.capacity() / 8];
+            cells.flip().asLongBuffer().get(special);
+
+            int margin = prefetchMargin >= 0 ? prefetchMargin : Math.max(1, tileSize / DEFAULT_PREFETCH_DIVISOR);
+            return new TiledMazeGrid(tileFile, channel, rows, cols, tileSize, special, maxCachedTiles, margin);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public char get(int x, int y) {
+        int index = (y / tileSize) * tilesX + x / tileSize;
+        Tile tile = lastTile;
+        if (tile == null || tile.index != index) {
+            tile = fetch(index);
+        } else {
+            hits.increment();
+        }
+        if (prefetchMargin > 0) prefetchNear(x, y);
+        return (char) (tile.data[(y % tileSize) * tileSize + x % tileSize] & 0xFF);
+    }
+
+    @Override
+    public char get(long cell) {
+        return get((int) (cell % cols), (int) (cell / cols));
+    }
+
+    @Override
+    public synchronized void set(int x, int y, char tile) {
+        Tile cached = fetch((y / tileSize) * tilesX + x / tileSize);
+        int offset = (y % tileSize) * tileSize + x % tileSize;
+        char oldTile = (char) (cached.data[offset] & 0xFF);
+        cached.data[offset] = (byte) tile;
+        cached.dirty = true;
+
+        // Keep the special tile list sorted by cell index, which is reading order
+        if (isSpecial(oldTile) != isSpecial(tile)) {
+            long cell = (long) y * cols + x;
+            int position = Arrays.binarySearch(specialCells, cell);
+            if (position < 0) {
+                int insert = -position - 1;
+                long[] grown = new long[specialCells.length + 1];
+                System.arraycopy(specialCells, 0, grown, 0, insert);
+                grown[insert] = cell;
+                System.arraycopy(specialCells, insert, grown, insert + 1, specialCells.length - insert);
+                specialCells = grown;
+            } else {
+                long[] shrunk = new long[specialCells.length - 1];
+                System.arraycopy(specialCells, 0, shrunk, 0, position);
+                System.arraycopy(specialCells, position + 1, shrunk, position, shrunk.length - position);
+                specialCells = shrunk;
+            }
+            specialDirty = true;
+        }
+    }
+
+    // S, E, T and P cells in reading order, read from the file instead of scanning every tile
+    @Override
+    public synchronized long[] findSpecialCells() {
+        return specialCells.clone();
+    }
+
+    // Returns a cached tile, reading it from disk (and evicting the least recently used one) on a miss
+    private Tile fetch(int index) {
+        Tile tile;
+        int writeCount;
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("Tiled maze grid is closed");
+            tile = cache.get(index);
+            writeCount = writeCounts[index];
+        }
+        if (tile != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            tile = insert(index, writeCount, readTile(index)); // The disk read happens outside the lock
+        }
+        lastTile = tile;
+        return tile;
+    }
+
+    /**
+     * Adds a tile read from disk to the cache unless another thread got there
+     * first. writeCount is the tile's write count from before the read; if the
+     * tile was written back since, the read may have missed it and is redone.
+     */
+    private synchronized Tile insert(int index, int writeCount, byte[] data) {
+        if (closed) throw new IllegalStateException("Tiled maze grid is closed");
+        Tile tile = cache.get(index);
+        if (tile != null) return tile;
+        if (writeCounts[index] != writeCount) {
+            data = readTile(index); // Rare: under the lock, so no further write can slip in
+        }
+        Tile current = lastTile;
+        if (current != null) {
+            cache.get(current.index); // Reads of it took the unlocked fast path and never moved it up the LRU order
+        }
+        tile = new Tile(index, data);
+        cache.put(index, tile);
+        resident[index] = 1;
+
+        if (cache.size() > maxCachedTiles) {
+            Iterator<Tile> oldest = cache.values().iterator();
+            Tile evicted = oldest.next();
+            if (evicted.dirty) writeTile(evicted); // If this throws, the tile stays cached with its edits
+            oldest.remove();
+            resident[evicted.index] = 0;
+            if (lastTile == evicted) lastTile = null;
+            evictions.increment();
+        }
+        return tile;
+    }
+
+    // Starts loading the tiles across any border that (x, y) is close to
+    private void prefetchNear(int x, int y) {
+        int lx = x % tileSize;
+        int ly = y % tileSize;
+        int tx = x / tileSize;
+        int ty = y / tileSize;
+        if (lx < prefetchMargin && tx > 0) prefetch(ty * tilesX + tx - 1);
+        if (lx >= tileSize - prefetchMargin && tx + 1 < tilesX) prefetch(ty * tilesX + tx + 1);
+        if (ly < prefetchMargin && ty > 0) prefetch((ty - 1) * tilesX + tx);
+        if (ly >= tileSize - prefetchMargin && ty + 1 < tilesY) prefetch((ty + 1) * tilesX + tx);
+    }
+
+    // Loads the tile holding (x, y) in the background if it is not cached
+    public void prefetch(int x, int y) {
+        if (prefetcher != null) prefetch((y / tileSize) * tilesX + x / tileSize);
+    }
+
+    private void prefetch(int index) {
+        if (resident[index] != 0) return; // Cached or already on its way (a racy hint is fine here)
+        int writeCount;
+        synchronized (this) {
+            if (closed || resident[index] != 0) return;
+            resident[index] = 1;
+            writeCount = writeCounts[index];
+        }
+        prefetches.increment();
+        prefetcher.execute(() -> {
+            try {
+                byte[] data = readTile(index);
+                synchronized (this) {
+                    if (!closed) insert(index, writeCount, data);
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    if (!cache.containsKey(index)) resident[index] = 0; // Let a demand read report the error
+                }
+            }
+        });
+    }
+
+    private byte[] readTile(int index) {
+        byte[] data = new byte[tileSize * tileSize];
+        try {
+            readFully(channel, ByteBuffer.wrap(data), HEADER_SIZE + (long) index * data.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read tile " + index + " of " + file, e);
+        }
+        return data;
+    }
+
+    private void writeTile(Tile tile) {
+        try {
+            writeFully(channel, ByteBuffer.wrap(tile.data), HEADER_SIZE + (long) tile.index * tile.data.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write tile " + tile.index + " of " + file, e);
+        }
+        tile.dirty = false;
+        writeCounts[tile.index]++;
+        writeBacks.increment();
+    }
+
+    // Writes every edited tile and the special tile list back to the file
+    public synchronized void flush() throws IOException {
+        if (closed) return;
+        for (Tile tile : cache.values()) {
+            if (tile.dirty) writeTile(tile);
+        }
+        if (specialDirty) {
+            long specialOffset = HEADER_SIZE + (long) tilesX * tilesY * tileSize * tileSize;
+            writeSpecialCells(channel, specialOffset, specialCells);
+            channel.truncate(specialOffset + 4 + 8L * specialCells.length);
+            specialDirty = false;
+        }
+        channel.force(false);
+    }
+
+    // Writes back pending edits, stops prefetching and closes the file; calling it again has no effect
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write back " + file, e);
+            } finally {
+                closed = true;
+                cache.clear();
+                lastTile = null;
+            }
+        }
+        if (prefetcher != null) prefetcher.shutdownNow();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close " + file, e);
+        }
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // Tiles requested by the prefetcher (each one turns a later miss into a hit, if it arrives in time)
+    public long getPrefetches() {
+        return prefetches.sum();
+    }
+
+    public long getWriteBacks() {
+        return writeBacks.sum();
+    }
+
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        prefetches.reset();
+        writeBacks.reset();
+    }
+
+    // One-line summary for benchmarks and logs
+    public String describeStats() {
+        long total = getHits() + getMisses();
+        return String.format("tile %d: %d hits, %d misses (%.3f%% miss), %d evictions, %d prefetches, %d write-backs",
+                tileSize, getHits(), getMisses(), total == 0 ? 0.0 : 100.0 * getMisses() / total,
+                getEvictions(), getPrefetches(), getWriteBacks());
+    }
+
+    private static boolean isSpecial(char tile) {
+        return tile == Maze.START || tile == Maze.END || tile == Maze.TELEPORT || tile == Maze.PENALTY;
+    }
+
+    private static void writeSpecialCells(FileChannel channel, long offset, long[] cells) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 8 * cells.length);
+        buffer.putInt(cells.length);
+        buffer.asLongBuffer().put(cells);
+        buffer.position(buffer.capacity()).flip();
+        writeFully(channel, buffer, offset);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of tile file");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+import java.util.Arrays;
+
+/**
+ * TremauxSolver walks the maze with Trémaux's rule: every passage is marked
+ * each time it is walked, a new passage into an already visited cell is walked
+ * straight back, and a cell is left by a passage marked twice only when it has
+ * no unmarked one left. Unlike the wall follower it may revisit cells, so it
+ * finds the end whenever a path exists.
+ *
+ * The marks are two bits per passage end (one byte per cell) plus one byte per
+ * teleport pair. That is all the walk itself needs, but the solve is not that
+ * small: visited cells and the reported path live on the solver workspace (six
+ * ints per cell, reused by later solves on the same thread), and the solvability
+ * check builds the maze's {@link ConnectivityIndex} (one int per cell, cached
+ * per maze). Every passage is walked at most twice, so the walk ends after at
+ * most 2 * passages moves. The passages marked once form the path from the
+ * start to the end.
+ *
+ * A paired teleport is one more passage, to the partner given by
+ * {@link Maze#getTeleportPartner}, which the walk may take or not; this is the
+ * rule the connectivity check and the cost model use. A walker arriving on a
+ * teleport tries the hop first, as {@link PledgeSolver} does.
+ */
+public class TremauxSolver extends MazeSolver {
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    // Passage index of a teleport hop; 0-3 are the grid directions
+    private static final int TELEPORT = 4;
+
+    private byte[] marks = new byte[0];         // Cell -> 2 bits per direction: times the passage was walked
+    private byte[] teleportMarks = new byte[0]; // Teleport pair (Maze.getTeleportPair) -> times its hop was walked
+
+    private int moves; // Moves walked by the last solve, backtracking included
+
+    // Constructor sets the algorithm name
+    public TremauxSolver(Maze maze) {
+        super(maze);
+        this.algorithmName = "Tremaux";
+    }
+
+    /**
+     * Walks from the start until the end is reached or every passage has been
+     * walked twice.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no path found
+     */
+    @Override
+    public long solve(boolean visualize) {
+        SolverWorkspace workspace = beginSearch();
+        moves = 0;
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: the workspace was not touched
+
+        // Start and end in different components: the walk would only end after marking everything twice
+        if (!ConnectivityIndex.isSolvable(maze)) return -1;
+
+        int cols = maze.getCols();
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int end = maze.getEndPos().y * cols + maze.getEndPos().x;
+        clearMarks(maze.getRows() * cols);
+
+        int cell = start;
+        int entry = -1;            // Passage of 'cell' the walk arrived by, -1 at the start
+        boolean seenBefore = false; // Whether 'cell' had been visited before this arrival
+        workspace.settle(start);
+
+        while (cell != end) {
+            if (!expand()) { // Out of budget: the passages marked once lead to where the walk is now
+                storeTrail(workspace, start, cell);
+                return -1;
+            }
+
+            int passage;
+            if (seenBefore && getMark(cell, entry) == 1) {
+                passage = entry; // New passage into a visited cell: turn straight back
+            } else {
+                passage = findPassage(cell, 0);
+                if (passage < 0) passage = findPassage(cell, 1); // Dead end or fully explored: back the way we first came
+                if (passage < 0) return -1; // Back at the start with every passage walked twice
+            }
+
+            int next = neighbor(cell, passage);
+            addMark(cell, passage);
+            entry = reverse(passage);
+            seenBefore = workspace.isSettled(next);
+            workspace.settle(next);
+            cell = next;
+            moves++;
+        }
+
+        storeTrail(workspace, start, end);
+        return System.currentTimeMillis() - startTime;
+    }
+
+    // Stores the passages marked once as the path: they lead from the start to where the walk is
+    private void storeTrail(SolverWorkspace workspace, int start, int end) {
+        workspace.reach(start, 0, -1);
+        int previous = -1;
+        for (int cell = start; cell != end; ) {
+            int passage = -1;
+            for (int k = 0; k <= TELEPORT && passage < 0; k++) {
+                if (k != previous && neighbor(cell, k) >= 0 && getMark(cell, k) == 1) passage = k;
+            }
+            int next = neighbor(cell, passage);
+            workspace.reach(next, workspace.getDistance(cell) + 1, cell);
+            previous = reverse(passage);
+            cell = next;
+        }
+        storePath(end);
+    }
+
+    // Resets the marks for a maze with the given number of cells, reusing the arrays when they are big enough
+    private void clearMarks(int cellCount) {
+        if (marks.length < cellCount) {
+            marks = new byte[cellCount];
+        } else {
+            Arrays.fill(marks, 0, cellCount, (byte) 0);
+        }
+
+        int pairs = maze.getTeleportPositions().size() / 2;
+        if (teleportMarks.length < pairs) {
+            teleportMarks = new byte[pairs];
+        } else {
+            Arrays.fill(teleportMarks, 0, pairs, (byte) 0);
+        }
+    }
+
+    // First passage out of the cell that has been walked exactly 'times' times, or -1; the hop comes first
+    private int findPassage(int cell, int times) {
+        for (int i = 0; i <= TELEPORT; i++) {
+            int k = (i + TELEPORT) % (TELEPORT + 1);
+            if (neighbor(cell, k) >= 0 && getMark(cell, k) == times) return k;
+        }
+        return -1;
+    }
+
+    // Cell reached from 'cell' through the passage, or -1 if there is no such passage
+    private int neighbor(int cell, int passage) {
+        if (passage == TELEPORT) return maze.getTeleportPartner(cell);
+        int cols = maze.getCols();
+        int nx = cell % cols + DX[passage];
+        int ny = cell / cols + DY[passage];
+        return maze.isOpen(nx, ny) ? ny * cols + nx : -1;
+    }
+
+    // Passage of the neighbor that leads back through the same passage
+    private static int reverse(int passage) {
+        return passage == TELEPORT ? TELEPORT : (passage + 2) & 3;
+    }
+
+    private int getMark(int cell, int passage) {
+        if (passage == TELEPORT) return teleportMarks[maze.getTeleportPair(cell)];
+        return (marks[cell] >> (2 * passage)) & 3;
+    }
+
+    // Counts one more walk through the passage, at both of its ends
+    private void addMark(int cell, int passage) {
+        if (passage == TELEPORT) {
+            teleportMarks[maze.getTeleportPair(cell)]++; // One mark serves both ends of the hop
+            return;
+        }
+        int next = neighbor(cell, passage);
+        marks[cell] += (byte) (1 << (2 * passage));
+        marks[next] += (byte) (1 << (2 * reverse(passage)));
+    }
+
+    // The workspace, plus the marks
+    @Override
+    protected long estimateMemoryBytes() {
+        return super.estimateMemoryBytes() + (long) maze.getRows() * maze.getCols() + maze.getTeleportPositions().size() / 2;
+    }
+
+    // Moves walked by the last solve, including every step walked back
+    public int getMoves() {
+        return moves;
+    }
+}
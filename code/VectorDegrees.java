@@ -0,0 +1,91 @@
+import java.util.Arrays;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorDegrees fills a {@link NeighborDegrees} table with the incubating
+ * Vector API (jdk.incubator.vector). Each row is turned into one byte per cell,
+ * 1 if open and 0 for a wall, by comparing a whole vector of tiles against the
+ * wall tile at once. The degree of a run of cells is then four vector loads
+ * added lane by lane: the row shifted left, the row shifted right, the row
+ * above and the row below. Rows keep a zero byte on either side, so the ends of
+ * a row need no special case.
+ *
+ * The module has to be on the module path (--add-modules jdk.incubator.vector,
+ * both to compile and to run). NeighborDegrees only loads this class when the
+ * module was resolved at startup and falls back to its 64-cells-per-word
+ * version otherwise.
+ */
+public final class VectorDegrees {
+    // Tiles are chars, compared 16 bits per lane; flags and degrees are bytes
+    private static final VectorSpecies<Short> TILES = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> FLAGS = flagSpecies(); // As many lanes as TILES, or null
+    private static final VectorSpecies<Byte> SUMS = ByteVector.SPECIES_PREFERRED;
+
+    private VectorDegrees() {
+    }
+
+    // False on hardware whose vectors are too short to hold a byte lane per tile lane
+    static boolean isSupported() {
+        return FLAGS != null;
+    }
+
+    // Byte species with one lane per tile lane, so a comparison mask carries over lane for lane
+    private static VectorSpecies<Byte> flagSpecies() {
+        int bits = TILES.vectorBitSize() / 2;
+        return bits >= 64 ? VectorSpecies.of(byte.class, VectorShape.forBitSize(bits)) : null;
+    }
+
+    // Fills degrees[y * cols + x] with the open-neighbor count of every cell, a vector of cells at a time
+    static void fill(Maze maze, byte[] degrees) {
+        int rows = maze.getRows();
+        int cols = maze.getCols();
+        char[] tiles = new char[cols];
+        byte[] above = new byte[cols + 2]; // Open flag of cell x at index x + 1; both ends stay 0
+        byte[] current = new byte[cols + 2];
+        byte[] below = new byte[cols + 2];
+        if (rows > 0) openFlags(maze, 0, tiles, current);
+
+        for (int y = 0; y < rows; y++) {
+            if (y + 1 < rows) {
+                openFlags(maze, y + 1, tiles, below);
+            } else {
+                Arrays.fill(below, (byte) 0);
+            }
+            int base = y * cols;
+            int x = 0;
+            for (int bound = SUMS.loopBound(cols); x < bound; x += SUMS.length()) {
+                ByteVector.fromArray(SUMS, current, x)              // Left neighbors
+                        .add(ByteVector.fromArray(SUMS, current, x + 2)) // Right neighbors
+                        .add(ByteVector.fromArray(SUMS, above, x + 1))
+                        .add(ByteVector.fromArray(SUMS, below, x + 1))
+                        .intoArray(degrees, base + x);
+            }
+            for (; x < cols; x++) { // The cells left over after the last full vector
+                degrees[base + x] = (byte) (current[x] + current[x + 2] + above[x + 1] + below[x + 1]);
+            }
+            byte[] recycled = above;
+            above = current;
+            current = below;
+            below = recycled;
+        }
+    }
+
+    // Sets flags[x + 1] to 1 for every open cell of row y and to 0 for every wall
+    private static void openFlags(Maze maze, int y, char[] tiles, byte[] flags) {
+        maze.copyRow(y, tiles);
+        ByteVector walls = ByteVector.zero(FLAGS);
+        int x = 0;
+        for (int bound = TILES.loopBound(tiles.length); x < bound; x += TILES.length()) {
+            VectorMask<Short> open = ShortVector.fromCharArray(TILES, tiles, x).compare(VectorOperators.NE, (short) Maze.WALL);
+            walls.blend((byte) 1, open.cast(FLAGS)).intoArray(flags, x + 1);
+        }
+        for (; x < tiles.length; x++) {
+            flags[x + 1] = (byte) (tiles[x] != Maze.WALL ? 1 : 0);
+        }
+    }
+}
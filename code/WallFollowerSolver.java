@@ -29,11 +29,16 @@ public class WallFollowerSolver extends MazeSolver {
     public long solve(boolean visualize) {
         reset(); // Clear any previous data
         long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: no visited marks were allocated
+
+        // Start and end in different components: following walls could never reach the end
+        if (!ConnectivityIndex.isSolvable(maze)) return -1;
 
         // Start facing North if left-hand, South if right-hand
         currentDirection = isLeftHand ? 0 : 2;
         int x = maze.getStartPos().x;
         int y = maze.getStartPos().y;
+        Point end = maze.getEndPos();
 
         // Initialize path and visited position
         path.add(new Point(x, y));
@@ -42,7 +47,9 @@ public class WallFollowerSolver extends MazeSolver {
         steps = 1;
 
         // Continue moving until we reach the end position
-        while (!(x == maze.getEndPos().x && y == maze.getEndPos().y)) {
+        while (!(x == end.x && y == end.y)) {
+            if (!expand()) return stopSearch(path); // Out of budget: the cells walked so far
+
             Point next = findNextMove(x, y);
 
             // No valid move found: solver is stuck
@@ -127,6 +134,13 @@ public class WallFollowerSolver extends MazeSolver {
         isStuck = false;
     }
 
+    // A stuck walk keeps the cells it walked as its path, so it has to be told apart from a solved one
+    @Override
+    public SolveStatus getStatus() {
+        SolveStatus status = super.getStatus();
+        return status == SolveStatus.SOLVED && isStuck ? SolveStatus.NO_PATH : status;
+    }
+
     // Returns true if solver got stuck and couldn't solve the maze
     public boolean isStuck() {
         return isStuck;
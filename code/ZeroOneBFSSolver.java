@@ -0,0 +1,111 @@
+/**
+ * ZeroOneBFSSolver finds a cheapest path when every move costs 0 or 1, using
+ * 0-1 BFS: a deque replaces the priority queue, zero-cost moves are pushed to
+ * the front and unit-cost moves to the back. Each cell index is handled in O(1),
+ * so the search is linear in the size of the maze.
+ *
+ * By default normal moves (including onto penalty tiles) cost 1 and a teleport
+ * hop from Maze.getTeleportPartner costs 0, which suits teleport-heavy mazes.
+ */
+public class ZeroOneBFSSolver extends MazeSolver {
+    // Moves cost 1, teleport hops are free
+    public static final CostModel ZERO_COST_TELEPORTS = new CostModel(1, 1, 0);
+
+    // Up, Right, Down, Left (same order as Maze.getNeighbors)
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private final CostModel costModel;
+
+    // Cost of the last path found, or -1
+    private int pathCost = -1;
+
+    public ZeroOneBFSSolver(Maze maze) {
+        this(maze, ZERO_COST_TELEPORTS);
+    }
+
+    // Constructor checks that every cost is 0 or 1 and sets the algorithm name
+    public ZeroOneBFSSolver(Maze maze, CostModel costModel) {
+        super(maze);
+        if (costModel.getMaxWeight() > 1) {
+            throw new IllegalArgumentException("0-1 BFS needs move costs of 0 or 1, got a cost of "
+                    + costModel.getMaxWeight());
+        }
+        this.costModel = costModel;
+        this.algorithmName = "0-1 BFS";
+    }
+
+    /**
+     * Solves the maze with a deque-based 0-1 BFS over cell indices.
+     *
+     * @param visualize Whether to enable visualization (not used here)
+     * @return Time taken to solve the maze in milliseconds, or -1 if no path found
+     */
+    @Override
+    public long solve(boolean visualize) {
+        SolverWorkspace workspace = beginSearch(); // Reused arrays, nothing allocated in steady state
+        pathCost = -1;
+        long startTime = System.currentTimeMillis();
+        if (isStopped()) return -1; // Over the memory budget: the workspace was not touched
+
+        int cols = maze.getCols();
+        int start = maze.getStartPos().y * cols + maze.getStartPos().x;
+        int end = maze.getEndPos().y * cols + maze.getEndPos().x;
+
+        IntDeque deque = workspace.getDeque();
+        workspace.reach(start, 0, -1);
+        deque.addFirst(start);
+
+        while (!deque.isEmpty()) {
+            int cell = deque.pollFirst();
+            if (workspace.isSettled(cell)) continue; // A cell can be queued twice; only its first pop counts
+            workspace.settle(cell);
+
+            if (cell == end) {
+                storePath(end);
+                pathCost = workspace.getDistance(end);
+                return System.currentTimeMillis() - startTime;
+            }
+            if (!expand()) return stopSearch(cell); // Out of budget: path so far
+
+            int x = cell % cols;
+            int y = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (maze.isOpen(nx, ny)) {
+                    relax(cell, ny * cols + nx, costModel.enterCost(maze.getCell(nx, ny)), workspace, deque);
+                }
+            }
+
+            int partner = maze.getTeleportPartner(cell);
+            if (partner >= 0) {
+                relax(cell, partner, costModel.getTeleportCost(), workspace, deque);
+            }
+        }
+
+        return -1; // No path found
+    }
+
+    // Lowers the distance of a cell and queues it at the front (cost 0) or the back (cost 1)
+    private static void relax(int from, int to, int cost, SolverWorkspace workspace, IntDeque deque) {
+        int newDistance = workspace.getDistance(from) + cost;
+        if (newDistance >= workspace.getDistance(to)) return;
+        workspace.reach(to, newDistance, from);
+        if (cost == 0) {
+            deque.addFirst(to);
+        } else {
+            deque.addLast(to);
+        }
+    }
+
+    // Exact cost of the last path found under this solver's cost model, or -1
+    @Override
+    public int getPathCost() {
+        return pathCost;
+    }
+
+    public CostModel getCostModel() {
+        return costModel;
+    }
+}